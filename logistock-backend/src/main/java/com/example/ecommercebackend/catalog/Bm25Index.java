@@ -0,0 +1,651 @@
+package com.example.ecommercebackend.catalog;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Okapi BM25 ranking over product names and descriptions. Products are mapped to dense ordinals and every term keeps
+ * a posting list of (ordinal, term frequency) in primitive arrays sorted by ordinal, so a million-product catalog
+ * stays compact; ordinals of removed products are handed to the next new one. Queries walk the posting lists
+ * together in ordinal order, one product at a time, and keep the top k in a heap. Once the lowest-scoring terms
+ * together cannot lift a product into it (MaxScore), they stop driving the walk and are only looked up, by galloping
+ * forward, for products a stronger term matched well enough to still make the page. Posting lists also keep a score
+ * bound per block of postings, so runs of products that cannot reach the heap are skipped unscored. Whenever
+ * anything was pruned, the number of matches is estimated instead of counted.
+ */
+@Component
+public class Bm25Index implements CatalogListener {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    // Name matches count as this many occurrences, a simple field boost over the description
+    private static final int NAME_BOOST = 2;
+    private static final int WEIGHT_CACHE_FREQUENCIES = 8;
+    private static final int WEIGHT_CACHE_LENGTHS = 256;
+    // Postings per block of the block-max bounds
+    private static final int BLOCK_SIZE = 16;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Posting> postings = new HashMap<>();
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    // Score buffers are sized to the catalog, so they are pooled per core rather than kept per request thread
+    private final Deque<Scratch> scratchPool = new ArrayDeque<>();
+    private final int scratchPoolSize = Runtime.getRuntime().availableProcessors();
+    private int[] freeOrdinals = new int[16];
+    private int freeCount;
+    private long[] productIds = new long[1024];
+    private int[] documentLengths = new int[1024];
+    private List<String>[] documentTerms = newTermArray(1024);
+    private int nextOrdinal;
+    private int documentCount;
+    private long totalLength;
+
+    public record Hit(Long productId, double score) {
+    }
+
+    /**
+     * The best hits and the number of matching products; the count is exact unless {@code estimated} is set, which
+     * happens when common query terms were pruned.
+     */
+    public record RankedHits(List<Hit> hits, int totalMatches, boolean estimated) {
+    }
+
+    @Override
+    public void onLoad(Collection<CatalogProduct> products) {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            ordinals.clear();
+            productIds = new long[Math.max(1024, products.size())];
+            documentLengths = new int[productIds.length];
+            documentTerms = newTermArray(productIds.length);
+            nextOrdinal = 0;
+            freeCount = 0;
+            documentCount = 0;
+            totalLength = 0;
+            products.forEach(this::index);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onSaved(CatalogProduct previous, CatalogProduct current) {
+        if (previous != null && Objects.equals(previous.productName(), current.productName())
+                && Objects.equals(previous.description(), current.description())) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.get(current.productId());
+            if (ordinal != null) {
+                unindex(ordinal);
+            }
+            index(current);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onRemoved(CatalogProduct previous) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.remove(previous.productId());
+            if (ordinal != null) {
+                unindex(ordinal);
+                release(ordinal);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Scores every product sharing at least one term with the query and returns the best {@code limit} hits,
+     * highest score first (ties broken by product id), together with the number of matching products.
+     */
+    public RankedHits search(String query, int limit) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(Tokenizer.tokenize(query)));
+        lock.readLock().lock();
+        try {
+            List<Posting> lists = new ArrayList<>();
+            for (String term : terms) {
+                Posting posting = postings.get(term);
+                if (posting != null) {
+                    lists.add(posting);
+                }
+            }
+            if (lists.isEmpty()) {
+                return new RankedHits(List.of(), 0, false);
+            }
+            Scratch work = borrowScratch();
+            try {
+                return rank(lists, Math.min(limit, documentCount), work);
+            } finally {
+                releaseScratch(work);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private RankedHits rank(List<Posting> found, int limit, Scratch work) {
+        TermWeights weights = new TermWeights((double) totalLength / documentCount);
+        int n = found.size();
+        Posting[] lists = new Posting[n];
+        double[] idfs = new double[n];
+        double[] maxScores = new double[n];
+        Integer[] order = new Integer[n];
+        for (int t = 0; t < n; t++) {
+            Posting posting = found.get(t);
+            double idf = Math.log(1 + (documentCount - posting.size + 0.5) / (posting.size + 0.5));
+            idfs[t] = idf;
+            maxScores[t] = idf * posting.maxWeight(weights);
+            order[t] = t;
+        }
+        // MaxScore: lists with the lowest bound first, as they are the first that can stop driving the walk
+        Arrays.sort(order, Comparator.comparingDouble((Integer t) -> maxScores[t]));
+        double[] sortedIdfs = new double[n];
+        // lowerBound[t] sums the highest score of the lists before t
+        double[] lowerBound = new double[n + 1];
+        for (int t = 0; t < n; t++) {
+            lists[t] = found.get(order[t]);
+            sortedIdfs[t] = idfs[order[t]];
+            lowerBound[t + 1] = lowerBound[t] + maxScores[order[t]];
+        }
+        idfs = sortedIdfs;
+        // The walk reads the posting arrays directly; they cannot be replaced while the read lock is held
+        int[][] listOrdinals = new int[n][];
+        int[][] listFrequencies = new int[n][];
+        int[] sizes = new int[n];
+        for (int t = 0; t < n; t++) {
+            listOrdinals[t] = lists[t].ordinals;
+            listFrequencies[t] = lists[t].frequencies;
+            sizes[t] = lists[t].size;
+        }
+        int[] lengths = documentLengths;
+
+        work.start(nextOrdinal, limit, productIds);
+        double threshold = work.threshold();
+        int[] positions = new int[n];
+        double[] contributions = new double[n];
+        // Visited products by the last list that matched them while it drove the walk
+        int[] visitedByList = new int[n];
+        // Lists before this one no longer drive the walk
+        int firstEssential = 0;
+        // Products up to windowEnd lie in the current block of every driving list, whose block maxima bound them
+        int windowEnd = -1;
+        boolean skippedBlocks = false;
+        while (true) {
+            int ordinal = Integer.MAX_VALUE;
+            for (int t = firstEssential; t < n; t++) {
+                if (positions[t] < sizes[t] && listOrdinals[t][positions[t]] < ordinal) {
+                    ordinal = listOrdinals[t][positions[t]];
+                }
+            }
+            if (ordinal == Integer.MAX_VALUE) {
+                break;
+            }
+            if (ordinal > windowEnd && threshold > Double.NEGATIVE_INFINITY) {
+                windowEnd = Integer.MAX_VALUE;
+                for (int t = firstEssential; t < n; t++) {
+                    if (positions[t] < sizes[t]) {
+                        windowEnd = Math.min(windowEnd, lists[t].blockEnd(positions[t]));
+                    }
+                }
+                // Lists whose next product lies past the window add nothing to it
+                double bound = lowerBound[firstEssential];
+                for (int t = firstEssential; t < n; t++) {
+                    if (positions[t] < sizes[t] && listOrdinals[t][positions[t]] <= windowEnd) {
+                        bound += idfs[t] * lists[t].blockWeight(positions[t], weights);
+                    }
+                }
+                if (bound < threshold) {
+                    // No product up to windowEnd can make the page: skip the blocks without scoring them
+                    for (int t = firstEssential; t < n; t++) {
+                        positions[t] = lists[t].advance(positions[t], windowEnd + 1);
+                    }
+                    skippedBlocks = true;
+                    continue;
+                }
+            }
+
+            double partial = 0;
+            int lastMatched = firstEssential;
+            for (int t = firstEssential; t < n; t++) {
+                int i = positions[t];
+                if (i < sizes[t] && listOrdinals[t][i] == ordinal) {
+                    contributions[t] = idfs[t] * weights.of(listFrequencies[t][i], lengths[ordinal]);
+                    partial += contributions[t];
+                    positions[t] = i + 1;
+                    lastMatched = t;
+                }
+            }
+            visitedByList[lastMatched]++;
+
+            boolean viable = true;
+            for (int t = firstEssential - 1; t >= 0 && viable; t--) {
+                if (partial + lowerBound[t + 1] < threshold) {
+                    viable = false;
+                } else {
+                    int i = positions[t] = lists[t].advance(positions[t], ordinal);
+                    if (i < sizes[t] && listOrdinals[t][i] == ordinal) {
+                        contributions[t] = idfs[t] * weights.of(listFrequencies[t][i], lengths[ordinal]);
+                        partial += contributions[t];
+                    }
+                }
+            }
+            // Summed in list order, so a product scores the same whichever lists drove the walk
+            double score = 0;
+            for (int t = 0; t < n; t++) {
+                score += contributions[t];
+                contributions[t] = 0;
+            }
+            if (viable && score >= threshold) {
+                work.offer(ordinal, score);
+                threshold = work.threshold();
+                while (firstEssential < n && lowerBound[firstEssential + 1] < threshold) {
+                    firstEssential++;
+                }
+            }
+        }
+
+        int visited = 0;
+        for (int count : visitedByList) {
+            visited += count;
+        }
+        if (n == 1) {
+            return new RankedHits(work.drainBestFirst(), lists[0].size, false);
+        }
+        if (firstEssential == 0 && !skippedBlocks) {
+            return new RankedHits(work.drainBestFirst(), visited, false);
+        }
+        // Every product of a list that drove the walk to the end was visited and counted under that list or a later
+        // one, unless its block was skipped, in which case nothing is taken as counted
+        int counted = 0;
+        if (!skippedBlocks) {
+            for (int t = firstEssential; t < n; t++) {
+                counted += visitedByList[t];
+            }
+        }
+        List<Posting> estimated = skippedBlocks ? Arrays.asList(lists) : Arrays.asList(lists).subList(0, firstEssential);
+        int estimate = estimateMatches(estimated, counted);
+        return new RankedHits(work.drainBestFirst(), Math.max(visited, estimate), true);
+    }
+
+    // The counted products plus the share of the other products the pruned terms are expected to match, assuming
+    // they occur independently of the counted terms
+    private int estimateMatches(List<Posting> pruned, int counted) {
+        double unmatched = 1;
+        for (Posting posting : pruned) {
+            unmatched *= 1 - (double) posting.size / documentCount;
+        }
+        return counted + (int) Math.round((documentCount - counted) * (1 - unmatched));
+    }
+
+    // Highest ordinal handed out so far plus one; score buffers are sized to it
+    int ordinalCapacity() {
+        lock.readLock().lock();
+        try {
+            return nextOrdinal;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Scratch borrowScratch() {
+        synchronized (scratchPool) {
+            Scratch pooled = scratchPool.poll();
+            return pooled != null ? pooled : new Scratch();
+        }
+    }
+
+    // Searches beyond the pool size allocate their own buffers and leave them to the collector
+    private void releaseScratch(Scratch work) {
+        work.reset();
+        synchronized (scratchPool) {
+            if (scratchPool.size() < scratchPoolSize) {
+                scratchPool.push(work);
+            }
+        }
+    }
+
+    private void index(CatalogProduct product) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String token : Tokenizer.tokenize(product.productName())) {
+            frequencies.merge(token, NAME_BOOST, Integer::sum);
+        }
+        for (String token : Tokenizer.tokenize(product.description())) {
+            frequencies.merge(token, 1, Integer::sum);
+        }
+
+        Integer existing = ordinals.get(product.productId());
+        int ordinal = existing != null ? existing : freeCount > 0 ? freeOrdinals[--freeCount] : nextOrdinal++;
+        if (ordinal >= productIds.length) {
+            int capacity = productIds.length * 2;
+            productIds = Arrays.copyOf(productIds, capacity);
+            documentLengths = Arrays.copyOf(documentLengths, capacity);
+            documentTerms = Arrays.copyOf(documentTerms, capacity);
+        }
+        ordinals.put(product.productId(), ordinal);
+        productIds[ordinal] = product.productId();
+
+        int length = 0;
+        for (int frequency : frequencies.values()) {
+            length += frequency;
+        }
+        documentLengths[ordinal] = length;
+        for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), term -> new Posting()).put(ordinal, entry.getValue(), documentLengths);
+        }
+        documentTerms[ordinal] = List.copyOf(frequencies.keySet());
+        documentCount++;
+        totalLength += length;
+    }
+
+    // Leaves the ordinal mapped, so a re-indexed product lands at the same position in every posting list
+    private void unindex(int ordinal) {
+        if (documentTerms[ordinal] == null) {
+            return;
+        }
+        for (String term : documentTerms[ordinal]) {
+            Posting posting = postings.get(term);
+            if (posting != null && posting.remove(ordinal, documentLengths) && posting.size == 0) {
+                postings.remove(term);
+            }
+        }
+        totalLength -= documentLengths[ordinal];
+        documentLengths[ordinal] = 0;
+        documentTerms[ordinal] = null;
+        documentCount--;
+    }
+
+    private void release(int ordinal) {
+        if (freeCount == freeOrdinals.length) {
+            freeOrdinals = Arrays.copyOf(freeOrdinals, freeCount * 2);
+        }
+        freeOrdinals[freeCount++] = ordinal;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String>[] newTermArray(int capacity) {
+        return (List<String>[]) new List[capacity];
+    }
+
+    private record MaxWeight(double averageLength, double weight) {
+    }
+
+    // Postings sorted by ordinal, plus per block of BLOCK_SIZE postings the highest frequency and the shortest document,
+    // which bound the weight of any posting in the block since BM25 grows with frequency and shrinks with length
+    private static final class Posting {
+        private int[] ordinals = new int[4];
+        private int[] frequencies = new int[4];
+        private int[] blockMaxFrequencies = new int[1];
+        private int[] blockMinLengths = new int[1];
+        private int size;
+        // Highest block weight for the average length it was computed with; readers share it under the read lock
+        private volatile MaxWeight maxWeight;
+
+        void put(int ordinal, int frequency, int[] documentLengths) {
+            int index = Arrays.binarySearch(ordinals, 0, size, ordinal);
+            if (index >= 0) {
+                frequencies[index] = frequency;
+                refreshBlocks(index, documentLengths);
+                return;
+            }
+            index = -index - 1;
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+                int blocks = (ordinals.length + BLOCK_SIZE - 1) / BLOCK_SIZE;
+                blockMaxFrequencies = Arrays.copyOf(blockMaxFrequencies, blocks);
+                blockMinLengths = Arrays.copyOf(blockMinLengths, blocks);
+            }
+            System.arraycopy(ordinals, index, ordinals, index + 1, size - index);
+            System.arraycopy(frequencies, index, frequencies, index + 1, size - index);
+            ordinals[index] = ordinal;
+            frequencies[index] = frequency;
+            size++;
+            refreshBlocks(index, documentLengths);
+        }
+
+        boolean remove(int ordinal, int[] documentLengths) {
+            int index = Arrays.binarySearch(ordinals, 0, size, ordinal);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(ordinals, index + 1, ordinals, index, size - index - 1);
+            System.arraycopy(frequencies, index + 1, frequencies, index, size - index - 1);
+            size--;
+            refreshBlocks(index, documentLengths);
+            return true;
+        }
+
+        // Postings from `index` on have moved, so every block from the one holding it to the end is recomputed; a
+        // posting appended to the last block, the common case while loading, only widens that block's bounds
+        private void refreshBlocks(int index, int[] documentLengths) {
+            maxWeight = null;
+            if (index == size - 1 && index % BLOCK_SIZE != 0) {
+                int block = index / BLOCK_SIZE;
+                blockMaxFrequencies[block] = Math.max(blockMaxFrequencies[block], frequencies[index]);
+                blockMinLengths[block] = Math.min(blockMinLengths[block], documentLengths[ordinals[index]]);
+                return;
+            }
+            for (int block = index / BLOCK_SIZE; block * BLOCK_SIZE < size; block++) {
+                int maxFrequency = 0;
+                int minLength = Integer.MAX_VALUE;
+                for (int i = block * BLOCK_SIZE; i < Math.min(size, (block + 1) * BLOCK_SIZE); i++) {
+                    maxFrequency = Math.max(maxFrequency, frequencies[i]);
+                    minLength = Math.min(minLength, documentLengths[ordinals[i]]);
+                }
+                blockMaxFrequencies[block] = maxFrequency;
+                blockMinLengths[block] = minLength;
+            }
+        }
+
+        // Highest weight any posting in the block holding `index` can have
+        double blockWeight(int index, TermWeights weights) {
+            int block = index / BLOCK_SIZE;
+            return weights.of(blockMaxFrequencies[block], blockMinLengths[block]);
+        }
+
+        // Ordinal of the last posting in the block holding `index`
+        int blockEnd(int index) {
+            return ordinals[Math.min(size, (index / BLOCK_SIZE + 1) * BLOCK_SIZE) - 1];
+        }
+
+        double maxWeight(TermWeights weights) {
+            MaxWeight cached = maxWeight;
+            if (cached != null && cached.averageLength() == weights.averageLength) {
+                return cached.weight();
+            }
+            double max = 0;
+            for (int block = 0; block * BLOCK_SIZE < size; block++) {
+                max = Math.max(max, weights.of(blockMaxFrequencies[block], blockMinLengths[block]));
+            }
+            maxWeight = new MaxWeight(weights.averageLength, max);
+            return max;
+        }
+
+        // First position at or after `from` whose ordinal is not below `target`
+        int advance(int from, int target) {
+            if (from >= size || ordinals[from] >= target) {
+                return from;
+            }
+            int low = from;
+            int step = 1;
+            while (low + step < size && ordinals[low + step] < target) {
+                low += step;
+                step <<= 1;
+            }
+            int index = Arrays.binarySearch(ordinals, low + 1, Math.min(size, low + step + 1), target);
+            return index >= 0 ? index : -index - 1;
+        }
+    }
+
+    // BM25 term frequency saturation with length normalisation, tf * (k1 + 1) / (tf + k1 * (1 - b + b * length /
+    // averageLength)); precomputed per query for the common small frequencies and short documents, as Lucene caches
+    // norms, so scoring a posting is a table lookup instead of a division
+    private static final class TermWeights {
+        private final double averageLength;
+        private final double[] cached = new double[WEIGHT_CACHE_FREQUENCIES * WEIGHT_CACHE_LENGTHS];
+
+        TermWeights(double averageLength) {
+            this.averageLength = averageLength;
+            for (int tf = 0; tf < WEIGHT_CACHE_FREQUENCIES; tf++) {
+                for (int length = 0; length < WEIGHT_CACHE_LENGTHS; length++) {
+                    cached[tf * WEIGHT_CACHE_LENGTHS + length] = compute(tf, length);
+                }
+            }
+        }
+
+        double of(int tf, int length) {
+            return tf < WEIGHT_CACHE_FREQUENCIES && length < WEIGHT_CACHE_LENGTHS
+                    ? cached[tf * WEIGHT_CACHE_LENGTHS + length] : compute(tf, length);
+        }
+
+        private double compute(int tf, int length) {
+            return tf * (K1 + 1) / (tf + K1 * (1 - B + B * length / averageLength));
+        }
+    }
+
+    // Per-search bounded min-heap of the best products so far, their scores kept in an ordinal-indexed array. The
+    // worst kept hit sits at the root, so its score is the running MaxScore threshold and most products are rejected
+    // with a single comparison. Scores are reset through the touched list instead of clearing the whole array.
+    private static final class Scratch {
+        private double[] scores = new double[0];
+        private int[] touched = new int[0];
+        private int touchedCount;
+        private int[] heap = new int[0];
+        private int heapSize;
+        private int limit;
+        private long[] productIds;
+
+        void start(int capacity, int limit, long[] productIds) {
+            if (scores.length < capacity) {
+                scores = new double[capacity];
+                touched = new int[capacity];
+            }
+            if (heap.length < limit) {
+                heap = new int[limit];
+            }
+            this.limit = limit;
+            this.productIds = productIds;
+        }
+
+        // Keeps the product if it beats the worst kept hit; every ordinal is offered at most once per search
+        void offer(int ordinal, double score) {
+            if (limit == 0) {
+                return;
+            }
+            if (heapSize < limit) {
+                keep(ordinal, score);
+                place(heapSize, ordinal);
+                siftUp(heapSize++);
+                return;
+            }
+            int worst = heap[0];
+            if (score < scores[worst] || (score == scores[worst] && productIds[ordinal] > productIds[worst])) {
+                return;
+            }
+            keep(ordinal, score);
+            place(0, ordinal);
+            siftDown(0);
+        }
+
+        private void keep(int ordinal, double score) {
+            scores[ordinal] = score;
+            touched[touchedCount++] = ordinal;
+        }
+
+        boolean full() {
+            return limit > 0 && heapSize == limit;
+        }
+
+        // Score a product must at least reach to be kept
+        double threshold() {
+            return full() ? scores[heap[0]] : Double.NEGATIVE_INFINITY;
+        }
+
+        List<Hit> drainBestFirst() {
+            Hit[] hits = new Hit[heapSize];
+            while (heapSize > 0) {
+                int worst = heap[0];
+                hits[heapSize - 1] = new Hit(productIds[worst], scores[worst]);
+                heapSize--;
+                if (heapSize > 0) {
+                    place(0, heap[heapSize]);
+                    siftDown(0);
+                }
+            }
+            return Arrays.asList(hits);
+        }
+
+        void reset() {
+            for (int i = 0; i < touchedCount; i++) {
+                scores[touched[i]] = 0;
+            }
+            touchedCount = 0;
+            heapSize = 0;
+            productIds = null;
+        }
+
+        // Lower score is worse; on equal scores the higher product id is worse
+        private boolean worse(int ordinal, int other) {
+            return scores[ordinal] < scores[other]
+                    || (scores[ordinal] == scores[other] && productIds[ordinal] > productIds[other]);
+        }
+
+        private void place(int slot, int ordinal) {
+            heap[slot] = ordinal;
+        }
+
+        private void siftUp(int slot) {
+            while (slot > 0) {
+                int parent = (slot - 1) / 2;
+                if (!worse(heap[slot], heap[parent])) {
+                    return;
+                }
+                swap(slot, parent);
+                slot = parent;
+            }
+        }
+
+        private void siftDown(int slot) {
+            while (true) {
+                int child = 2 * slot + 1;
+                if (child >= heapSize) {
+                    return;
+                }
+                if (child + 1 < heapSize && worse(heap[child + 1], heap[child])) {
+                    child++;
+                }
+                if (!worse(heap[child], heap[slot])) {
+                    return;
+                }
+                swap(slot, child);
+                slot = child;
+            }
+        }
+
+        private void swap(int a, int b) {
+            int ordinal = heap[a];
+            place(a, heap[b]);
+            place(b, ordinal);
+        }
+    }
+}
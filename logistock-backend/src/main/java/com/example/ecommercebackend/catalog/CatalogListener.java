@@ -0,0 +1,57 @@
+package com.example.ecommercebackend.catalog;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Receives catalog changes from {@link CatalogReadModel} so that derived in-memory structures (search indexes,
+ * facets, caches) stay in step with the snapshot. Callbacks run after the writing transaction has committed and are
+ * serialized by the read model, so implementations only need to make their reads safe against a single writer.
+ */
+public interface CatalogListener {
+
+    /**
+     * Called with the whole catalog when the read model is (re)loaded.
+     */
+    void onLoad(Collection<CatalogProduct> products);
+
+    /**
+     * Called when a product is created or updated; {@code previous} is null for new products.
+     */
+    void onSaved(CatalogProduct previous, CatalogProduct current);
+
+    void onRemoved(CatalogProduct previous);
+
+    /**
+     * A product change; {@code previous} is null for new products and {@code current} is null for removed ones.
+     */
+    record Change(CatalogProduct previous, CatalogProduct current) {
+    }
+
+    /**
+     * Called once per committed write with its changes in order, after the snapshot holding all of them has been
+     * published. The default replays them one by one; structures that copy on write override it to patch once.
+     */
+    default void onChanged(List<Change> changes) {
+        for (Change change : changes) {
+            if (change.current() == null) {
+                onRemoved(change.previous());
+            } else {
+                onSaved(change.previous(), change.current());
+            }
+        }
+    }
+
+    default void onCategorySaved(Long categoryId, String categoryName) {
+    }
+
+    default void onCategoryRemoved(Long categoryId) {
+    }
+
+    /**
+     * Called once per placed order with the units bought per product id.
+     */
+    default void onOrderPlaced(Long orderId, Map<Long, Integer> quantitiesByProduct) {
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.ecommercebackend.catalog;
+
+import com.example.ecommercebackend.dto.ProductDTO;
+import com.example.ecommercebackend.model.Product;
+
+/**
+ * Immutable catalog row held by the in-memory read model. Carries the ProductDTO columns plus the category id used
+ * for per-category slices.
+ */
+public record CatalogProduct(Long productId, String productName, String productImage, String description,
+                             Integer quantity, Double price, Double discount, Double specialPrice, Long categoryId) {
+
+    public static CatalogProduct from(Product product) {
+        Long categoryId = product.getCategory() != null ? product.getCategory().getCategoryId() : null;
+        return new CatalogProduct(product.getProductId(), product.getProductName(), product.getProductImage(),
+                product.getDescription(), product.getQuantity(), product.getPrice(), product.getDiscount(),
+                product.getSpecialPrice(), categoryId);
+    }
+
+    public ProductDTO toDTO() {
+        return new ProductDTO(productId, productName, productImage, description, quantity, price, discount, specialPrice);
+    }
+}
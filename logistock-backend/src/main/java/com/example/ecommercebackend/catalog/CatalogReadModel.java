@@ -0,0 +1,196 @@
+package com.example.ecommercebackend.catalog;
+
+import com.example.ecommercebackend.model.Category;
+import com.example.ecommercebackend.model.Product;
+import com.example.ecommercebackend.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.OrderUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Holds the current {@link CatalogSnapshot}. Readers only dereference a volatile field and never lock; writers
+ * serialize on this object and, once the surrounding transaction has committed, publish one patched copy per write
+ * (however many products it touched) before handing its changes to the listeners.
+ * <p>
+ * Listeners are called in their {@code @Order}, with unannotated ones first and in injection order. Caches of
+ * results computed from the indexes are annotated {@code @Order(Ordered.LOWEST_PRECEDENCE)}, so they are only
+ * invalidated once every index has applied the change; otherwise a read in between could cache a stale result.
+ */
+@Component
+public class CatalogReadModel {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogReadModel.class);
+
+    private final ProductRepository productRepository;
+    private final List<CatalogListener> listeners;
+    // Restarts start a new epoch so that tags handed out by a previous process never match
+    private final long epoch = System.currentTimeMillis();
+    private final AtomicLong version = new AtomicLong();
+    private volatile CatalogSnapshot snapshot;
+
+    @Autowired
+    public CatalogReadModel(ProductRepository productRepository, List<CatalogListener> listeners) {
+        this.productRepository = productRepository;
+        this.listeners = listeners.stream()
+                .sorted(Comparator.comparingInt(listener -> OrderUtils.getOrder(listener.getClass(), 0)))
+                .toList();
+    }
+
+    // Loaded once the startup runners (DataLoader) have seeded the database
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        snapshot();
+    }
+
+    public CatalogSnapshot snapshot() {
+        CatalogSnapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                current = snapshot;
+                if (current == null) {
+                    current = loadSnapshot();
+                }
+            }
+        }
+        return current;
+    }
+
+    public synchronized void reload() {
+        loadSnapshot();
+    }
+
+    private CatalogSnapshot loadSnapshot() {
+        CatalogSnapshot loaded = CatalogSnapshot.of(productRepository.findAllCatalogProducts());
+        snapshot = loaded;
+        notifyListeners(listener -> listener.onLoad(loaded.products()));
+        version.incrementAndGet();
+        return loaded;
+    }
+
+    /**
+     * Weak entity tag for anything derived from the catalog (products and categories). The version is bumped after
+     * every committed write has reached the snapshot and all listeners, so a tag is never paired with older data.
+     */
+    public String etag() {
+        return "W/\"" + epoch + "-" + version.get() + "\"";
+    }
+
+    public boolean supports(String sortBy) {
+        return CatalogSortKeys.supports(sortBy);
+    }
+
+    public void productSaved(Product product) {
+        afterCommit(() -> apply(List.of(CatalogProduct.from(product)), List.of()));
+    }
+
+    public void productsSaved(Collection<Product> products) {
+        afterCommit(() -> apply(products.stream().map(CatalogProduct::from).toList(), List.of()));
+    }
+
+    public void catalogProductsSaved(List<CatalogProduct> products) {
+        List<CatalogProduct> imported = List.copyOf(products);
+        afterCommit(() -> apply(imported, List.of()));
+    }
+
+    public void productRemoved(Long productId) {
+        afterCommit(() -> apply(List.of(), List.of(productId)));
+    }
+
+    public void productsRemoved(Collection<Long> productIds) {
+        List<Long> removed = List.copyOf(productIds);
+        afterCommit(() -> apply(List.of(), removed));
+    }
+
+    public void categorySaved(Category category) {
+        Long categoryId = category.getCategoryId();
+        String categoryName = category.getCategoryName();
+        afterCommit(() -> dispatch(listener -> listener.onCategorySaved(categoryId, categoryName)));
+    }
+
+    public void categoryRemoved(Long categoryId) {
+        afterCommit(() -> dispatch(listener -> listener.onCategoryRemoved(categoryId)));
+    }
+
+    public void orderPlaced(Long orderId, Map<Long, Integer> quantitiesByProduct) {
+        Map<Long, Integer> quantities = Map.copyOf(quantitiesByProduct);
+        afterCommit(() -> dispatch(listener -> listener.onOrderPlaced(orderId, quantities)));
+    }
+
+    private synchronized void dispatch(Consumer<CatalogListener> callback) {
+        if (snapshot != null) {
+            notifyListeners(callback);
+        }
+        version.incrementAndGet();
+    }
+
+    private synchronized void apply(List<CatalogProduct> saved, List<Long> removed) {
+        CatalogSnapshot current = snapshot;
+        if (current == null) {
+            // Not loaded yet; the initial load will read the committed state
+            return;
+        }
+        // Each change sees the version left by the batch's earlier changes to the same product
+        Map<Long, CatalogProduct> latest = new HashMap<>();
+        List<CatalogListener.Change> changes = new ArrayList<>(saved.size() + removed.size());
+        for (CatalogProduct product : saved) {
+            changes.add(new CatalogListener.Change(previousVersion(current, latest, product.productId()), product));
+            latest.put(product.productId(), product);
+        }
+        for (Long productId : removed) {
+            CatalogProduct previous = previousVersion(current, latest, productId);
+            if (previous != null) {
+                changes.add(new CatalogListener.Change(previous, null));
+                latest.put(productId, null);
+            }
+        }
+        snapshot = current.withChanges(saved, removed);
+        if (!changes.isEmpty()) {
+            List<CatalogListener.Change> published = List.copyOf(changes);
+            notifyListeners(listener -> listener.onChanged(published));
+        }
+        version.incrementAndGet();
+    }
+
+    private static CatalogProduct previousVersion(CatalogSnapshot current, Map<Long, CatalogProduct> latest, Long productId) {
+        return latest.containsKey(productId) ? latest.get(productId) : current.find(productId).orElse(null);
+    }
+
+    // A failing listener must not stop the snapshot or the other listeners from moving forward
+    private void notifyListeners(Consumer<CatalogListener> callback) {
+        for (CatalogListener listener : listeners) {
+            try {
+                callback.accept(listener);
+            } catch (RuntimeException e) {
+                logger.error("Catalog listener {} failed: {}", listener.getClass().getSimpleName(), e.getMessage(), e);
+            }
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
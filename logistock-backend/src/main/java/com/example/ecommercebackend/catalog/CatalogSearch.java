@@ -0,0 +1,186 @@
+package com.example.ecommercebackend.catalog;
+
+import com.example.ecommercebackend.config.AppConstants;
+import com.example.ecommercebackend.dto.ProductDTO;
+import com.example.ecommercebackend.dto.ProductResponse;
+import com.example.ecommercebackend.dto.RecommendationDTO;
+import com.example.ecommercebackend.dto.SuggestionDTO;
+import com.example.ecommercebackend.dto.TopSellerDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Product search over the in-memory catalog, backed by the indexes that listen to {@link CatalogReadModel}.
+ */
+@Component
+public class CatalogSearch {
+
+    private static final String PRICE_SORT_BY = "specialPrice";
+
+    private final CatalogReadModel catalogReadModel;
+    private final TrigramIndex trigramIndex;
+    private final Bm25Index bm25Index;
+    private final FuzzyIndex fuzzyIndex;
+    private final SuggestionIndex suggestionIndex;
+    private final FacetIndex facetIndex;
+    private final PriceIndex priceIndex;
+    private final CoPurchaseIndex coPurchaseIndex;
+    private final TopSellerIndex topSellerIndex;
+
+    @Autowired
+    public CatalogSearch(CatalogReadModel catalogReadModel, TrigramIndex trigramIndex, Bm25Index bm25Index, FuzzyIndex fuzzyIndex, SuggestionIndex suggestionIndex, FacetIndex facetIndex, PriceIndex priceIndex, CoPurchaseIndex coPurchaseIndex, TopSellerIndex topSellerIndex) {
+        this.catalogReadModel = catalogReadModel;
+        this.trigramIndex = trigramIndex;
+        this.bm25Index = bm25Index;
+        this.fuzzyIndex = fuzzyIndex;
+        this.suggestionIndex = suggestionIndex;
+        this.facetIndex = facetIndex;
+        this.priceIndex = priceIndex;
+        this.coPurchaseIndex = coPurchaseIndex;
+        this.topSellerIndex = topSellerIndex;
+    }
+
+    /**
+     * Products whose name contains the keyword (case-insensitive), sorted ascending by {@code sortBy}.
+     */
+    public List<CatalogProduct> containing(String keyword, String sortBy) {
+        CatalogSnapshot snapshot = catalogReadModel.snapshot();
+        String needle = keyword.toLowerCase(Locale.ROOT);
+
+        Optional<Set<Long>> candidateIds = trigramIndex.candidates(needle);
+        Collection<CatalogProduct> candidates = candidateIds.isPresent()
+                ? candidateIds.get().stream().map(id -> snapshot.find(id).orElse(null)).filter(Objects::nonNull).toList()
+                : snapshot.products();
+
+        return candidates.stream()
+                .filter(product -> product.productName() != null
+                        && product.productName().toLowerCase(Locale.ROOT).contains(needle))
+                .sorted(CatalogSortKeys.comparator(sortBy))
+                .toList();
+    }
+
+    /**
+     * Products whose name matches every keyword token allowing for typos, sorted ascending by {@code sortBy}, or
+     * closest match first when {@code sortBy} is {@code relevance}.
+     */
+    public List<CatalogProduct> fuzzy(String keyword, String sortBy) {
+        CatalogSnapshot snapshot = catalogReadModel.snapshot();
+        Map<Long, Integer> distances = fuzzyIndex.matches(keyword);
+        Comparator<CatalogProduct> order = AppConstants.RELEVANCE_SORT_BY.equals(sortBy)
+                ? Comparator.<CatalogProduct>comparingInt(product -> distances.get(product.productId()))
+                        .thenComparing(CatalogProduct::productId)
+                : CatalogSortKeys.comparator(sortBy);
+        return distances.keySet().stream()
+                .map(id -> snapshot.find(id).orElse(null))
+                .filter(Objects::nonNull)
+                .sorted(order)
+                .toList();
+    }
+
+    /**
+     * One page of products matching any keyword term in name or description, best BM25 score first. Only the
+     * hits up to the end of the requested page, plus one to tell whether another page follows, are ranked, so deep
+     * pages cost more than the first one. Totals are left empty when the index only estimated the match count.
+     */
+    public ProductResponse ranked(String keyword, int pageNumber, int pageSize) {
+        if (pageNumber < 0 || pageSize < 1) {
+            throw new IllegalArgumentException("Page number must not be negative and page size must be positive");
+        }
+        CatalogSnapshot snapshot = catalogReadModel.snapshot();
+        long offset = (long) pageNumber * pageSize;
+        long end = offset + pageSize;
+        Bm25Index.RankedHits ranked = bm25Index.search(keyword, (int) Math.min(Integer.MAX_VALUE, end + 1));
+        List<Bm25Index.Hit> hits = ranked.hits();
+
+        List<ProductDTO> content = new ArrayList<>(pageSize);
+        for (long i = offset; i < Math.min(end, hits.size()); i++) {
+            snapshot.find(hits.get((int) i).productId()).ifPresent(product -> content.add(product.toDTO()));
+        }
+        boolean lastPage = hits.size() <= end;
+        if (ranked.estimated()) {
+            return new ProductResponse(content, pageNumber, pageSize, null, null, lastPage);
+        }
+        int total = ranked.totalMatches();
+        return new ProductResponse(content, pageNumber, pageSize, (long) total, (total + pageSize - 1) / pageSize, lastPage);
+    }
+
+    /**
+     * One page of the products matching the facet selections, sorted by {@code sortBy}, with per-value facet counts.
+     */
+    public FacetIndex.FacetPage filter(Map<String, Set<String>> selections, String sortBy, boolean ascending, int pageNumber, int pageSize) {
+        return facetIndex.filter(selections, catalogReadModel.snapshot().sorted(sortBy), ascending, pageNumber, pageSize);
+    }
+
+    /**
+     * One page of the products whose special price lies within [{@code minPrice}, {@code maxPrice}] (null bounds are
+     * open). Sorted by price the page is cut straight from the price index; any other key sorts only the products
+     * inside the range.
+     */
+    public ProductResponse priceRange(Double minPrice, Double maxPrice, String sortBy, boolean ascending, int pageNumber, int pageSize) {
+        if (pageNumber < 0 || pageSize < 1) {
+            throw new IllegalArgumentException("Page number must not be negative and page size must be positive");
+        }
+        CatalogSnapshot snapshot = catalogReadModel.snapshot();
+        PriceIndex.Range range = priceIndex.range(minPrice, maxPrice);
+        if (!PRICE_SORT_BY.equals(sortBy)) {
+            List<CatalogProduct> inRange = new ArrayList<>(range.size());
+            for (int i = 0; i < range.size(); i++) {
+                snapshot.find(range.productId(i)).ifPresent(inRange::add);
+            }
+            inRange.sort(CatalogSortKeys.comparator(sortBy));
+            return CatalogSnapshot.page(inRange, ascending, pageNumber, pageSize);
+        }
+        int total = range.size();
+        long offset = (long) pageNumber * pageSize;
+        List<ProductDTO> content = new ArrayList<>(pageSize);
+        for (long i = offset; i < Math.min(total, offset + pageSize); i++) {
+            int index = ascending ? (int) i : total - 1 - (int) i;
+            snapshot.find(range.productId(index)).ifPresent(product -> content.add(product.toDTO()));
+        }
+        int totalPages = (total + pageSize - 1) / pageSize;
+        return new ProductResponse(content, pageNumber, pageSize, (long) total, totalPages, pageNumber + 1 >= totalPages);
+    }
+
+    public List<SuggestionDTO> suggest(String prefix, int limit) {
+        // Make sure the read model, and with it the suggestion trie, has been loaded
+        catalogReadModel.snapshot();
+        return suggestionIndex.suggest(prefix, limit);
+    }
+
+    /**
+     * Products most often ordered together with the given one, strongest first, leaving out any that left the catalog.
+     */
+    public List<RecommendationDTO> recommendations(Long productId, int limit) {
+        CatalogSnapshot snapshot = catalogReadModel.snapshot();
+        return coPurchaseIndex.recommendations(productId, limit).stream()
+                .map(recommendation -> snapshot.find(recommendation.productId())
+                        .map(product -> new RecommendationDTO(product.toDTO(), recommendation.ordersTogether()))
+                        .orElse(null))
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    /**
+     * Best sellers of the category, or of the whole catalog when {@code categoryId} is null, all time or over the last
+     * 24 hours, most units first.
+     */
+    public List<TopSellerDTO> topSellers(Long categoryId, boolean lastDay, int limit) {
+        CatalogSnapshot snapshot = catalogReadModel.snapshot();
+        return topSellerIndex.topSellers(categoryId, lastDay, limit).stream()
+                .map(sales -> snapshot.find(sales.productId())
+                        .map(product -> new TopSellerDTO(product.toDTO(), sales.unitsSold()))
+                        .orElse(null))
+                .filter(Objects::nonNull)
+                .toList();
+    }
+}
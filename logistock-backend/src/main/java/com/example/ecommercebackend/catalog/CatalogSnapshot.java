@@ -0,0 +1,255 @@
+package com.example.ecommercebackend.catalog;
+
+import com.example.ecommercebackend.dto.ProductDTO;
+import com.example.ecommercebackend.dto.ProductResponse;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.ToIntFunction;
+
+/**
+ * Immutable view of the whole catalog. Products are kept sorted ascending by every supported sort key, both globally
+ * and per category, so a page is a sublist lookup. Writes never modify a snapshot; they produce a patched copy.
+ */
+public final class CatalogSnapshot {
+
+    private static final CatalogSnapshot EMPTY = new CatalogSnapshot(Map.of(), Map.of(), Map.of());
+
+    private final Map<Long, CatalogProduct> productsById;
+    private final Map<String, List<CatalogProduct>> sorted;
+    private final Map<Long, Map<String, List<CatalogProduct>>> sortedByCategory;
+
+    private CatalogSnapshot(Map<Long, CatalogProduct> productsById,
+                            Map<String, List<CatalogProduct>> sorted,
+                            Map<Long, Map<String, List<CatalogProduct>>> sortedByCategory) {
+        this.productsById = productsById;
+        this.sorted = sorted;
+        this.sortedByCategory = sortedByCategory;
+    }
+
+    public static CatalogSnapshot empty() {
+        return EMPTY;
+    }
+
+    public static CatalogSnapshot of(Collection<CatalogProduct> products) {
+        Map<Long, CatalogProduct> byId = new HashMap<>();
+        Map<Long, List<CatalogProduct>> byCategory = new HashMap<>();
+        for (CatalogProduct product : products) {
+            byId.put(product.productId(), product);
+            if (product.categoryId() != null) {
+                byCategory.computeIfAbsent(product.categoryId(), id -> new ArrayList<>()).add(product);
+            }
+        }
+        Map<Long, Map<String, List<CatalogProduct>>> sortedByCategory = new HashMap<>();
+        byCategory.forEach((categoryId, categoryProducts) -> sortedByCategory.put(categoryId, sortAll(categoryProducts)));
+        return new CatalogSnapshot(Map.copyOf(byId), sortAll(byId.values()), Map.copyOf(sortedByCategory));
+    }
+
+    private static Map<String, List<CatalogProduct>> sortAll(Collection<CatalogProduct> products) {
+        Map<String, List<CatalogProduct>> sorted = new HashMap<>();
+        for (String sortBy : CatalogSortKeys.keys()) {
+            List<CatalogProduct> list = new ArrayList<>(products);
+            list.sort(CatalogSortKeys.comparator(sortBy));
+            sorted.put(sortBy, Collections.unmodifiableList(list));
+        }
+        return Map.copyOf(sorted);
+    }
+
+    public int size() {
+        return productsById.size();
+    }
+
+    public Optional<CatalogProduct> find(Long productId) {
+        return Optional.ofNullable(productsById.get(productId));
+    }
+
+    public Collection<CatalogProduct> products() {
+        return productsById.values();
+    }
+
+    /**
+     * All products sorted ascending by {@code sortBy}, or null when the key is not supported.
+     */
+    public List<CatalogProduct> sorted(String sortBy) {
+        return sorted.get(sortBy);
+    }
+
+    public ProductResponse page(String sortBy, boolean ascending, int pageNumber, int pageSize) {
+        return page(sorted.get(sortBy), ascending, pageNumber, pageSize);
+    }
+
+    public ProductResponse pageByCategory(Long categoryId, String sortBy, boolean ascending, int pageNumber, int pageSize) {
+        Map<String, List<CatalogProduct>> category = sortedByCategory.get(categoryId);
+        return page(category != null ? category.get(sortBy) : List.of(), ascending, pageNumber, pageSize);
+    }
+
+    /**
+     * Keyset page: up to {@code pageSize} products strictly after the position ({@code value}, {@code productId}) in
+     * the requested direction, or from the start when {@code productId} is null. The position is found by binary
+     * search, so deep pages cost as much as the first; keyset pages carry no page number and no totals.
+     */
+    public ProductResponse pageAfter(String sortBy, boolean ascending, String value, Long productId, int pageSize) {
+        return pageAfter(sorted.get(sortBy), sortBy, ascending, value, productId, pageSize);
+    }
+
+    public ProductResponse pageByCategoryAfter(Long categoryId, String sortBy, boolean ascending, String value, Long productId, int pageSize) {
+        Map<String, List<CatalogProduct>> category = sortedByCategory.get(categoryId);
+        return pageAfter(category != null ? category.get(sortBy) : List.of(), sortBy, ascending, value, productId, pageSize);
+    }
+
+    private static ProductResponse pageAfter(List<CatalogProduct> products, String sortBy, boolean ascending,
+                                             String value, Long productId, int pageSize) {
+        if (products == null) {
+            throw new IllegalArgumentException("Unsupported catalog sort key");
+        }
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        ToIntFunction<CatalogProduct> position = productId == null ? null : CatalogSortKeys.position(sortBy, value, productId);
+        List<ProductDTO> content = new ArrayList<>(pageSize);
+        boolean lastPage;
+        if (ascending) {
+            int from = position == null ? 0 : firstAtLeast(products, position, 1);
+            for (int i = from; i < Math.min(products.size(), from + pageSize); i++) {
+                content.add(products.get(i).toDTO());
+            }
+            lastPage = from + pageSize >= products.size();
+        } else {
+            int to = position == null ? products.size() : firstAtLeast(products, position, 0);
+            for (int i = to - 1; i >= Math.max(0, to - pageSize); i--) {
+                content.add(products.get(i).toDTO());
+            }
+            lastPage = to - pageSize <= 0;
+        }
+        return new ProductResponse(content, null, pageSize, null, null, lastPage);
+    }
+
+    // Index of the first product whose comparison with the position is at least `sign`
+    private static int firstAtLeast(List<CatalogProduct> products, ToIntFunction<CatalogProduct> position, int sign) {
+        int low = 0;
+        int high = products.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (Integer.signum(position.applyAsInt(products.get(middle))) < sign) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Pages an already sorted (ascending) list; descending pages walk it from the end.
+     */
+    public static ProductResponse page(List<CatalogProduct> products, boolean ascending, int pageNumber, int pageSize) {
+        if (products == null) {
+            throw new IllegalArgumentException("Unsupported catalog sort key");
+        }
+        if (pageNumber < 0 || pageSize < 1) {
+            throw new IllegalArgumentException("Page number must not be negative and page size must be positive");
+        }
+        int total = products.size();
+        long offset = (long) pageNumber * pageSize;
+        List<ProductDTO> content = new ArrayList<>(pageSize);
+        for (long i = offset; i < Math.min(total, offset + pageSize); i++) {
+            int index = ascending ? (int) i : total - 1 - (int) i;
+            content.add(products.get(index).toDTO());
+        }
+        int totalPages = (total + pageSize - 1) / pageSize;
+        return new ProductResponse(content, pageNumber, pageSize, (long) total, totalPages, pageNumber + 1 >= totalPages);
+    }
+
+    /**
+     * Copy-on-write patch: returns a new snapshot with the product inserted or replaced.
+     */
+    public CatalogSnapshot withProduct(CatalogProduct product) {
+        return withChanges(List.of(product), List.of());
+    }
+
+    /**
+     * Copy-on-write patch: returns a new snapshot without the product.
+     */
+    public CatalogSnapshot withoutProduct(Long productId) {
+        return withChanges(List.of(), List.of(productId));
+    }
+
+    /**
+     * Copy-on-write patch for a whole batch: inserts or replaces the saved products, then drops the removed ids.
+     * Every affected sorted list is rebuilt once by merging the batch into it, so a batch of M products costs
+     * O(N + M log M) per list rather than a copy of every list per product.
+     */
+    public CatalogSnapshot withChanges(Collection<CatalogProduct> saved, Collection<Long> removed) {
+        // Latest version per product id; null marks a removal
+        Map<Long, CatalogProduct> changes = new LinkedHashMap<>();
+        saved.forEach(product -> changes.put(product.productId(), product));
+        removed.forEach(productId -> changes.put(productId, null));
+
+        Map<Long, CatalogProduct> byId = new HashMap<>(productsById);
+        Set<Long> replaced = new HashSet<>();
+        List<CatalogProduct> inserted = new ArrayList<>();
+        // Categories losing or gaining a product, with the products they gain
+        Map<Long, List<CatalogProduct>> insertedByCategory = new HashMap<>();
+        changes.forEach((productId, product) -> {
+            CatalogProduct previous = productsById.get(productId);
+            if (previous != null) {
+                replaced.add(productId);
+                if (previous.categoryId() != null) {
+                    insertedByCategory.computeIfAbsent(previous.categoryId(), id -> new ArrayList<>());
+                }
+            }
+            if (product != null) {
+                byId.put(productId, product);
+                inserted.add(product);
+                if (product.categoryId() != null) {
+                    insertedByCategory.computeIfAbsent(product.categoryId(), id -> new ArrayList<>()).add(product);
+                }
+            } else {
+                byId.remove(productId);
+            }
+        });
+        if (replaced.isEmpty() && inserted.isEmpty()) {
+            return this;
+        }
+
+        Map<Long, Map<String, List<CatalogProduct>>> byCategory = new HashMap<>(sortedByCategory);
+        insertedByCategory.forEach((categoryId, categoryInserted) -> byCategory.put(categoryId,
+                merge(sortedByCategory.getOrDefault(categoryId, Map.of()), replaced, categoryInserted)));
+        return new CatalogSnapshot(Map.copyOf(byId), merge(sorted, replaced, inserted), Map.copyOf(byCategory));
+    }
+
+    // Drops the products with `replaced` ids from every sorted list and merges `inserted` in, keeping them ordered
+    private static Map<String, List<CatalogProduct>> merge(Map<String, List<CatalogProduct>> lists,
+                                                           Set<Long> replaced, List<CatalogProduct> inserted) {
+        Map<String, List<CatalogProduct>> merged = new HashMap<>();
+        for (String sortBy : CatalogSortKeys.keys()) {
+            Comparator<CatalogProduct> comparator = CatalogSortKeys.comparator(sortBy);
+            List<CatalogProduct> existing = lists.getOrDefault(sortBy, List.of());
+            List<CatalogProduct> additions = new ArrayList<>(inserted);
+            additions.sort(comparator);
+            List<CatalogProduct> list = new ArrayList<>(existing.size() + additions.size());
+            int next = 0;
+            for (CatalogProduct product : existing) {
+                if (replaced.contains(product.productId())) {
+                    continue;
+                }
+                while (next < additions.size() && comparator.compare(additions.get(next), product) < 0) {
+                    list.add(additions.get(next++));
+                }
+                list.add(product);
+            }
+            list.addAll(additions.subList(next, additions.size()));
+            merged.put(sortBy, Collections.unmodifiableList(list));
+        }
+        return Map.copyOf(merged);
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.ecommercebackend.catalog;
+
+import org.springframework.core.convert.ConversionException;
+import org.springframework.core.convert.support.DefaultConversionService;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * The product columns listings can be sorted by, with their comparators. Nulls sort first, like H2 does for ascending
+ * order, and ties are broken by product id so that paging is stable. Every key is backed by a (key, product id) and a
+ * (category, key, product id) index on products, so the database paths can read pages in index order; other columns
+ * are rejected rather than sorted in full.
+ */
+public final class CatalogSortKeys {
+
+    private static final Map<String, Comparator<CatalogProduct>> COMPARATORS = new LinkedHashMap<>();
+    private static final Map<String, KeyOrder<?>> KEY_ORDERS = new HashMap<>();
+
+    static {
+        register("productId", Long.class, CatalogProduct::productId);
+        register("productName", String.class, CatalogProduct::productName);
+        register("price", Double.class, CatalogProduct::price);
+        register("discount", Double.class, CatalogProduct::discount);
+        register("specialPrice", Double.class, CatalogProduct::specialPrice);
+    }
+
+    // A key's type and order, so positions given as the key's string form can be compared with products
+    private record KeyOrder<T extends Comparable<? super T>>(Class<T> type, Function<CatalogProduct, T> key) {
+
+        ToIntFunction<CatalogProduct> position(String value, Long productId) {
+            Comparator<T> order = Comparator.nullsFirst(Comparator.naturalOrder());
+            T converted = value == null ? null : DefaultConversionService.getSharedInstance().convert(value, type);
+            return product -> {
+                int byKey = order.compare(key.apply(product), converted);
+                return byKey != 0 ? byKey : product.productId().compareTo(productId);
+            };
+        }
+    }
+
+    private CatalogSortKeys() {
+    }
+
+    private static <T extends Comparable<? super T>> void register(String sortBy, Class<T> type, Function<CatalogProduct, T> key) {
+        Comparator<CatalogProduct> comparator = Comparator.comparing(key, Comparator.nullsFirst(Comparator.naturalOrder()));
+        COMPARATORS.put(sortBy, comparator.thenComparing(CatalogProduct::productId));
+        KEY_ORDERS.put(sortBy, new KeyOrder<>(type, key));
+    }
+
+    public static boolean supports(String sortBy) {
+        return COMPARATORS.containsKey(sortBy);
+    }
+
+    public static Comparator<CatalogProduct> comparator(String sortBy) {
+        Comparator<CatalogProduct> comparator = COMPARATORS.get(sortBy);
+        if (comparator == null) {
+            throw new IllegalArgumentException("Unsupported catalog sort key: " + sortBy);
+        }
+        return comparator;
+    }
+
+    /**
+     * Compares products with the keyset position ({@code value}, {@code productId}) in the order of
+     * {@link #comparator}: negative when the product sorts before it. The value is the key in its string form, or
+     * null for a null key.
+     */
+    public static ToIntFunction<CatalogProduct> position(String sortBy, String value, Long productId) {
+        KeyOrder<?> keyOrder = KEY_ORDERS.get(sortBy);
+        if (keyOrder == null) {
+            throw new IllegalArgumentException("Unsupported catalog sort key: " + sortBy);
+        }
+        try {
+            return keyOrder.position(value, productId);
+        } catch (ConversionException e) {
+            throw new IllegalArgumentException("Position value '" + value + "' does not fit sort key " + sortBy, e);
+        }
+    }
+
+    public static Set<String> keys() {
+        return Collections.unmodifiableSet(COMPARATORS.keySet());
+    }
+}
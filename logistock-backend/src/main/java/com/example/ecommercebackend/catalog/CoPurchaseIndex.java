@@ -0,0 +1,322 @@
+package com.example.ecommercebackend.catalog;
+
+import com.example.ecommercebackend.repository.OrderItemRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+
+/**
+ * "Frequently bought together": a sparse, symmetric matrix of how many orders contained both products. Every row is
+ * a {@link LongLongMap} of partner id to order count plus the {@link #TOP_K} strongest partners, kept sorted as
+ * orders arrive, so a lookup copies at most {@link #TOP_K} entries and never touches order history.
+ *
+ * <p>The full rebuild reads order lines once and splits the rows into stripes by product id; each stripe is built by
+ * its own worker scanning all baskets, so workers never share a row. Orders and removals arriving while a rebuild
+ * runs are applied to the live matrix and replayed onto the new one, skipping orders the rebuild already read.</p>
+ *
+ * <p>A catalog load only starts a rebuild in the background, so loading is not held up by order history; until it
+ * finishes the matrix holds just the orders placed since, and products may have no recommendations yet.</p>
+ */
+@Component
+public class CoPurchaseIndex implements CatalogListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(CoPurchaseIndex.class);
+
+    public static final int TOP_K = 20;
+
+    private final OrderItemRepository orderItemRepository;
+    private final Executor rebuilder;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private Map<Long, Row> rows = new HashMap<>();
+    // Non-null while a rebuild runs
+    private List<Change> replay;
+
+    public record Recommendation(Long productId, long ordersTogether) {
+    }
+
+    private sealed interface Change permits PlacedOrder, RemovedProduct {
+    }
+
+    private record PlacedOrder(long orderId, long[] basket) implements Change {
+    }
+
+    private record RemovedProduct(long productId) implements Change {
+    }
+
+    @Autowired
+    public CoPurchaseIndex(OrderItemRepository orderItemRepository) {
+        this(orderItemRepository, Executors.newSingleThreadExecutor(new CustomizableThreadFactory("co-purchase-")));
+    }
+
+    CoPurchaseIndex(OrderItemRepository orderItemRepository, Executor rebuilder) {
+        this.orderItemRepository = orderItemRepository;
+        this.rebuilder = rebuilder;
+    }
+
+    /**
+     * Up to {@code limit} (at most {@link #TOP_K}) products most often ordered together with the given one, most
+     * frequent first, ties broken by product id.
+     */
+    public List<Recommendation> recommendations(Long productId, int limit) {
+        lock.readLock().lock();
+        try {
+            Row row = rows.get(productId);
+            if (row == null) {
+                return List.of();
+            }
+            int size = Math.min(limit, row.topSize);
+            List<Recommendation> result = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                result.add(new Recommendation(row.topIds[i], row.topCounts[i]));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void onLoad(Collection<CatalogProduct> products) {
+        lock.writeLock().lock();
+        try {
+            rows = new HashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        rebuilder.execute(() -> {
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                logger.error("Co-purchase index rebuild failed", e);
+            }
+        });
+    }
+
+    @Override
+    public void onSaved(CatalogProduct previous, CatalogProduct current) {
+    }
+
+    @Override
+    public void onRemoved(CatalogProduct previous) {
+        lock.writeLock().lock();
+        try {
+            removeProduct(rows, previous.productId());
+            if (replay != null) {
+                replay.add(new RemovedProduct(previous.productId()));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onOrderPlaced(Long orderId, Map<Long, Integer> quantitiesByProduct) {
+        long[] basket = quantitiesByProduct.keySet().stream().mapToLong(Long::longValue).distinct().toArray();
+        lock.writeLock().lock();
+        try {
+            addOrder(rows, basket);
+            if (replay != null) {
+                replay.add(new PlacedOrder(orderId, basket));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Recomputes the matrix from all orders. Also started after every catalog load; the schedule only corrects drift,
+     * e.g. from orders changed outside the application.
+     */
+    @Scheduled(fixedDelayString = "${product.recommendations.rebuild-interval-ms:86400000}", initialDelayString = "${product.recommendations.rebuild-interval-ms:86400000}")
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            lock.writeLock().lock();
+            try {
+                replay = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            List<OrderLine> lines = orderItemRepository.findAllOrderLines();
+            List<Long> orderIds = new ArrayList<>();
+            List<long[]> baskets = new ArrayList<>();
+            for (int from = 0; from < lines.size(); ) {
+                long orderId = lines.get(from).orderId();
+                int to = from;
+                while (to < lines.size() && lines.get(to).orderId() == orderId) {
+                    to++;
+                }
+                orderIds.add(orderId);
+                baskets.add(lines.subList(from, to).stream().mapToLong(OrderLine::productId).toArray());
+                from = to;
+            }
+            long[] scannedOrderIds = orderIds.stream().mapToLong(Long::longValue).toArray();
+            Map<Long, Row> rebuilt = build(baskets);
+
+            lock.writeLock().lock();
+            try {
+                for (Change change : replay) {
+                    if (change instanceof PlacedOrder order && Arrays.binarySearch(scannedOrderIds, order.orderId()) < 0) {
+                        addOrder(rebuilt, order.basket());
+                    } else if (change instanceof RemovedProduct removed) {
+                        removeProduct(rebuilt, removed.productId());
+                    }
+                }
+                rows = rebuilt;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            logger.info("Rebuilt co-purchase index from {} orders, {} products", baskets.size(), rebuilt.size());
+        } finally {
+            lock.writeLock().lock();
+            replay = null;
+            lock.writeLock().unlock();
+            rebuildLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (rebuilder instanceof ExecutorService executor) {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Map<Long, Row> build(List<long[]> baskets) {
+        int stripes = Math.max(1, Runtime.getRuntime().availableProcessors());
+        List<Map<Long, Row>> partials = IntStream.range(0, stripes).parallel()
+                .mapToObj(stripe -> {
+                    Map<Long, Row> owned = new HashMap<>();
+                    for (long[] basket : baskets) {
+                        for (long productId : basket) {
+                            if (Math.floorMod(productId, stripes) != stripe) {
+                                continue;
+                            }
+                            Row row = owned.computeIfAbsent(productId, id -> new Row());
+                            for (long partner : basket) {
+                                if (partner != productId) {
+                                    row.counts.addTo(partner, 1);
+                                }
+                            }
+                        }
+                    }
+                    owned.values().forEach(Row::recomputeTop);
+                    return owned;
+                })
+                .toList();
+        Map<Long, Row> merged = new HashMap<>();
+        partials.forEach(merged::putAll);
+        return merged;
+    }
+
+    private static void addOrder(Map<Long, Row> matrix, long[] basket) {
+        for (long productId : basket) {
+            Row row = matrix.computeIfAbsent(productId, id -> new Row());
+            for (long partner : basket) {
+                if (partner != productId) {
+                    row.increment(partner);
+                }
+            }
+        }
+    }
+
+    // The matrix is symmetric, so the removed row lists every row that mentions the product
+    private static void removeProduct(Map<Long, Row> matrix, long productId) {
+        Row removed = matrix.remove(productId);
+        if (removed == null) {
+            return;
+        }
+        removed.counts.forEach((partner, count) -> {
+            Row row = matrix.get(partner);
+            if (row != null) {
+                row.remove(productId);
+            }
+        });
+    }
+
+    private static final class Row {
+        private final LongLongMap counts = new LongLongMap();
+        // Strongest partners first; ties go to the lower product id
+        private final long[] topIds = new long[TOP_K];
+        private final long[] topCounts = new long[TOP_K];
+        private int topSize;
+
+        // Counts only grow here, so a partner outside the top list can only enter it through this path
+        void increment(long partner) {
+            offer(partner, counts.addTo(partner, 1));
+        }
+
+        void remove(long partner) {
+            counts.remove(partner);
+            if (indexOfTop(partner) >= 0) {
+                recomputeTop();
+            }
+        }
+
+        void recomputeTop() {
+            topSize = 0;
+            counts.forEach(this::offer);
+        }
+
+        private void offer(long partner, long count) {
+            int index = indexOfTop(partner);
+            if (index < 0) {
+                if (topSize < TOP_K) {
+                    index = topSize++;
+                } else if (stronger(partner, count, topIds[TOP_K - 1], topCounts[TOP_K - 1])) {
+                    index = TOP_K - 1;
+                } else {
+                    return;
+                }
+                topIds[index] = partner;
+            }
+            topCounts[index] = count;
+            while (index > 0 && stronger(topIds[index], topCounts[index], topIds[index - 1], topCounts[index - 1])) {
+                swap(index, index - 1);
+                index--;
+            }
+        }
+
+        private int indexOfTop(long partner) {
+            for (int i = 0; i < topSize; i++) {
+                if (topIds[i] == partner) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private static boolean stronger(long id, long count, long otherId, long otherCount) {
+            return count > otherCount || (count == otherCount && id < otherId);
+        }
+
+        private void swap(int a, int b) {
+            long id = topIds[a];
+            topIds[a] = topIds[b];
+            topIds[b] = id;
+            long count = topCounts[a];
+            topCounts[a] = topCounts[b];
+            topCounts[b] = count;
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.example.ecommercebackend.catalog;
+
+import com.example.ecommercebackend.dto.ProductDTO;
+import com.example.ecommercebackend.dto.ProductResponse;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Facet engine for filtered listings. Every product gets a dense ordinal, and every facet value (category, price
+ * band, discount band, stock state) keeps a {@link BitSet} of the ordinals carrying it. A filter ORs the selected
+ * values of a facet and ANDs the facets together; facet counts are cardinalities of the same in-memory
+ * intersections, so neither the listing nor its counts run a query. Ordinals of removed products are handed to the
+ * next new one, so the bit sets stay as long as the largest catalog seen rather than every product ever created.
+ */
+@Component
+public class FacetIndex implements CatalogListener {
+
+    public static final String CATEGORY = "category";
+    public static final String PRICE_BAND = "priceBand";
+    public static final String DISCOUNT_BAND = "discountBand";
+    public static final String IN_STOCK = "inStock";
+
+    public static final List<String> PRICE_BANDS = List.of("0-25", "25-50", "50-100", "100-250", "250-500", "500-1000", "1000+");
+    public static final List<String> DISCOUNT_BANDS = List.of("none", "0-10", "10-25", "25-50", "50+");
+    private static final double[] PRICE_BOUNDS = {25, 50, 100, 250, 500, 1000};
+    private static final double[] DISCOUNT_BOUNDS = {10, 25, 50};
+    private static final List<String> FACETS = List.of(CATEGORY, PRICE_BAND, DISCOUNT_BAND, IN_STOCK);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private final Map<String, Map<String, BitSet>> facets = new HashMap<>();
+    private final BitSet live = new BitSet();
+    private int nextOrdinal;
+    private int[] freeOrdinals = new int[16];
+    private int freeCount;
+
+    public record FacetPage(ProductResponse products, Map<String, Map<String, Integer>> facets) {
+    }
+
+    @Override
+    public void onLoad(Collection<CatalogProduct> products) {
+        lock.writeLock().lock();
+        try {
+            ordinals.clear();
+            facets.clear();
+            live.clear();
+            nextOrdinal = 0;
+            freeCount = 0;
+            products.forEach(product -> add(product, ordinals.computeIfAbsent(product.productId(), id -> nextOrdinal++)));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onSaved(CatalogProduct previous, CatalogProduct current) {
+        lock.writeLock().lock();
+        try {
+            int ordinal = ordinals.computeIfAbsent(current.productId(), id -> freeCount > 0 ? freeOrdinals[--freeCount] : nextOrdinal++);
+            if (previous != null) {
+                remove(previous, ordinal);
+            }
+            add(current, ordinal);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onRemoved(CatalogProduct previous) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.remove(previous.productId());
+            if (ordinal != null) {
+                remove(previous, ordinal);
+                release(ordinal);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Filters the catalog by the selected facet values and pages the matches in the order of {@code sortedProducts}
+     * (ascending, walked from the end for descending pages). Values within a facet are alternatives; facets are
+     * combined. Each facet's counts apply every other facet's selection but not its own, so the shopper can see
+     * what switching or adding a value of that facet would return.
+     */
+    public FacetPage filter(Map<String, Set<String>> selections, List<CatalogProduct> sortedProducts,
+                            boolean ascending, int pageNumber, int pageSize) {
+        if (pageNumber < 0 || pageSize < 1) {
+            throw new IllegalArgumentException("Page number must not be negative and page size must be positive");
+        }
+        lock.readLock().lock();
+        try {
+            Map<String, BitSet> selected = new HashMap<>();
+            selections.forEach((facet, values) -> {
+                if (values != null && !values.isEmpty()) {
+                    selected.put(facet, union(facet, values));
+                }
+            });
+
+            BitSet matches = (BitSet) live.clone();
+            selected.values().forEach(matches::and);
+
+            Map<String, Map<String, Integer>> counts = new LinkedHashMap<>();
+            for (String facet : FACETS) {
+                BitSet base = (BitSet) live.clone();
+                selected.forEach((other, bits) -> {
+                    if (!other.equals(facet)) {
+                        base.and(bits);
+                    }
+                });
+                Map<String, Integer> valueCounts = new LinkedHashMap<>();
+                for (String value : orderedValues(facet)) {
+                    BitSet bits = (BitSet) facets.get(facet).get(value).clone();
+                    bits.and(base);
+                    valueCounts.put(value, bits.cardinality());
+                }
+                counts.put(facet, valueCounts);
+            }
+
+            int total = matches.cardinality();
+            long offset = (long) pageNumber * pageSize;
+            List<ProductDTO> content = new ArrayList<>(pageSize);
+            long seen = 0;
+            for (int i = 0; i < sortedProducts.size() && content.size() < pageSize; i++) {
+                CatalogProduct product = sortedProducts.get(ascending ? i : sortedProducts.size() - 1 - i);
+                Integer ordinal = ordinals.get(product.productId());
+                if (ordinal != null && matches.get(ordinal) && seen++ >= offset) {
+                    content.add(product.toDTO());
+                }
+            }
+            int totalPages = (total + pageSize - 1) / pageSize;
+            ProductResponse page = new ProductResponse(content, pageNumber, pageSize, (long) total, totalPages, pageNumber + 1 >= totalPages);
+            return new FacetPage(page, counts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static String priceBand(CatalogProduct product) {
+        Double price = product.specialPrice() != null ? product.specialPrice() : product.price();
+        return price == null ? null : PRICE_BANDS.get(band(price, PRICE_BOUNDS));
+    }
+
+    static String discountBand(CatalogProduct product) {
+        Double discount = product.discount();
+        if (discount == null || discount <= 0) {
+            return "none";
+        }
+        return DISCOUNT_BANDS.get(1 + band(discount, DISCOUNT_BOUNDS));
+    }
+
+    private static int band(double value, double[] bounds) {
+        int band = 0;
+        while (band < bounds.length && value >= bounds[band]) {
+            band++;
+        }
+        return band;
+    }
+
+    private static Map<String, String> values(CatalogProduct product) {
+        Map<String, String> values = new HashMap<>();
+        if (product.categoryId() != null) {
+            values.put(CATEGORY, product.categoryId().toString());
+        }
+        String priceBand = priceBand(product);
+        if (priceBand != null) {
+            values.put(PRICE_BAND, priceBand);
+        }
+        values.put(DISCOUNT_BAND, discountBand(product));
+        values.put(IN_STOCK, String.valueOf(product.quantity() != null && product.quantity() > 0));
+        return values;
+    }
+
+    private void add(CatalogProduct product, int ordinal) {
+        values(product).forEach((facet, value) ->
+                facets.computeIfAbsent(facet, key -> new HashMap<>()).computeIfAbsent(value, key -> new BitSet()).set(ordinal));
+        live.set(ordinal);
+    }
+
+    private void remove(CatalogProduct product, int ordinal) {
+        values(product).forEach((facet, value) -> {
+            Map<String, BitSet> facetValues = facets.get(facet);
+            BitSet bits = facetValues == null ? null : facetValues.get(value);
+            if (bits != null) {
+                bits.clear(ordinal);
+                if (bits.isEmpty()) {
+                    facetValues.remove(value);
+                }
+            }
+        });
+        live.clear(ordinal);
+    }
+
+    private void release(int ordinal) {
+        if (freeCount == freeOrdinals.length) {
+            freeOrdinals = Arrays.copyOf(freeOrdinals, freeCount * 2);
+        }
+        freeOrdinals[freeCount++] = ordinal;
+    }
+
+    // Highest ordinal handed out so far plus one; the bit sets never grow beyond it
+    int ordinalCapacity() {
+        lock.readLock().lock();
+        try {
+            return nextOrdinal;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private BitSet union(String facet, Set<String> values) {
+        BitSet union = new BitSet();
+        Map<String, BitSet> facetValues = facets.getOrDefault(facet, Map.of());
+        values.forEach(value -> {
+            BitSet bits = facetValues.get(value);
+            if (bits != null) {
+                union.or(bits);
+            }
+        });
+        return union;
+    }
+
+    // Bands in their natural order, categories by id; values no product carries are left out
+    private List<String> orderedValues(String facet) {
+        Map<String, BitSet> facetValues = facets.getOrDefault(facet, Map.of());
+        List<String> values = switch (facet) {
+            case PRICE_BAND -> new ArrayList<>(PRICE_BANDS);
+            case DISCOUNT_BAND -> new ArrayList<>(DISCOUNT_BANDS);
+            case IN_STOCK -> new ArrayList<>(List.of("true", "false"));
+            default -> facetValues.keySet().stream().sorted(Comparator.comparingLong(Long::parseLong)).toList();
+        };
+        return values.stream().filter(facetValues::containsKey).toList();
+    }
+}
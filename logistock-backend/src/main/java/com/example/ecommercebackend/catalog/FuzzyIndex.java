@@ -0,0 +1,186 @@
+package com.example.ecommercebackend.catalog;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Typo-tolerant lookup over the product name vocabulary using a deletion neighbourhood (symmetric delete): every
+ * name token is indexed under all strings reachable by deleting up to {@link #MAX_EDITS} characters. Two words
+ * within that edit distance share at least one such variant, so a misspelled query token is resolved with a
+ * handful of map lookups and a bounded edit-distance check on the few candidates, instead of scanning every name.
+ */
+@Component
+public class FuzzyIndex implements CatalogListener {
+
+    public static final int MAX_EDITS = 2;
+
+    private final Map<String, Set<Long>> tokenProducts = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> neighbourhood = new ConcurrentHashMap<>();
+
+    @Override
+    public void onLoad(Collection<CatalogProduct> products) {
+        tokenProducts.clear();
+        neighbourhood.clear();
+        products.forEach(product -> add(product.productId(), product.productName()));
+    }
+
+    @Override
+    public void onSaved(CatalogProduct previous, CatalogProduct current) {
+        if (previous != null && Objects.equals(previous.productName(), current.productName())) {
+            return;
+        }
+        if (previous != null) {
+            remove(previous.productId(), previous.productName());
+        }
+        add(current.productId(), current.productName());
+    }
+
+    @Override
+    public void onRemoved(CatalogProduct previous) {
+        remove(previous.productId(), previous.productName());
+    }
+
+    /**
+     * Products whose name matches every keyword token within the edit budget for that token's length, mapped to the
+     * summed edit distance of their closest tokens. Empty when the keyword has no tokens or any token has no match.
+     */
+    public Map<Long, Integer> matches(String keyword) {
+        List<String> queryTokens = Tokenizer.tokenize(keyword);
+        Map<Long, Integer> result = null;
+        for (String queryToken : new LinkedHashSet<>(queryTokens)) {
+            Map<Long, Integer> tokenMatches = matchesForToken(queryToken);
+            if (result == null) {
+                result = tokenMatches;
+            } else {
+                result.keySet().retainAll(tokenMatches.keySet());
+                result.replaceAll((productId, distance) -> distance + tokenMatches.get(productId));
+            }
+            if (result.isEmpty()) {
+                break;
+            }
+        }
+        return result == null ? Map.of() : result;
+    }
+
+    /**
+     * Edit budget for a query token: short tokens must match exactly, longer ones may carry one or two typos.
+     */
+    static int maxEdits(String token) {
+        if (token.length() < 3) {
+            return 0;
+        }
+        return token.length() < 6 ? 1 : MAX_EDITS;
+    }
+
+    /**
+     * Optimal string alignment distance (Damerau-Levenshtein with adjacent transpositions), giving up with
+     * {@code limit + 1} as soon as every alignment already exceeds {@code limit}.
+     */
+    static int distance(String a, String b, int limit) {
+        if (Math.abs(a.length() - b.length()) > limit) {
+            return limit + 1;
+        }
+        int[] previousPrevious = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMinimum = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    current[j] = Math.min(current[j], previousPrevious[j - 2] + 1);
+                }
+                rowMinimum = Math.min(rowMinimum, current[j]);
+            }
+            if (rowMinimum > limit) {
+                return limit + 1;
+            }
+            int[] recycled = previousPrevious;
+            previousPrevious = previous;
+            previous = current;
+            current = recycled;
+        }
+        return Math.min(previous[b.length()], limit + 1);
+    }
+
+    static Set<String> deletes(String token, int edits) {
+        Set<String> variants = new HashSet<>();
+        variants.add(token);
+        Set<String> frontier = Set.of(token);
+        for (int edit = 0; edit < edits; edit++) {
+            Set<String> next = new HashSet<>();
+            for (String variant : frontier) {
+                for (int i = 0; i < variant.length(); i++) {
+                    String deleted = variant.substring(0, i) + variant.substring(i + 1);
+                    if (variants.add(deleted)) {
+                        next.add(deleted);
+                    }
+                }
+            }
+            frontier = next;
+        }
+        return variants;
+    }
+
+    private Map<Long, Integer> matchesForToken(String queryToken) {
+        int limit = maxEdits(queryToken);
+        Map<Long, Integer> productDistances = new HashMap<>();
+        Set<String> seen = new HashSet<>();
+        for (String variant : deletes(queryToken, limit)) {
+            for (String candidate : neighbourhood.getOrDefault(variant, Set.of())) {
+                if (!seen.add(candidate)) {
+                    continue;
+                }
+                int distance = distance(queryToken, candidate, limit);
+                if (distance > limit) {
+                    continue;
+                }
+                for (Long productId : tokenProducts.getOrDefault(candidate, Set.of())) {
+                    productDistances.merge(productId, distance, Math::min);
+                }
+            }
+        }
+        return productDistances;
+    }
+
+    private void add(Long productId, String name) {
+        for (String token : Tokenizer.tokenize(name)) {
+            Set<Long> products = tokenProducts.computeIfAbsent(token, key -> {
+                deletes(key, MAX_EDITS).forEach(variant ->
+                        neighbourhood.computeIfAbsent(variant, ignored -> ConcurrentHashMap.newKeySet()).add(key));
+                return ConcurrentHashMap.newKeySet();
+            });
+            products.add(productId);
+        }
+    }
+
+    private void remove(Long productId, String name) {
+        for (String token : Tokenizer.tokenize(name)) {
+            tokenProducts.computeIfPresent(token, (key, products) -> {
+                products.remove(productId);
+                if (!products.isEmpty()) {
+                    return products;
+                }
+                deletes(key, MAX_EDITS).forEach(variant -> neighbourhood.computeIfPresent(variant, (ignored, tokens) -> {
+                    tokens.remove(key);
+                    return tokens.isEmpty() ? null : tokens;
+                }));
+                return null;
+            });
+        }
+    }
+}
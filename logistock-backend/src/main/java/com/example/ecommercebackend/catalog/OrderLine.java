@@ -0,0 +1,7 @@
+package com.example.ecommercebackend.catalog;
+
+/**
+ * One product of one order, as read when co-purchase counts are rebuilt from order history.
+ */
+public record OrderLine(Long orderId, Long productId) {
+}
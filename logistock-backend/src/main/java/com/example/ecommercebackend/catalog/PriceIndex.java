@@ -0,0 +1,162 @@
+package com.example.ecommercebackend.catalog;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Products ordered by {@code specialPrice} in two parallel primitive arrays, so a price range is two binary searches
+ * and the products inside it are already in price order. Like {@link CatalogSnapshot} the arrays are never modified:
+ * a batch of price changes publishes one merged copy and readers only dereference a volatile field. Products without
+ * a special price are not indexed.
+ */
+@Component
+public class PriceIndex implements CatalogListener {
+
+    private static final Comparator<CatalogProduct> BY_PRICE = Comparator.comparingDouble(CatalogProduct::specialPrice)
+            .thenComparing(CatalogProduct::productId);
+
+    private volatile Prices sorted = new Prices(new double[0], new long[0]);
+
+    /**
+     * Product ids with {@code min <= specialPrice <= max} in ascending price order (ties by product id).
+     * A null bound leaves that side of the range open.
+     */
+    public record Range(long[] productIds, int from, int to) {
+
+        public int size() {
+            return to - from;
+        }
+
+        public long productId(int index) {
+            return productIds[from + index];
+        }
+    }
+
+    private record Prices(double[] prices, long[] productIds) {
+    }
+
+    public Range range(Double min, Double max) {
+        Prices prices = sorted;
+        int from = min == null ? 0 : firstAtLeast(prices.prices(), min);
+        int to = max == null ? prices.prices().length : firstAbove(prices.prices(), max);
+        return new Range(prices.productIds(), from, Math.max(from, to));
+    }
+
+    @Override
+    public void onLoad(Collection<CatalogProduct> products) {
+        List<CatalogProduct> priced = products.stream()
+                .filter(product -> product.specialPrice() != null)
+                .sorted(BY_PRICE)
+                .toList();
+        double[] prices = new double[priced.size()];
+        long[] productIds = new long[priced.size()];
+        for (int i = 0; i < priced.size(); i++) {
+            prices[i] = priced.get(i).specialPrice();
+            productIds[i] = priced.get(i).productId();
+        }
+        sorted = new Prices(prices, productIds);
+    }
+
+    @Override
+    public void onSaved(CatalogProduct previous, CatalogProduct current) {
+        onChanged(List.of(new Change(previous, current)));
+    }
+
+    @Override
+    public void onRemoved(CatalogProduct previous) {
+        onChanged(List.of(new Change(previous, null)));
+    }
+
+    /**
+     * Drops the old prices and merges the new ones in with a single copy of the arrays, however large the batch.
+     */
+    @Override
+    public void onChanged(List<Change> changes) {
+        Set<Long> stale = new HashSet<>();
+        Map<Long, CatalogProduct> latest = new HashMap<>();
+        for (Change change : changes) {
+            CatalogProduct previous = change.previous();
+            CatalogProduct current = change.current();
+            if (previous != null && current != null && Objects.equals(previous.specialPrice(), current.specialPrice())) {
+                continue;
+            }
+            Long productId = (current != null ? current : previous).productId();
+            if (previous != null && previous.specialPrice() != null) {
+                stale.add(productId);
+            }
+            latest.put(productId, current);
+        }
+        if (latest.isEmpty()) {
+            return;
+        }
+        List<CatalogProduct> added = latest.values().stream()
+                .filter(product -> product != null && product.specialPrice() != null)
+                .sorted(BY_PRICE)
+                .toList();
+
+        Prices prices = sorted;
+        int size = prices.prices().length;
+        double[] newPrices = new double[size + added.size()];
+        long[] newIds = new long[size + added.size()];
+        int length = 0;
+        int next = 0;
+        for (int i = 0; i < size; i++) {
+            if (stale.contains(prices.productIds()[i])) {
+                continue;
+            }
+            while (next < added.size() && before(added.get(next), prices.prices()[i], prices.productIds()[i])) {
+                newPrices[length] = added.get(next).specialPrice();
+                newIds[length++] = added.get(next++).productId();
+            }
+            newPrices[length] = prices.prices()[i];
+            newIds[length++] = prices.productIds()[i];
+        }
+        for (; next < added.size(); next++) {
+            newPrices[length] = added.get(next).specialPrice();
+            newIds[length++] = added.get(next).productId();
+        }
+        sorted = new Prices(Arrays.copyOf(newPrices, length), Arrays.copyOf(newIds, length));
+    }
+
+    private static boolean before(CatalogProduct product, double price, long productId) {
+        int comparison = Double.compare(product.specialPrice(), price);
+        return comparison < 0 || comparison == 0 && product.productId() < productId;
+    }
+
+    private static int firstAtLeast(double[] prices, double min) {
+        int low = 0;
+        int high = prices.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (prices[middle] < min) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static int firstAbove(double[] prices, double max) {
+        int low = 0;
+        int high = prices.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (prices[middle] <= max) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
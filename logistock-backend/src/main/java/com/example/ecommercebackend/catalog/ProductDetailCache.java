@@ -0,0 +1,73 @@
+package com.example.ecommercebackend.catalog;
+
+import com.example.ecommercebackend.dto.CacheStatsDTO;
+import com.example.ecommercebackend.dto.ProductDetailDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.function.Function;
+
+/**
+ * Near cache for product detail responses, bounded by their estimated heap size. Entries are dropped through the
+ * read model's listener callbacks, i.e. after the writing transaction has committed, which covers product updates,
+ * image uploads, repricing and deletes; a category rename clears everything since it changes embedded names.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class ProductDetailCache implements CatalogListener {
+
+    // Typical detail entry, only used to size the frequency sketch
+    private static final int AVERAGE_ENTRY_BYTES = 512;
+
+    private final TinyLfuCache<Long, ProductDetailDTO> cache;
+
+    public ProductDetailCache(@Value("${product.detail-cache.max-bytes:8388608}") long maximumBytes) {
+        this.cache = new TinyLfuCache<>(maximumBytes, (int) Math.min(Integer.MAX_VALUE, maximumBytes / AVERAGE_ENTRY_BYTES), ProductDetailCache::estimateBytes);
+    }
+
+    public ProductDetailDTO get(Long productId, Function<Long, ProductDetailDTO> loader) {
+        return cache.get(productId, loader);
+    }
+
+    public CacheStatsDTO stats() {
+        return cache.stats();
+    }
+
+    @Override
+    public void onLoad(Collection<CatalogProduct> products) {
+        cache.invalidateAll();
+    }
+
+    @Override
+    public void onSaved(CatalogProduct previous, CatalogProduct current) {
+        cache.invalidate(current.productId());
+    }
+
+    @Override
+    public void onRemoved(CatalogProduct previous) {
+        cache.invalidate(previous.productId());
+    }
+
+    @Override
+    public void onCategorySaved(Long categoryId, String categoryName) {
+        cache.invalidateAll();
+    }
+
+    @Override
+    public void onCategoryRemoved(Long categoryId) {
+        cache.invalidateAll();
+    }
+
+    // Object headers, boxed numbers and references, plus two bytes per string character
+    static int estimateBytes(ProductDetailDTO detail) {
+        return 160 + 2 * (length(detail.getProductName()) + length(detail.getProductImage()) + length(detail.getDescription())
+                + length(detail.getCategoryName()) + length(detail.getSellerName()));
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+}
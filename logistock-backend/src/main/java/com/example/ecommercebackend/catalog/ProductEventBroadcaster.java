@@ -0,0 +1,344 @@
+package com.example.ecommercebackend.catalog;
+
+import com.example.ecommercebackend.dto.ProductEventDTO;
+import com.example.ecommercebackend.exception.APIException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pushes price, discount, stock and image changes to server-sent event subscribers. Changes arrive through the read
+ * model's listener callbacks, i.e. after commit, and are coalesced per product until the next flush, so a burst of
+ * updates to one product costs each client a single entry. Connections are held by servlet async processing and
+ * writes run on a small sender pool; each subscriber has at most one write in flight and coalesces into its own
+ * outbox meanwhile. A subscriber whose outbox outgrows the cap or whose write stalls is disconnected, and its
+ * EventSource reconnects and should refetch the products it shows.
+ * <p>
+ * Flushes, heartbeats and stall checks run on the broadcaster's own timer, so slow application jobs on the shared
+ * scheduler cannot hold events back. Every write is watched from the moment it starts; one still blocked after the
+ * stall timeout gets its sender thread interrupted and its subscriber dropped, so a dead client cannot pin a sender.
+ */
+@Component
+public class ProductEventBroadcaster implements CatalogListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductEventBroadcaster.class);
+
+    static final String EVENT_NAME = "products";
+    static final int MAX_SUBSCRIBED_IDS = 1000;
+    private static final long RECONNECT_MILLIS = 3000;
+
+    private final long timeoutMillis;
+    private final int maxPending;
+    private final long flushNanos;
+    private final long heartbeatNanos;
+    private final long stallNanos;
+    private final Executor sender;
+    private final ScheduledExecutorService timer;
+    // Changes since the last flush, latest per product
+    private final Map<Long, ProductEventDTO> pending = new ConcurrentHashMap<>();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final Set<Subscriber> allProductSubscribers = ConcurrentHashMap.newKeySet();
+    private final Map<Long, Set<Subscriber>> subscribersByProduct = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ProductEventBroadcaster(@Value("${product.events.timeout-ms:1800000}") long timeoutMillis,
+                                   @Value("${product.events.max-pending:1000}") int maxPending,
+                                   @Value("${product.events.flush-interval-ms:250}") long flushMillis,
+                                   @Value("${product.events.heartbeat-ms:15000}") long heartbeatMillis,
+                                   @Value("${product.events.stall-timeout-ms:30000}") long stallMillis,
+                                   @Value("${product.events.sender-threads:4}") int senderThreads) {
+        this(timeoutMillis, maxPending, flushMillis, heartbeatMillis, stallMillis,
+                Executors.newFixedThreadPool(senderThreads, new CustomizableThreadFactory("product-events-")),
+                Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("product-events-timer-")));
+    }
+
+    ProductEventBroadcaster(long timeoutMillis, int maxPending, long flushMillis, long heartbeatMillis, long stallMillis, Executor sender, ScheduledExecutorService timer) {
+        this.timeoutMillis = timeoutMillis;
+        this.maxPending = maxPending;
+        this.flushNanos = flushMillis * 1_000_000;
+        this.heartbeatNanos = heartbeatMillis * 1_000_000;
+        this.stallNanos = stallMillis * 1_000_000;
+        this.sender = sender;
+        this.timer = timer;
+    }
+
+    @PostConstruct
+    public void start() {
+        timer.scheduleWithFixedDelay(() -> runLogged(this::flush), flushNanos, flushNanos, TimeUnit.NANOSECONDS);
+        timer.scheduleWithFixedDelay(() -> runLogged(this::heartbeat), heartbeatNanos, heartbeatNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Opens a stream of changes to the given products, or to every product when no ids are given.
+     */
+    public SseEmitter subscribe(Collection<Long> productIds) {
+        if (productIds != null && productIds.size() > MAX_SUBSCRIBED_IDS)
+            throw new APIException("Product id list is invalid, at most " + MAX_SUBSCRIBED_IDS + " ids can be subscribed");
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        try {
+            // Buffered until the response is handed to the container, then sent with the headers
+            emitter.send(SseEmitter.event().reconnectTime(RECONNECT_MILLIS).comment("subscribed"));
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not open product event stream", e);
+        }
+        register(emitter, productIds);
+        return emitter;
+    }
+
+    void register(SseEmitter emitter, Collection<Long> productIds) {
+        Subscriber subscriber = new Subscriber(emitter, productIds == null || productIds.isEmpty() ? null : Set.copyOf(productIds));
+        emitter.onCompletion(() -> unregister(subscriber));
+        emitter.onTimeout(() -> unregister(subscriber));
+        emitter.onError(e -> unregister(subscriber));
+        subscribers.add(subscriber);
+        if (subscriber.productIds == null) {
+            allProductSubscribers.add(subscriber);
+        } else {
+            for (Long productId : subscriber.productIds) {
+                subscribersByProduct.compute(productId, (id, set) -> {
+                    Set<Subscriber> result = set != null ? set : ConcurrentHashMap.newKeySet();
+                    result.add(subscriber);
+                    return result;
+                });
+            }
+        }
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    @Override
+    public void onLoad(Collection<CatalogProduct> products) {
+    }
+
+    @Override
+    public void onSaved(CatalogProduct previous, CatalogProduct current) {
+        // New products are not on anyone's page yet
+        if (previous == null || !changed(previous, current))
+            return;
+        pending.put(current.productId(), new ProductEventDTO(current.productId(), current.price(), current.discount(),
+                current.specialPrice(), current.quantity(), current.productImage()));
+    }
+
+    @Override
+    public void onRemoved(CatalogProduct previous) {
+        pending.remove(previous.productId());
+    }
+
+    public void flush() {
+        if (pending.isEmpty())
+            return;
+        List<ProductEventDTO> batch = new ArrayList<>(pending.size());
+        for (Long productId : pending.keySet()) {
+            ProductEventDTO event = pending.remove(productId);
+            if (event != null) {
+                batch.add(event);
+            }
+        }
+
+        Map<Subscriber, List<ProductEventDTO>> bySubscriber = new HashMap<>();
+        for (ProductEventDTO event : batch) {
+            Set<Subscriber> interested = subscribersByProduct.get(event.getProductId());
+            if (interested != null) {
+                interested.forEach(subscriber -> bySubscriber.computeIfAbsent(subscriber, s -> new ArrayList<>()).add(event));
+            }
+        }
+        allProductSubscribers.forEach(subscriber -> deliver(subscriber, batch));
+        bySubscriber.forEach(this::deliver);
+    }
+
+    public void heartbeat() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.heartbeatDue(now, heartbeatNanos)) {
+                sender.execute(() -> drain(subscriber));
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        if (sender instanceof ExecutorService executor) {
+            executor.shutdownNow();
+        }
+    }
+
+    // A periodic task that throws is never run again
+    private static void runLogged(Runnable task) {
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            logger.error("Product event task failed", e);
+        }
+    }
+
+    private void deliver(Subscriber subscriber, List<ProductEventDTO> events) {
+        switch (subscriber.enqueue(events, maxPending)) {
+            case SEND -> sender.execute(() -> drain(subscriber));
+            case OVERFLOW -> close(subscriber, "too far behind");
+            case QUEUED -> {
+            }
+        }
+    }
+
+    // Runs until the outbox is empty; the subscriber guarantees only one drain at a time
+    private void drain(Subscriber subscriber) {
+        SseEmitter.SseEventBuilder event;
+        while ((event = subscriber.next()) != null) {
+            long write = subscriber.writes();
+            ScheduledFuture<?> watchdog = timer.schedule(() -> {
+                if (subscriber.interruptWriter(write)) {
+                    close(subscriber, "stalled");
+                }
+            }, stallNanos, TimeUnit.NANOSECONDS);
+            try {
+                subscriber.emitter.send(event);
+            } catch (IOException | IllegalStateException e) {
+                close(subscriber, e.getMessage());
+                return;
+            } finally {
+                watchdog.cancel(false);
+                subscriber.written();
+                // An interrupt racing with the write's return must not reach the next subscriber's write
+                Thread.interrupted();
+            }
+        }
+    }
+
+    private void close(Subscriber subscriber, String reason) {
+        logger.debug("Closing product event stream: {}", reason);
+        unregister(subscriber);
+        subscriber.emitter.complete();
+    }
+
+    private void unregister(Subscriber subscriber) {
+        subscriber.close();
+        if (!subscribers.remove(subscriber))
+            return;
+        if (subscriber.productIds == null) {
+            allProductSubscribers.remove(subscriber);
+        } else {
+            for (Long productId : subscriber.productIds) {
+                subscribersByProduct.computeIfPresent(productId, (id, set) -> {
+                    set.remove(subscriber);
+                    return set.isEmpty() ? null : set;
+                });
+            }
+        }
+    }
+
+    private static boolean changed(CatalogProduct previous, CatalogProduct current) {
+        return !Objects.equals(previous.price(), current.price())
+                || !Objects.equals(previous.discount(), current.discount())
+                || !Objects.equals(previous.specialPrice(), current.specialPrice())
+                || !Objects.equals(previous.quantity(), current.quantity())
+                || !Objects.equals(previous.productImage(), current.productImage());
+    }
+
+    enum Delivery {SEND, QUEUED, OVERFLOW}
+
+    private static final class Subscriber {
+        final SseEmitter emitter;
+        final Set<Long> productIds;
+        private final Map<Long, ProductEventDTO> outbox = new LinkedHashMap<>();
+        private boolean sending;
+        private boolean heartbeatDue;
+        private boolean closed;
+        private long lastSendStarted = System.nanoTime();
+        // Thread blocked in the current write, and how many writes have started
+        private Thread writer;
+        private long writes;
+
+        Subscriber(SseEmitter emitter, Set<Long> productIds) {
+            this.emitter = emitter;
+            this.productIds = productIds;
+        }
+
+        synchronized Delivery enqueue(List<ProductEventDTO> events, int maxPending) {
+            if (closed)
+                return Delivery.QUEUED;
+            events.forEach(event -> outbox.put(event.getProductId(), event));
+            if (outbox.size() > maxPending)
+                return Delivery.OVERFLOW;
+            if (sending)
+                return Delivery.QUEUED;
+            sending = true;
+            return Delivery.SEND;
+        }
+
+        synchronized boolean heartbeatDue(long now, long heartbeatNanos) {
+            if (closed || sending || now - lastSendStarted < heartbeatNanos)
+                return false;
+            heartbeatDue = sending = true;
+            return true;
+        }
+
+        synchronized long writes() {
+            return writes;
+        }
+
+        synchronized void written() {
+            writer = null;
+        }
+
+        // Interrupts the given write if it is still in progress
+        synchronized boolean interruptWriter(long write) {
+            if (writer == null || writes != write)
+                return false;
+            writer.interrupt();
+            return true;
+        }
+
+        // Next event to write, or null after releasing the sending flag
+        synchronized SseEmitter.SseEventBuilder next() {
+            SseEmitter.SseEventBuilder event = null;
+            if (!closed && !outbox.isEmpty()) {
+                event = SseEmitter.event().name(EVENT_NAME).data(new ArrayList<>(outbox.values()), MediaType.APPLICATION_JSON);
+                outbox.clear();
+            } else if (!closed && heartbeatDue) {
+                event = SseEmitter.event().comment("keepalive");
+            }
+            heartbeatDue = false;
+            if (event == null) {
+                sending = false;
+            } else {
+                lastSendStarted = System.nanoTime();
+                writer = Thread.currentThread();
+                writes++;
+            }
+            return event;
+        }
+
+        synchronized void close() {
+            closed = true;
+            outbox.clear();
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.ecommercebackend.catalog;
+
+/**
+ * Units sold of one product, aggregated over all order items.
+ */
+public record ProductSales(Long productId, Long unitsSold) {
+}
@@ -0,0 +1,88 @@
+package com.example.ecommercebackend.catalog;
+
+import com.example.ecommercebackend.dto.CacheStatsDTO;
+import com.example.ecommercebackend.dto.ProductDTO;
+import com.example.ecommercebackend.dto.ProductResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * Cache of keyword search pages, bounded by their estimated heap size. Such a page only depends on the products
+ * whose name contains the keyword, so a product write drops just the entries whose keyword occurs in the product's
+ * old or new name; that covers creates, renames and deletes as well as price or stock changes of listed products.
+ * Like {@link ProductDetailCache}, entries are dropped through the read model's after-commit callbacks.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class SearchResultCache implements CatalogListener {
+
+    // Typical ten product page, only used to size the frequency sketch
+    private static final int AVERAGE_ENTRY_BYTES = 4096;
+
+    private final TinyLfuCache<Key, ProductResponse> cache;
+
+    public record Key(String keyword, int pageNumber, int pageSize, String sortBy, boolean ascending, boolean withTotals) {
+
+        public Key {
+            keyword = normalize(keyword);
+        }
+    }
+
+    public SearchResultCache(@Value("${product.search-cache.max-bytes:16777216}") long maximumBytes) {
+        this.cache = new TinyLfuCache<>(maximumBytes, (int) Math.min(Integer.MAX_VALUE, maximumBytes / AVERAGE_ENTRY_BYTES), SearchResultCache::estimateBytes);
+    }
+
+    public ProductResponse get(Key key, Function<Key, ProductResponse> loader) {
+        return cache.get(key, loader);
+    }
+
+    public CacheStatsDTO stats() {
+        return cache.stats();
+    }
+
+    @Override
+    public void onLoad(Collection<CatalogProduct> products) {
+        cache.invalidateAll();
+    }
+
+    @Override
+    public void onSaved(CatalogProduct previous, CatalogProduct current) {
+        String previousName = previous == null ? null : normalize(previous.productName());
+        String currentName = normalize(current.productName());
+        cache.invalidateIf(key -> contains(previousName, key.keyword()) || contains(currentName, key.keyword()));
+    }
+
+    @Override
+    public void onRemoved(CatalogProduct previous) {
+        String previousName = normalize(previous.productName());
+        cache.invalidateIf(key -> contains(previousName, key.keyword()));
+    }
+
+    private static String normalize(String text) {
+        return text == null ? null : text.toLowerCase(Locale.ROOT);
+    }
+
+    // Mirrors CatalogSearch.containing, which matches the keyword literally
+    private static boolean contains(String name, String keyword) {
+        return name != null && name.contains(keyword);
+    }
+
+    // Object headers, boxed numbers and references, plus two bytes per string character
+    static int estimateBytes(ProductResponse response) {
+        int bytes = 96;
+        for (ProductDTO product : response.getContent()) {
+            bytes += 120 + 2 * (length(product.getProductName()) + length(product.getProductImage()) + length(product.getDescription()));
+        }
+        return bytes;
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+}
@@ -0,0 +1,476 @@
+package com.example.ecommercebackend.catalog;
+
+import com.example.ecommercebackend.dto.SuggestionDTO;
+import com.example.ecommercebackend.model.Category;
+import com.example.ecommercebackend.repository.CategoryRepository;
+import com.example.ecommercebackend.repository.OrderItemRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Typeahead over product and category names. Every name is inserted into a radix trie once per word start, so
+ * "Phone Case" completes both "pho" and "cas", and every node caches the {@link #TOP_N} most popular entries of its
+ * subtree. A lookup is a walk down the prefix and a copy of that cached list, independent of catalog size.
+ * Popularity is units sold for products and the units sold of their products for categories.
+ *
+ * <p>To keep the trie compact, keys stop after {@link #MAX_KEY_LENGTH} characters, chains of single-child nodes are
+ * merged into one node with a multi-character label, and children sit in sorted arrays. A longer prefix walks the
+ * capped key and filters the entries stored there.</p>
+ */
+@Component
+public class SuggestionIndex implements CatalogListener {
+
+    public static final int TOP_N = 10;
+    public static final String PRODUCT = "product";
+    public static final String CATEGORY = "category";
+    static final int MAX_KEY_LENGTH = 20;
+
+    private static final Comparator<Entry> MOST_POPULAR = Comparator.comparingLong(Entry::popularity).reversed()
+            .thenComparing(Entry::text, String.CASE_INSENSITIVE_ORDER)
+            .thenComparing(Entry::type)
+            .thenComparing(Entry::id);
+
+    private final CategoryRepository categoryRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Node root = new Node("");
+    private final Map<Long, Entry> products = new HashMap<>();
+    private final Map<Long, Entry> categories = new HashMap<>();
+    private final Map<Long, Long> productCategories = new HashMap<>();
+    private final Map<Long, Long> productUnits = new HashMap<>();
+    private final Map<Long, Long> categoryUnits = new HashMap<>();
+
+    private record Entry(String type, Long id, String text, long popularity) {
+    }
+
+    private static final class Node {
+        private static final char[] NO_KEYS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        // Characters on the edge from the parent; empty only for the root
+        private String label;
+        // First label character of every child, sorted, parallel to children
+        private char[] keys = NO_KEYS;
+        private Node[] children = NO_CHILDREN;
+        private final List<Entry> terminals = new ArrayList<>(1);
+        private List<Entry> top = List.of();
+
+        Node(String label) {
+            this.label = label;
+        }
+
+        Node child(char first) {
+            int index = Arrays.binarySearch(keys, first);
+            return index >= 0 ? children[index] : null;
+        }
+
+        // Adds the child, or replaces the one whose label starts with the same character
+        void putChild(Node child) {
+            char first = child.label.charAt(0);
+            int index = Arrays.binarySearch(keys, first);
+            if (index >= 0) {
+                children[index] = child;
+                return;
+            }
+            index = -index - 1;
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            newKeys[index] = first;
+            newChildren[index] = child;
+            System.arraycopy(keys, index, newKeys, index + 1, keys.length - index);
+            System.arraycopy(children, index, newChildren, index + 1, children.length - index);
+            keys = newKeys;
+            children = newChildren;
+        }
+
+        void removeChild(char first) {
+            int index = Arrays.binarySearch(keys, first);
+            if (index < 0) {
+                return;
+            }
+            if (keys.length == 1) {
+                keys = NO_KEYS;
+                children = NO_CHILDREN;
+                return;
+            }
+            char[] newKeys = new char[keys.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(keys, 0, newKeys, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(keys, index + 1, newKeys, index, keys.length - index - 1);
+            System.arraycopy(children, index + 1, newChildren, index, children.length - index - 1);
+            keys = newKeys;
+            children = newChildren;
+        }
+
+        void clear() {
+            keys = NO_KEYS;
+            children = NO_CHILDREN;
+            terminals.clear();
+            top = List.of();
+        }
+    }
+
+    @Autowired
+    public SuggestionIndex(CategoryRepository categoryRepository, OrderItemRepository orderItemRepository) {
+        this.categoryRepository = categoryRepository;
+        this.orderItemRepository = orderItemRepository;
+    }
+
+    /**
+     * Up to {@code limit} (at most {@link #TOP_N}) products and categories with a word starting with the prefix,
+     * most popular first.
+     */
+    public List<SuggestionDTO> suggest(String prefix, int limit) {
+        String key = prefix == null ? "" : prefix.strip().toLowerCase(Locale.ROOT);
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            String capped = key.length() > MAX_KEY_LENGTH ? key.substring(0, MAX_KEY_LENGTH) : key;
+            Node node = find(capped);
+            if (node == null) {
+                return List.of();
+            }
+            List<Entry> matches = node.top;
+            if (capped.length() < key.length()) {
+                // Keys end at the cap, so the node is a leaf holding every entry with this capped prefix
+                matches = node.terminals.stream()
+                        .filter(entry -> hasWordStartingWith(entry.text(), key))
+                        .sorted(MOST_POPULAR)
+                        .toList();
+            }
+            return matches.stream()
+                    .limit(limit)
+                    .map(entry -> new SuggestionDTO(entry.type(), entry.id(), entry.text(), entry.popularity()))
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void onLoad(Collection<CatalogProduct> catalog) {
+        List<ProductSales> sales = orderItemRepository.sumUnitsSoldByProduct();
+        List<Category> allCategories = categoryRepository.findAll();
+        lock.writeLock().lock();
+        try {
+            root.clear();
+            products.clear();
+            categories.clear();
+            productCategories.clear();
+            productUnits.clear();
+            categoryUnits.clear();
+            sales.forEach(sale -> productUnits.put(sale.productId(), sale.unitsSold()));
+            for (CatalogProduct product : catalog) {
+                if (product.categoryId() != null) {
+                    productCategories.put(product.productId(), product.categoryId());
+                    categoryUnits.merge(product.categoryId(), units(product.productId()), Long::sum);
+                }
+                putProduct(product.productId(), product.productName());
+            }
+            allCategories.forEach(category -> putCategory(category.getCategoryId(), category.getCategoryName()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onSaved(CatalogProduct previous, CatalogProduct current) {
+        lock.writeLock().lock();
+        try {
+            Long previousCategory = productCategories.get(current.productId());
+            if (!Objects.equals(previousCategory, current.categoryId())) {
+                moveCategoryUnits(previousCategory, current.categoryId(), units(current.productId()));
+                if (current.categoryId() == null) {
+                    productCategories.remove(current.productId());
+                } else {
+                    productCategories.put(current.productId(), current.categoryId());
+                }
+            }
+            Entry existing = products.get(current.productId());
+            if (existing == null || !Objects.equals(existing.text(), current.productName())) {
+                putProduct(current.productId(), current.productName());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onRemoved(CatalogProduct previous) {
+        lock.writeLock().lock();
+        try {
+            Entry existing = products.remove(previous.productId());
+            if (existing != null) {
+                remove(existing);
+            }
+            moveCategoryUnits(productCategories.remove(previous.productId()), null, units(previous.productId()));
+            productUnits.remove(previous.productId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onCategorySaved(Long categoryId, String categoryName) {
+        lock.writeLock().lock();
+        try {
+            putCategory(categoryId, categoryName);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onCategoryRemoved(Long categoryId) {
+        lock.writeLock().lock();
+        try {
+            Entry existing = categories.remove(categoryId);
+            if (existing != null) {
+                remove(existing);
+            }
+            categoryUnits.remove(categoryId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onOrderPlaced(Long orderId, Map<Long, Integer> quantitiesByProduct) {
+        lock.writeLock().lock();
+        try {
+            quantitiesByProduct.forEach((productId, quantity) -> {
+                productUnits.merge(productId, quantity.longValue(), Long::sum);
+                moveCategoryUnits(null, productCategories.get(productId), quantity);
+                Entry existing = products.get(productId);
+                if (existing != null) {
+                    putProduct(productId, existing.text());
+                }
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private long units(Long productId) {
+        return productUnits.getOrDefault(productId, 0L);
+    }
+
+    private void moveCategoryUnits(Long from, Long to, long units) {
+        if (units == 0) {
+            return;
+        }
+        if (from != null) {
+            categoryUnits.merge(from, -units, Long::sum);
+            refreshCategory(from);
+        }
+        if (to != null) {
+            categoryUnits.merge(to, units, Long::sum);
+            refreshCategory(to);
+        }
+    }
+
+    private void refreshCategory(Long categoryId) {
+        Entry existing = categories.get(categoryId);
+        if (existing != null) {
+            putCategory(categoryId, existing.text());
+        }
+    }
+
+    private void putProduct(Long productId, String name) {
+        Entry previous = products.remove(productId);
+        if (previous != null) {
+            remove(previous);
+        }
+        if (name != null) {
+            Entry entry = new Entry(PRODUCT, productId, name, units(productId));
+            products.put(productId, entry);
+            insert(entry);
+        }
+    }
+
+    private void putCategory(Long categoryId, String name) {
+        Entry previous = categories.remove(categoryId);
+        if (previous != null) {
+            remove(previous);
+        }
+        if (name != null) {
+            Entry entry = new Entry(CATEGORY, categoryId, name, categoryUnits.getOrDefault(categoryId, 0L));
+            categories.put(categoryId, entry);
+            insert(entry);
+        }
+    }
+
+    private void insert(Entry entry) {
+        for (String key : keys(entry.text())) {
+            List<Node> path = createPath(key);
+            path.get(path.size() - 1).terminals.add(entry);
+            refreshTop(path);
+        }
+    }
+
+    private void remove(Entry entry) {
+        for (String key : keys(entry.text())) {
+            List<Node> path = existingPath(key);
+            if (path == null) {
+                continue;
+            }
+            path.get(path.size() - 1).terminals.removeIf(terminal -> sameEntry(terminal, entry));
+            // Drop nodes left without entries and merge nodes left with a single child, so renamed and removed names
+            // leave neither dead branches nor uncompressed chains behind
+            for (int depth = path.size() - 1; depth > 0; depth--) {
+                Node node = path.get(depth);
+                Node parent = path.get(depth - 1);
+                if (!node.terminals.isEmpty()) {
+                    break;
+                }
+                if (node.children.length == 0) {
+                    parent.removeChild(node.label.charAt(0));
+                } else if (node.children.length == 1) {
+                    Node child = node.children[0];
+                    child.label = node.label + child.label;
+                    parent.putChild(child);
+                    break;
+                } else {
+                    break;
+                }
+            }
+            refreshTop(path);
+        }
+    }
+
+    // The node whose label covers the end of the prefix, or null when no key starts with it
+    private Node find(String prefix) {
+        Node node = root;
+        int i = 0;
+        while (i < prefix.length()) {
+            node = node.child(prefix.charAt(i));
+            if (node == null) {
+                return null;
+            }
+            int matched = commonPrefixLength(node.label, prefix, i);
+            if (matched < node.label.length() && i + matched < prefix.length()) {
+                return null;
+            }
+            i += matched;
+        }
+        return node;
+    }
+
+    // Nodes from the root to the one ending exactly at the key, splitting labels and adding nodes as needed
+    private List<Node> createPath(String key) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int i = 0;
+        while (i < key.length()) {
+            Node child = node.child(key.charAt(i));
+            if (child == null) {
+                child = new Node(key.substring(i));
+                node.putChild(child);
+                path.add(child);
+                return path;
+            }
+            int matched = commonPrefixLength(child.label, key, i);
+            if (matched < child.label.length()) {
+                Node split = new Node(child.label.substring(0, matched));
+                child.label = child.label.substring(matched);
+                split.putChild(child);
+                node.putChild(split);
+                child = split;
+            }
+            path.add(child);
+            node = child;
+            i += matched;
+        }
+        return path;
+    }
+
+    // Nodes from the root to the one ending exactly at the key, or null when the key is not stored
+    private List<Node> existingPath(String key) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int i = 0;
+        while (i < key.length()) {
+            node = node.child(key.charAt(i));
+            if (node == null || !key.startsWith(node.label, i)) {
+                return null;
+            }
+            path.add(node);
+            i += node.label.length();
+        }
+        return path;
+    }
+
+    private static int commonPrefixLength(String label, String key, int offset) {
+        int length = Math.min(label.length(), key.length() - offset);
+        int i = 0;
+        while (i < length && label.charAt(i) == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    // Rebuilds the cached top list bottom-up along the changed path from the node's own entries and its children's lists
+    private static void refreshTop(List<Node> path) {
+        for (int depth = path.size() - 1; depth >= 0; depth--) {
+            Node node = path.get(depth);
+            Map<String, Entry> unique = new HashMap<>();
+            node.terminals.forEach(entry -> unique.put(entry.type() + entry.id(), entry));
+            for (Node child : node.children) {
+                child.top.forEach(entry -> unique.put(entry.type() + entry.id(), entry));
+            }
+            node.top = unique.values().stream().sorted(MOST_POPULAR).limit(TOP_N).toList();
+        }
+    }
+
+    private static boolean sameEntry(Entry a, Entry b) {
+        return a.type().equals(b.type()) && a.id().equals(b.id());
+    }
+
+    // The lower-cased name from each word start onwards, capped at MAX_KEY_LENGTH characters
+    static Set<String> keys(String name) {
+        String normalized = name.toLowerCase(Locale.ROOT);
+        Set<String> keys = new LinkedHashSet<>();
+        for (int i = 0; i < normalized.length(); i++) {
+            if (isWordStart(normalized, i)) {
+                keys.add(normalized.substring(i, Math.min(normalized.length(), i + MAX_KEY_LENGTH)));
+            }
+        }
+        return keys;
+    }
+
+    private static boolean hasWordStartingWith(String name, String prefix) {
+        String normalized = name.toLowerCase(Locale.ROOT);
+        for (int i = 0; i < normalized.length(); i++) {
+            if (isWordStart(normalized, i) && normalized.startsWith(prefix, i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isWordStart(String text, int index) {
+        return Character.isLetterOrDigit(text.charAt(index))
+                && (index == 0 || !Character.isLetterOrDigit(text.charAt(index - 1)));
+    }
+}
@@ -0,0 +1,304 @@
+package com.example.ecommercebackend.catalog;
+
+import com.example.ecommercebackend.dto.CacheStatsDTO;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+/**
+ * Weight-bounded W-TinyLFU cache. New entries land in a small LRU window (1% of the weight); entries leaving the
+ * window are only admitted into the main space if a count-min sketch says they are requested more often than the
+ * entry they would displace. The main space is a segmented LRU: probation for admitted entries, protected (80%)
+ * for entries hit again after admission. This keeps one-off lookups from flushing a skewed hot set.
+ *
+ * <p>All operations run under the cache's monitor; loaders run outside it, and a value loaded while any key was
+ * invalidated is returned but not cached, so a load that raced with a commit cannot resurrect stale data.</p>
+ */
+public class TinyLfuCache<K, V> {
+
+    private static final int WINDOW_PERCENT = 1;
+    private static final int PROTECTED_PERCENT = 80;
+
+    private final long maximumWeight;
+    private final long windowMaximum;
+    private final long mainMaximum;
+    private final long protectedMaximum;
+    private final ToIntFunction<V> weigher;
+    private final FrequencySketch sketch;
+    private final Map<K, Node<K, V>> data = new HashMap<>();
+    private final Queue<K, V> window = new Queue<>();
+    private final Queue<K, V> probation = new Queue<>();
+    private final Queue<K, V> protectedQueue = new Queue<>();
+
+    private long windowWeight;
+    private long mainWeight;
+    private long protectedWeight;
+    private long generation;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * @param expectedEntries rough number of entries that fit, used to size the frequency sketch
+     */
+    public TinyLfuCache(long maximumWeight, int expectedEntries, ToIntFunction<V> weigher) {
+        if (maximumWeight <= 0)
+            throw new IllegalArgumentException("maximumWeight must be positive");
+        this.maximumWeight = maximumWeight;
+        this.windowMaximum = Math.max(1, maximumWeight * WINDOW_PERCENT / 100);
+        this.mainMaximum = maximumWeight - windowMaximum;
+        this.protectedMaximum = mainMaximum * PROTECTED_PERCENT / 100;
+        this.weigher = weigher;
+        this.sketch = new FrequencySketch(expectedEntries);
+    }
+
+    /**
+     * Returns the cached value or loads, caches and returns it. A null from the loader is returned and not cached.
+     */
+    public V get(K key, Function<K, V> loader) {
+        long loadGeneration;
+        synchronized (this) {
+            sketch.increment(key.hashCode());
+            Node<K, V> node = data.get(key);
+            if (node != null) {
+                hits++;
+                onHit(node);
+                return node.value;
+            }
+            misses++;
+            loadGeneration = generation;
+        }
+        V value = loader.apply(key);
+        if (value != null) {
+            synchronized (this) {
+                if (generation == loadGeneration && !data.containsKey(key)) {
+                    insert(key, value);
+                }
+            }
+        }
+        return value;
+    }
+
+    public synchronized void invalidate(K key) {
+        generation++;
+        Node<K, V> node = data.remove(key);
+        if (node != null) {
+            unlink(node);
+        }
+    }
+
+    /**
+     * Drops every entry whose key matches, in time linear in the number of entries.
+     */
+    public synchronized void invalidateIf(Predicate<K> filter) {
+        generation++;
+        Iterator<Node<K, V>> nodes = data.values().iterator();
+        while (nodes.hasNext()) {
+            Node<K, V> node = nodes.next();
+            if (filter.test(node.key)) {
+                nodes.remove();
+                unlink(node);
+            }
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        generation++;
+        data.clear();
+        window.clear();
+        probation.clear();
+        protectedQueue.clear();
+        windowWeight = mainWeight = protectedWeight = 0;
+    }
+
+    public synchronized CacheStatsDTO stats() {
+        long requests = hits + misses;
+        return new CacheStatsDTO(hits, misses, requests == 0 ? 0.0 : (double) hits / requests, evictions,
+                data.size(), windowWeight + mainWeight, maximumWeight);
+    }
+
+    private void insert(K key, V value) {
+        int weight = weigher.applyAsInt(value);
+        if (weight > maximumWeight) {
+            return;
+        }
+        Node<K, V> node = new Node<>(key, value, weight);
+        data.put(key, node);
+        window.addLast(node);
+        windowWeight += weight;
+        while (windowWeight > windowMaximum) {
+            Node<K, V> candidate = window.removeFirst();
+            windowWeight -= candidate.weight;
+            admit(candidate);
+        }
+    }
+
+    // Moves a window evictee into probation if it is more popular than every entry it has to push out
+    private void admit(Node<K, V> candidate) {
+        int candidateFrequency = sketch.frequency(candidate.key.hashCode());
+        while (mainWeight + candidate.weight > mainMaximum) {
+            Node<K, V> victim = probation.first() != null ? probation.first() : protectedQueue.first();
+            if (victim == null || candidateFrequency <= sketch.frequency(victim.key.hashCode())) {
+                data.remove(candidate.key);
+                evictions++;
+                return;
+            }
+            data.remove(victim.key);
+            unlink(victim);
+            evictions++;
+        }
+        candidate.queue = probation;
+        probation.addLast(candidate);
+        mainWeight += candidate.weight;
+    }
+
+    private void onHit(Node<K, V> node) {
+        if (node.queue == probation) {
+            probation.remove(node);
+            protectedQueue.addLast(node);
+            protectedWeight += node.weight;
+            while (protectedWeight > protectedMaximum) {
+                Node<K, V> demoted = protectedQueue.removeFirst();
+                protectedWeight -= demoted.weight;
+                probation.addLast(demoted);
+            }
+        } else {
+            node.queue.remove(node);
+            node.queue.addLast(node);
+        }
+    }
+
+    private void unlink(Node<K, V> node) {
+        node.queue.remove(node);
+        if (node.queue == window) {
+            windowWeight -= node.weight;
+        } else {
+            mainWeight -= node.weight;
+            if (node.queue == protectedQueue) {
+                protectedWeight -= node.weight;
+            }
+        }
+    }
+
+    private static final class Node<K, V> {
+        final K key;
+        final V value;
+        final int weight;
+        Queue<K, V> queue;
+        Node<K, V> prev;
+        Node<K, V> next;
+
+        Node(K key, V value, int weight) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+
+    // Intrusive doubly linked LRU list; head is the eviction end
+    private static final class Queue<K, V> {
+        private Node<K, V> head;
+        private Node<K, V> tail;
+
+        Node<K, V> first() {
+            return head;
+        }
+
+        void addLast(Node<K, V> node) {
+            node.queue = this;
+            node.prev = tail;
+            node.next = null;
+            if (tail == null) {
+                head = node;
+            } else {
+                tail.next = node;
+            }
+            tail = node;
+        }
+
+        Node<K, V> removeFirst() {
+            Node<K, V> node = head;
+            remove(node);
+            return node;
+        }
+
+        void remove(Node<K, V> node) {
+            if (node.prev == null) {
+                head = node.next;
+            } else {
+                node.prev.next = node.next;
+            }
+            if (node.next == null) {
+                tail = node.prev;
+            } else {
+                node.next.prev = node.prev;
+            }
+            node.prev = node.next = null;
+        }
+
+        void clear() {
+            head = tail = null;
+        }
+    }
+
+    /**
+     * Count-min sketch with four rows of 4-bit counters. Once the number of increments reaches ten times the width
+     * every counter is halved, so popularity decays and yesterday's hot keys can be displaced.
+     */
+    static final class FrequencySketch {
+        private static final long[] SEEDS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+        private static final int MAX_COUNT = 15;
+
+        private final byte[][] rows;
+        private final int mask;
+        private final int sampleSize;
+        private int additions;
+
+        FrequencySketch(int expectedEntries) {
+            int width = Integer.highestOneBit(Math.max(16, expectedEntries - 1) << 1);
+            this.rows = new byte[SEEDS.length][width];
+            this.mask = width - 1;
+            this.sampleSize = 10 * width;
+        }
+
+        void increment(int hash) {
+            boolean added = false;
+            for (int row = 0; row < rows.length; row++) {
+                int index = index(hash, row);
+                if (rows[row][index] < MAX_COUNT) {
+                    rows[row][index]++;
+                    added = true;
+                }
+            }
+            if (added && ++additions >= sampleSize) {
+                reset();
+            }
+        }
+
+        int frequency(int hash) {
+            int frequency = MAX_COUNT;
+            for (int row = 0; row < rows.length; row++) {
+                frequency = Math.min(frequency, rows[row][index(hash, row)]);
+            }
+            return frequency;
+        }
+
+        private int index(int hash, int row) {
+            long h = (hash + SEEDS[row]) * SEEDS[row];
+            return (int) (h ^ (h >>> 32)) & mask;
+        }
+
+        private void reset() {
+            for (byte[] row : rows) {
+                for (int i = 0; i < row.length; i++) {
+                    row[i] >>= 1;
+                }
+            }
+            additions /= 2;
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package com.example.ecommercebackend.catalog;
+
+import com.example.ecommercebackend.repository.OrderItemRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Best sellers by units sold, overall and per category, all time and over the last 24 hours. Every leaderboard is a
+ * bounded list of the {@link #TOP_N} best products kept sorted as orders arrive; since unit counts only grow between
+ * orders, a product outside a board can only enter it through the order that raised its count. Boards publish an
+ * immutable copy after each change, so reads never lock or sort.
+ *
+ * <p>The 24 hour window is a ring of hourly buckets: an order adds to the current bucket and the window totals, and
+ * when an hour passes the oldest bucket is subtracted from the totals and the window boards are rebuilt from them.
+ * The window therefore spans the last 23 to 24 hours, and it only covers orders placed since startup because orders
+ * carry no time of day.</p>
+ */
+@Component
+public class TopSellerIndex implements CatalogListener {
+
+    public static final int TOP_N = 50;
+    private static final int WINDOW_HOURS = 24;
+    private static final long HOUR_MILLIS = 3_600_000;
+
+    private final OrderItemRepository orderItemRepository;
+    private final Clock clock;
+    private final Map<Long, Long> productCategories = new HashMap<>();
+    private LongLongMap totalUnits = new LongLongMap();
+    private final LongLongMap windowUnits = new LongLongMap();
+    private final LongLongMap[] buckets = new LongLongMap[WINDOW_HOURS];
+    private final Board overall = new Board();
+    private final Board overallWindow = new Board();
+    private final Map<Long, Board> byCategory = new HashMap<>();
+    private final Map<Long, Board> byCategoryWindow = new HashMap<>();
+    private long currentHour;
+
+    @Autowired
+    public TopSellerIndex(OrderItemRepository orderItemRepository) {
+        this(orderItemRepository, Clock.systemUTC());
+    }
+
+    TopSellerIndex(OrderItemRepository orderItemRepository, Clock clock) {
+        this.orderItemRepository = orderItemRepository;
+        this.clock = clock;
+        for (int i = 0; i < WINDOW_HOURS; i++) {
+            buckets[i] = new LongLongMap();
+        }
+        this.currentHour = clock.millis() / HOUR_MILLIS;
+    }
+
+    /**
+     * Up to {@code limit} (at most {@link #TOP_N}) best sellers of the category, or of the whole catalog when
+     * {@code categoryId} is null, most units first, ties broken by product id.
+     */
+    public List<ProductSales> topSellers(Long categoryId, boolean lastDay, int limit) {
+        Board board;
+        if (categoryId == null) {
+            board = lastDay ? overallWindow : overall;
+        } else {
+            synchronized (this) {
+                board = (lastDay ? byCategoryWindow : byCategory).get(categoryId);
+            }
+        }
+        if (board == null) {
+            return List.of();
+        }
+        List<ProductSales> published = board.published;
+        return published.subList(0, Math.min(limit, published.size()));
+    }
+
+    @Override
+    public synchronized void onLoad(Collection<CatalogProduct> products) {
+        List<ProductSales> sales = orderItemRepository.sumUnitsSoldByProduct();
+        Set<Long> productIds = new HashSet<>();
+        productCategories.clear();
+        for (CatalogProduct product : products) {
+            productIds.add(product.productId());
+            if (product.categoryId() != null) {
+                productCategories.put(product.productId(), product.categoryId());
+            }
+        }
+        totalUnits = new LongLongMap(sales.size());
+        for (ProductSales sale : sales) {
+            if (productIds.contains(sale.productId()) && sale.unitsSold() > 0) {
+                totalUnits.addTo(sale.productId(), sale.unitsSold());
+            }
+        }
+        // The window lives only in memory, so a reload keeps it and just re-sorts it under the new categories
+        rebuildBoards(totalUnits, overall, byCategory);
+        rebuildBoards(windowUnits, overallWindow, byCategoryWindow);
+    }
+
+    @Override
+    public synchronized void onSaved(CatalogProduct previous, CatalogProduct current) {
+        Long previousCategory = productCategories.get(current.productId());
+        if (Objects.equals(previousCategory, current.categoryId())) {
+            return;
+        }
+        if (current.categoryId() == null) {
+            productCategories.remove(current.productId());
+        } else {
+            productCategories.put(current.productId(), current.categoryId());
+        }
+        refreshCategory(previousCategory);
+        refreshCategory(current.categoryId());
+    }
+
+    @Override
+    public synchronized void onRemoved(CatalogProduct previous) {
+        long productId = previous.productId();
+        Long categoryId = productCategories.remove(productId);
+        boolean sold = totalUnits.remove(productId);
+        boolean soldRecently = windowUnits.remove(productId);
+        for (LongLongMap bucket : buckets) {
+            bucket.remove(productId);
+        }
+        if (sold && overall.contains(productId)) {
+            overall.rebuild(totalUnits, null, productCategories);
+        }
+        if (soldRecently && overallWindow.contains(productId)) {
+            overallWindow.rebuild(windowUnits, null, productCategories);
+        }
+        refreshCategory(categoryId);
+    }
+
+    @Override
+    public synchronized void onOrderPlaced(Long orderId, Map<Long, Integer> quantitiesByProduct) {
+        advance();
+        LongLongMap bucket = buckets[(int) (currentHour % WINDOW_HOURS)];
+        quantitiesByProduct.forEach((productId, quantity) -> {
+            if (quantity <= 0) {
+                return;
+            }
+            long total = totalUnits.addTo(productId, quantity);
+            long recent = windowUnits.addTo(productId, quantity);
+            bucket.addTo(productId, quantity);
+            overall.offer(productId, total);
+            overallWindow.offer(productId, recent);
+            Long categoryId = productCategories.get(productId);
+            if (categoryId != null) {
+                byCategory.computeIfAbsent(categoryId, id -> new Board()).offer(productId, total);
+                byCategoryWindow.computeIfAbsent(categoryId, id -> new Board()).offer(productId, recent);
+            }
+        });
+        publishAll();
+    }
+
+    /**
+     * Expires the buckets of hours that have passed and rebuilds the window boards if anything dropped out.
+     */
+    @Scheduled(fixedRateString = "${product.top-sellers.tick-ms:60000}")
+    public synchronized void tick() {
+        if (advance()) {
+            rebuildBoards(windowUnits, overallWindow, byCategoryWindow);
+        }
+    }
+
+    // Returns whether any units left the window
+    private boolean advance() {
+        long hour = clock.millis() / HOUR_MILLIS;
+        boolean expired = false;
+        for (long steps = Math.min(hour - currentHour, WINDOW_HOURS); steps > 0; steps--) {
+            int index = (int) ((hour - steps + 1) % WINDOW_HOURS);
+            LongLongMap bucket = buckets[index];
+            if (bucket.size() > 0) {
+                bucket.forEach((productId, units) -> {
+                    if (windowUnits.addTo(productId, -units) == 0) {
+                        windowUnits.remove(productId);
+                    }
+                });
+                buckets[index] = new LongLongMap();
+                expired = true;
+            }
+        }
+        currentHour = Math.max(currentHour, hour);
+        return expired;
+    }
+
+    private void refreshCategory(Long categoryId) {
+        if (categoryId == null) {
+            return;
+        }
+        byCategory.computeIfAbsent(categoryId, id -> new Board()).rebuild(totalUnits, categoryId, productCategories);
+        byCategoryWindow.computeIfAbsent(categoryId, id -> new Board()).rebuild(windowUnits, categoryId, productCategories);
+    }
+
+    private void rebuildBoards(LongLongMap units, Board all, Map<Long, Board> categories) {
+        all.reset();
+        categories.values().forEach(Board::reset);
+        units.forEach((productId, count) -> {
+            all.offer(productId, count);
+            Long categoryId = productCategories.get(productId);
+            if (categoryId != null) {
+                categories.computeIfAbsent(categoryId, id -> new Board()).offer(productId, count);
+            }
+        });
+        all.publish();
+        categories.values().forEach(Board::publish);
+    }
+
+    private void publishAll() {
+        overall.publish();
+        overallWindow.publish();
+        byCategory.values().forEach(Board::publish);
+        byCategoryWindow.values().forEach(Board::publish);
+    }
+
+    private static final class Board {
+        private final long[] ids = new long[TOP_N];
+        private final long[] units = new long[TOP_N];
+        private int size;
+        private boolean dirty;
+        private volatile List<ProductSales> published = List.of();
+
+        boolean contains(long productId) {
+            return indexOf(productId) >= 0;
+        }
+
+        void offer(long productId, long count) {
+            int index = indexOf(productId);
+            if (index < 0) {
+                if (size < TOP_N) {
+                    index = size++;
+                } else if (better(productId, count, ids[TOP_N - 1], units[TOP_N - 1])) {
+                    index = TOP_N - 1;
+                } else {
+                    return;
+                }
+                ids[index] = productId;
+            }
+            units[index] = count;
+            while (index > 0 && better(ids[index], units[index], ids[index - 1], units[index - 1])) {
+                swap(index, index - 1);
+                index--;
+            }
+            dirty = true;
+        }
+
+        void reset() {
+            size = 0;
+            dirty = true;
+        }
+
+        void rebuild(LongLongMap source, Long categoryId, Map<Long, Long> productCategories) {
+            reset();
+            source.forEach((productId, count) -> {
+                if (categoryId == null || categoryId.equals(productCategories.get(productId))) {
+                    offer(productId, count);
+                }
+            });
+            publish();
+        }
+
+        void publish() {
+            if (!dirty) {
+                return;
+            }
+            List<ProductSales> copy = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                copy.add(new ProductSales(ids[i], units[i]));
+            }
+            published = List.copyOf(copy);
+            dirty = false;
+        }
+
+        private int indexOf(long productId) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == productId) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private static boolean better(long id, long count, long otherId, long otherCount) {
+            return count > otherCount || (count == otherCount && id < otherId);
+        }
+
+        private void swap(int a, int b) {
+            long id = ids[a];
+            ids[a] = ids[b];
+            ids[b] = id;
+            long count = units[a];
+            units[a] = units[b];
+            units[b] = count;
+        }
+    }
+}
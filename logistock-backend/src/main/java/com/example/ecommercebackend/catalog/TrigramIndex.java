@@ -0,0 +1,103 @@
+package com.example.ecommercebackend.catalog;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Inverted index from lower-cased character trigrams of product names to product ids. Any name containing a
+ * keyword also contains every trigram of that keyword, so intersecting the keyword's posting lists yields a small
+ * candidate set that only needs to be verified, instead of a LIKE '%keyword%' table scan.
+ */
+@Component
+public class TrigramIndex implements CatalogListener {
+
+    public static final int GRAM = 3;
+
+    private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+
+    @Override
+    public void onLoad(Collection<CatalogProduct> products) {
+        postings.clear();
+        products.forEach(product -> add(product.productId(), product.productName()));
+    }
+
+    @Override
+    public void onSaved(CatalogProduct previous, CatalogProduct current) {
+        if (previous != null && Objects.equals(previous.productName(), current.productName())) {
+            return;
+        }
+        if (previous != null) {
+            remove(previous.productId(), previous.productName());
+        }
+        add(current.productId(), current.productName());
+    }
+
+    @Override
+    public void onRemoved(CatalogProduct previous) {
+        remove(previous.productId(), previous.productName());
+    }
+
+    /**
+     * Returns the ids of products whose name may contain the keyword, or empty when the keyword is shorter than a
+     * trigram and the index cannot narrow the search. Candidates must still be verified against the name.
+     */
+    public Optional<Set<Long>> candidates(String keyword) {
+        Set<String> grams = trigrams(keyword);
+        if (grams.isEmpty()) {
+            return Optional.empty();
+        }
+        List<Set<Long>> lists = new ArrayList<>(grams.size());
+        for (String gram : grams) {
+            Set<Long> posting = postings.get(gram);
+            if (posting == null || posting.isEmpty()) {
+                return Optional.of(Set.of());
+            }
+            lists.add(posting);
+        }
+        // Intersect starting from the rarest trigram so the working set only shrinks
+        lists.sort(Comparator.comparingInt(Set::size));
+        Set<Long> result = new HashSet<>(lists.get(0));
+        for (int i = 1; i < lists.size() && !result.isEmpty(); i++) {
+            result.retainAll(lists.get(i));
+        }
+        return Optional.of(result);
+    }
+
+    static Set<String> trigrams(String text) {
+        if (text == null) {
+            return Set.of();
+        }
+        String normalized = text.toLowerCase(Locale.ROOT);
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= normalized.length(); i++) {
+            grams.add(normalized.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    private void add(Long productId, String name) {
+        for (String gram : trigrams(name)) {
+            postings.computeIfAbsent(gram, key -> ConcurrentHashMap.newKeySet()).add(productId);
+        }
+    }
+
+    private void remove(Long productId, String name) {
+        for (String gram : trigrams(name)) {
+            postings.computeIfPresent(gram, (key, ids) -> {
+                ids.remove(productId);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+}
@@ -5,8 +5,18 @@ public class AppConstants {
     public static final String PAGE_NUMBER = "0";
     public static final String PAGE_SIZE = "10";
     public static final String SORT_DIR = "asc";
+    public static final String WITH_TOTALS = "true";
+    public static final String FUZZY_SEARCH = "false";
+    public static final String SUGGEST_LIMIT = "10";
+    public static final String CHANGES_LIMIT = "500";
+    public static final String RECOMMENDATION_LIMIT = "10";
+    public static final String TOP_SELLER_LIMIT = "10";
+    public static final String TOP_SELLER_WINDOW = "all";
+    public static final String EXPORT_CONTENT_TYPE = "application/x-ndjson";
+    public static final String IMPORT_CSV_CONTENT_TYPE = "text/csv";
     public static final String CATEGORY_SORT_BY = "categoryId";
     public static final String PRODUCT_SORT_BY = "productId";
+    public static final String RELEVANCE_SORT_BY = "relevance";
     public static final String ADDRESS_SORT_BY = "addressId";
     public static final String ADMIN = "admin";
     public static final String SELLER = "seller";
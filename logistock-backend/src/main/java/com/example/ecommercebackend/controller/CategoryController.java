@@ -1,5 +1,6 @@
 package com.example.ecommercebackend.controller;
 
+import com.example.ecommercebackend.catalog.CatalogReadModel;
 import com.example.ecommercebackend.dto.CategoryDTO;
 import com.example.ecommercebackend.dto.CategoryResponse;
 import com.example.ecommercebackend.service.CategoryService;
@@ -8,6 +9,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -19,19 +21,30 @@ import static com.example.ecommercebackend.config.AppConstants.*;
 public class CategoryController {
 
     private final CategoryService categoryService;
+    private final CatalogReadModel catalogReadModel;
 
     @Autowired
-    public CategoryController(CategoryService categoryService) {
+    public CategoryController(CategoryService categoryService, CatalogReadModel catalogReadModel) {
         this.categoryService = categoryService;
+        this.catalogReadModel = catalogReadModel;
     }
 
     @GetMapping
-    public ResponseEntity<CategoryResponse> getCategoriesWthPagination(@RequestParam(value = "pageNumber", defaultValue = PAGE_NUMBER, required = false) Integer pageNumber, @RequestParam(value = "pageSize", defaultValue = PAGE_SIZE, required = false) Integer pageSize, @RequestParam(value = "sortBy", defaultValue = CATEGORY_SORT_BY, required = false) String sortBy, @RequestParam(value = "sortOrder", defaultValue = SORT_DIR, required = false) String sortOrder) {
+    public ResponseEntity<CategoryResponse> getCategoriesWthPagination(@RequestParam(value = "pageNumber", defaultValue = PAGE_NUMBER, required = false) Integer pageNumber, @RequestParam(value = "pageSize", defaultValue = PAGE_SIZE, required = false) Integer pageSize, @RequestParam(value = "sortBy", defaultValue = CATEGORY_SORT_BY, required = false) String sortBy, @RequestParam(value = "sortOrder", defaultValue = SORT_DIR, required = false) String sortOrder, @RequestParam(value = "after", required = false) String after, WebRequest webRequest) {
+        if (webRequest.checkNotModified(catalogReadModel.etag())) {
+            return null;
+        }
+        if (after != null) {
+            return new ResponseEntity<>(categoryService.fetchCategoriesAfter(pageSize, sortBy, sortOrder, after), HttpStatus.OK);
+        }
         return new ResponseEntity<>(categoryService.fetchCategories(pageNumber, pageSize, sortBy, sortOrder), HttpStatus.OK);
     }
 
     @GetMapping("/all")
-    public ResponseEntity<List<CategoryDTO>> getCategories() {
+    public ResponseEntity<List<CategoryDTO>> getCategories(WebRequest webRequest) {
+        if (webRequest.checkNotModified(catalogReadModel.etag())) {
+            return null;
+        }
         return new ResponseEntity<>(categoryService.fetchAllCategory(), HttpStatus.OK);
     }
 
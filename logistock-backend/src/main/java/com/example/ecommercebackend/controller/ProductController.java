@@ -1,15 +1,41 @@
 package com.example.ecommercebackend.controller;
 
+import com.example.ecommercebackend.catalog.CatalogReadModel;
+import com.example.ecommercebackend.catalog.ProductEventBroadcaster;
+import com.example.ecommercebackend.dto.CacheStatsDTO;
+import com.example.ecommercebackend.dto.ProductChangesResponse;
 import com.example.ecommercebackend.dto.ProductDTO;
+import com.example.ecommercebackend.dto.ProductDetailDTO;
+import com.example.ecommercebackend.dto.ProductDeleteResponse;
+import com.example.ecommercebackend.dto.ProductFacetResponse;
+import com.example.ecommercebackend.dto.ProductImportResponse;
+import com.example.ecommercebackend.dto.ProductRepriceRequest;
+import com.example.ecommercebackend.dto.ProductRepriceResponse;
 import com.example.ecommercebackend.dto.ProductResponse;
+import com.example.ecommercebackend.dto.ProductStatsDTO;
+import com.example.ecommercebackend.dto.RecommendationDTO;
+import com.example.ecommercebackend.dto.SuggestionDTO;
+import com.example.ecommercebackend.dto.TopSellerDTO;
+import com.example.ecommercebackend.service.ProductChangeService;
+import com.example.ecommercebackend.service.ProductImportService;
 import com.example.ecommercebackend.service.ProductService;
+import com.example.ecommercebackend.service.ProductStatsService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
 
 import static com.example.ecommercebackend.config.AppConstants.*;
 
@@ -19,25 +45,133 @@ import static com.example.ecommercebackend.config.AppConstants.*;
 public class ProductController {
 
     private final ProductService productService;
+    private final ProductImportService productImportService;
+    private final CatalogReadModel catalogReadModel;
+    private final ProductChangeService productChangeService;
+    private final ProductEventBroadcaster productEventBroadcaster;
+    private final ProductStatsService productStatsService;
 
     @Autowired
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, ProductImportService productImportService, CatalogReadModel catalogReadModel, ProductChangeService productChangeService, ProductEventBroadcaster productEventBroadcaster, ProductStatsService productStatsService) {
         this.productService = productService;
+        this.productImportService = productImportService;
+        this.catalogReadModel = catalogReadModel;
+        this.productChangeService = productChangeService;
+        this.productEventBroadcaster = productEventBroadcaster;
+        this.productStatsService = productStatsService;
     }
 
     @GetMapping
-    public ResponseEntity<ProductResponse> getProductsWthPagination(@RequestParam(value = "pageNumber", defaultValue = PAGE_NUMBER, required = false) Integer pageNumber, @RequestParam(value = "pageSize", defaultValue = PAGE_SIZE, required = false) Integer pageSize, @RequestParam(value = "sortBy", defaultValue = PRODUCT_SORT_BY, required = false) String sortBy, @RequestParam(value = "sortOrder", defaultValue = SORT_DIR, required = false) String sortOrder) {
-        return new ResponseEntity<>(productService.fetchProducts(pageNumber, pageSize, sortBy, sortOrder), HttpStatus.OK);
+    public ResponseEntity<ProductResponse> getProductsWthPagination(@RequestParam(value = "pageNumber", defaultValue = PAGE_NUMBER, required = false) Integer pageNumber, @RequestParam(value = "pageSize", defaultValue = PAGE_SIZE, required = false) Integer pageSize, @RequestParam(value = "sortBy", defaultValue = PRODUCT_SORT_BY, required = false) String sortBy, @RequestParam(value = "sortOrder", defaultValue = SORT_DIR, required = false) String sortOrder, @RequestParam(value = "after", required = false) String after, @RequestParam(value = "withTotals", defaultValue = WITH_TOTALS, required = false) Boolean withTotals, @RequestParam(value = "minPrice", required = false) Double minPrice, @RequestParam(value = "maxPrice", required = false) Double maxPrice, @RequestParam(value = "ids", required = false) List<Long> ids, WebRequest webRequest) {
+        if (webRequest.checkNotModified(catalogReadModel.etag())) {
+            return null;
+        }
+        if (ids != null) {
+            return new ResponseEntity<>(productService.fetchProductsByIds(ids), HttpStatus.OK);
+        }
+        if (minPrice != null || maxPrice != null) {
+            return new ResponseEntity<>(productService.fetchProductsInPriceRange(pageNumber, pageSize, sortBy, sortOrder, minPrice, maxPrice, after, withTotals), HttpStatus.OK);
+        }
+        if (after != null) {
+            return new ResponseEntity<>(productService.fetchProductsAfter(pageSize, sortBy, sortOrder, after), HttpStatus.OK);
+        }
+        return new ResponseEntity<>(productService.fetchProducts(pageNumber, pageSize, sortBy, sortOrder, withTotals), HttpStatus.OK);
+    }
+
+    @GetMapping("/changes")
+    public ResponseEntity<ProductChangesResponse> getProductChanges(@RequestParam("since") Long since, @RequestParam(value = "limit", defaultValue = CHANGES_LIMIT, required = false) Integer limit) {
+        return new ResponseEntity<>(productChangeService.fetchChanges(since, limit), HttpStatus.OK);
+    }
+
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamProductEvents(@RequestParam(value = "ids", required = false) List<Long> productIds) {
+        return productEventBroadcaster.subscribe(productIds);
+    }
+
+    // No ETag: the 24 hour lists change as hours pass, without any catalog or order change
+    @GetMapping("/top-sellers")
+    public ResponseEntity<List<TopSellerDTO>> getTopSellers(@RequestParam(value = "categoryId", required = false) Long categoryId, @RequestParam(value = "window", defaultValue = TOP_SELLER_WINDOW, required = false) String window, @RequestParam(value = "limit", defaultValue = TOP_SELLER_LIMIT, required = false) Integer limit) {
+        return new ResponseEntity<>(productService.fetchTopSellers(categoryId, window, limit), HttpStatus.OK);
+    }
+
+    @GetMapping("/{productId}")
+    public ResponseEntity<ProductDetailDTO> getProduct(@PathVariable Long productId, WebRequest webRequest) {
+        if (webRequest.checkNotModified(catalogReadModel.etag())) {
+            return null;
+        }
+        return new ResponseEntity<>(productService.fetchProduct(productId), HttpStatus.OK);
+    }
+
+    @GetMapping("/{productId}/recommendations")
+    public ResponseEntity<List<RecommendationDTO>> getRecommendations(@PathVariable Long productId, @RequestParam(value = "limit", defaultValue = RECOMMENDATION_LIMIT, required = false) Integer limit, WebRequest webRequest) {
+        if (webRequest.checkNotModified(catalogReadModel.etag())) {
+            return null;
+        }
+        return new ResponseEntity<>(productService.fetchRecommendations(productId, limit), HttpStatus.OK);
+    }
+
+    @GetMapping("/{productId}/stats")
+    public ResponseEntity<ProductStatsDTO> getProductStats(@PathVariable Long productId) {
+        return new ResponseEntity<>(productStatsService.fetchStats(productId), HttpStatus.OK);
+    }
+
+    @GetMapping("/cache/stats")
+    public ResponseEntity<CacheStatsDTO> getProductCacheStats() {
+        return new ResponseEntity<>(productService.productCacheStats(), HttpStatus.OK);
+    }
+
+    @GetMapping("/search-cache/stats")
+    public ResponseEntity<CacheStatsDTO> getSearchCacheStats() {
+        return new ResponseEntity<>(productService.searchCacheStats(), HttpStatus.OK);
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<ProductResponse> getProductsByIds(@RequestBody List<Long> productIds) {
+        return new ResponseEntity<>(productService.fetchProductsByIds(productIds), HttpStatus.OK);
     }
 
     @GetMapping("/categories/{categoryId}")
-    public ResponseEntity<ProductResponse> getProductsByCategoryWthPagination(@RequestParam(value = "pageNumber", defaultValue = PAGE_NUMBER, required = false) Integer pageNumber, @RequestParam(value = "pageSize", defaultValue = PAGE_SIZE, required = false) Integer pageSize, @RequestParam(value = "sortBy", defaultValue = PRODUCT_SORT_BY, required = false) String sortBy, @RequestParam(value = "sortOrder", defaultValue = SORT_DIR, required = false) String sortOrder, @PathVariable Long categoryId) {
-        return new ResponseEntity<>(productService.fetchProductsByCategory(pageNumber, pageSize, sortBy, sortOrder, categoryId), HttpStatus.OK);
+    public ResponseEntity<ProductResponse> getProductsByCategoryWthPagination(@RequestParam(value = "pageNumber", defaultValue = PAGE_NUMBER, required = false) Integer pageNumber, @RequestParam(value = "pageSize", defaultValue = PAGE_SIZE, required = false) Integer pageSize, @RequestParam(value = "sortBy", defaultValue = PRODUCT_SORT_BY, required = false) String sortBy, @RequestParam(value = "sortOrder", defaultValue = SORT_DIR, required = false) String sortOrder, @RequestParam(value = "after", required = false) String after, @RequestParam(value = "withTotals", defaultValue = WITH_TOTALS, required = false) Boolean withTotals, @PathVariable Long categoryId, WebRequest webRequest) {
+        if (webRequest.checkNotModified(catalogReadModel.etag())) {
+            return null;
+        }
+        if (after != null) {
+            return new ResponseEntity<>(productService.fetchProductsByCategoryAfter(pageSize, sortBy, sortOrder, categoryId, after), HttpStatus.OK);
+        }
+        return new ResponseEntity<>(productService.fetchProductsByCategory(pageNumber, pageSize, sortBy, sortOrder, categoryId, withTotals), HttpStatus.OK);
     }
 
     @GetMapping("/search/{keyword}")
-    public ResponseEntity<ProductResponse> searchProduct(@RequestParam(value = "pageNumber", defaultValue = PAGE_NUMBER, required = false) Integer pageNumber, @RequestParam(value = "pageSize", defaultValue = PAGE_SIZE, required = false) Integer pageSize, @RequestParam(value = "sortBy", defaultValue = PRODUCT_SORT_BY, required = false) String sortBy, @RequestParam(value = "sortOrder", defaultValue = SORT_DIR, required = false) String sortOrder, @PathVariable String keyword) {
-        return new ResponseEntity<>(productService.searchProduct(pageNumber, pageSize, sortBy, sortOrder, keyword), HttpStatus.OK);
+    public ResponseEntity<ProductResponse> searchProduct(@RequestParam(value = "pageNumber", defaultValue = PAGE_NUMBER, required = false) Integer pageNumber, @RequestParam(value = "pageSize", defaultValue = PAGE_SIZE, required = false) Integer pageSize, @RequestParam(value = "sortBy", defaultValue = PRODUCT_SORT_BY, required = false) String sortBy, @RequestParam(value = "sortOrder", defaultValue = SORT_DIR, required = false) String sortOrder, @RequestParam(value = "withTotals", defaultValue = WITH_TOTALS, required = false) Boolean withTotals, @RequestParam(value = "fuzzy", defaultValue = FUZZY_SEARCH, required = false) Boolean fuzzy, @PathVariable String keyword, WebRequest webRequest) {
+        if (webRequest.checkNotModified(catalogReadModel.etag())) {
+            return null;
+        }
+        return new ResponseEntity<>(productService.searchProduct(pageNumber, pageSize, sortBy, sortOrder, keyword, withTotals, fuzzy), HttpStatus.OK);
+    }
+
+    @GetMapping("/filter")
+    public ResponseEntity<ProductFacetResponse> filterProducts(@RequestParam(value = "pageNumber", defaultValue = PAGE_NUMBER, required = false) Integer pageNumber, @RequestParam(value = "pageSize", defaultValue = PAGE_SIZE, required = false) Integer pageSize, @RequestParam(value = "sortBy", defaultValue = PRODUCT_SORT_BY, required = false) String sortBy, @RequestParam(value = "sortOrder", defaultValue = SORT_DIR, required = false) String sortOrder, @RequestParam(value = "categoryId", required = false) List<Long> categoryIds, @RequestParam(value = "priceBand", required = false) List<String> priceBands, @RequestParam(value = "discountBand", required = false) List<String> discountBands, @RequestParam(value = "inStock", required = false) Boolean inStock, WebRequest webRequest) {
+        if (webRequest.checkNotModified(catalogReadModel.etag())) {
+            return null;
+        }
+        return new ResponseEntity<>(productService.filterProducts(pageNumber, pageSize, sortBy, sortOrder, categoryIds, priceBands, discountBands, inStock), HttpStatus.OK);
+    }
+
+    @GetMapping(value = "/export", produces = EXPORT_CONTENT_TYPE)
+    public ResponseEntity<StreamingResponseBody> exportProducts() {
+        StreamingResponseBody body = outputStream -> productService.exportProducts(new BufferedOutputStream(outputStream, 64 * 1024));
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(EXPORT_CONTENT_TYPE))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"products.ndjson\"")
+                .body(body);
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<List<SuggestionDTO>> suggest(@RequestParam("prefix") String prefix, @RequestParam(value = "limit", defaultValue = SUGGEST_LIMIT, required = false) Integer limit, WebRequest webRequest) {
+        if (webRequest.checkNotModified(catalogReadModel.etag())) {
+            return null;
+        }
+        return new ResponseEntity<>(productService.suggest(prefix, limit), HttpStatus.OK);
     }
 
     @PostMapping(value = {"/categories/{categoryId}"})
@@ -45,11 +179,31 @@ public class ProductController {
         return ResponseEntity.status(201).body(productService.createProduct(productDTO, categoryId));
     }
 
+    @PostMapping(value = "/categories/{categoryId}/import", consumes = IMPORT_CSV_CONTENT_TYPE)
+    public ResponseEntity<ProductImportResponse> importProductsCsv(@PathVariable Long categoryId, InputStream body) throws IOException {
+        return ResponseEntity.ok(productImportService.importProducts(categoryId, body, ProductImportService.Format.CSV));
+    }
+
+    @PostMapping(value = "/categories/{categoryId}/import", consumes = EXPORT_CONTENT_TYPE)
+    public ResponseEntity<ProductImportResponse> importProductsNdjson(@PathVariable Long categoryId, InputStream body) throws IOException {
+        return ResponseEntity.ok(productImportService.importProducts(categoryId, body, ProductImportService.Format.NDJSON));
+    }
+
+    @PutMapping("/prices")
+    public ResponseEntity<ProductRepriceResponse> repriceProducts(@RequestBody ProductRepriceRequest request) {
+        return ResponseEntity.ok(productService.repriceProducts(request));
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<ProductDTO> updateProduct(@PathVariable Long id, @RequestBody ProductDTO productDTO) {
         return ResponseEntity.ok(productService.updateProduct(id, productDTO));
     }
 
+    @DeleteMapping
+    public ResponseEntity<ProductDeleteResponse> deleteProducts(@RequestParam("ids") List<Long> productIds) {
+        return ResponseEntity.ok(productService.deleteProducts(productIds));
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteProduct(@PathVariable Long id) {
         productService.deleteProduct(id);
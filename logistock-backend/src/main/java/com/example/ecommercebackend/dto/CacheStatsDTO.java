@@ -0,0 +1,18 @@
+package com.example.ecommercebackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CacheStatsDTO {
+    private Long hits;
+    private Long misses;
+    private Double hitRate;
+    private Long evictions;
+    private Integer entries;
+    private Long weightedSize;
+    private Long maximumWeight;
+}
@@ -13,6 +13,7 @@ public class CategoryResponse {
     private Long totalElements;
     private Integer totalPages;
     private Boolean lastPage;
+    private String nextCursor;
 
     public CategoryResponse(List<CategoryDTO> content, Integer pageNumber, Integer pageSize, Long totalElements, Integer totalPages, Boolean lastPage) {
         this.content = content;
@@ -23,6 +24,11 @@ public class CategoryResponse {
         this.lastPage = lastPage;
     }
 
+    public CategoryResponse(List<CategoryDTO> content, Integer pageNumber, Integer pageSize, Long totalElements, Integer totalPages, Boolean lastPage, String nextCursor) {
+        this(content, pageNumber, pageSize, totalElements, totalPages, lastPage);
+        this.nextCursor = nextCursor;
+    }
+
     public List<CategoryDTO> getContent() {
         return content;
     }
@@ -70,4 +76,12 @@ public class CategoryResponse {
     public void setLastPage(Boolean lastPage) {
         this.lastPage = lastPage;
     }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
 }
@@ -0,0 +1,21 @@
+package com.example.ecommercebackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductChangesResponse {
+    private Long since;
+    // Pass as since on the next call
+    private Long version;
+    // The log no longer reaches back to since; drop the local copy and sync again from version 0
+    private Boolean fullResync;
+    private Boolean hasMore;
+    private List<ProductDTO> upserted;
+    private List<Long> deleted;
+}
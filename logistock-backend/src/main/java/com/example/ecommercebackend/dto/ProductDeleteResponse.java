@@ -0,0 +1,15 @@
+package com.example.ecommercebackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductDeleteResponse {
+    private Integer productsDeleted;
+    private Integer cartItemsRemoved;
+    private Integer cartsUpdated;
+    private Integer wishlistItemsRemoved;
+}
@@ -0,0 +1,22 @@
+package com.example.ecommercebackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductDetailDTO {
+    private Long productId;
+    private String productName;
+    private String productImage;
+    private String description;
+    private Integer quantity;
+    private Double price;
+    private Double discount;
+    private Double specialPrice;
+    private Long categoryId;
+    private String categoryName;
+    private String sellerName;
+}
@@ -0,0 +1,17 @@
+package com.example.ecommercebackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductEventDTO {
+    private Long productId;
+    private Double price;
+    private Double discount;
+    private Double specialPrice;
+    private Integer quantity;
+    private String productImage;
+}
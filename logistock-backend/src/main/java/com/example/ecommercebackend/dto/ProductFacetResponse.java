@@ -0,0 +1,16 @@
+package com.example.ecommercebackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductFacetResponse {
+    private ProductResponse products;
+    // Facet name -> facet value -> number of matching products
+    private Map<String, Map<String, Integer>> facets;
+}
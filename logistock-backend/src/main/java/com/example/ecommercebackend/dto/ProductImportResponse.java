@@ -0,0 +1,18 @@
+package com.example.ecommercebackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductImportResponse {
+    private Integer rowsRead;
+    private Integer imported;
+    private Integer rejected;
+    // Capped; rejected carries the full count
+    private List<ProductImportError> errors;
+}
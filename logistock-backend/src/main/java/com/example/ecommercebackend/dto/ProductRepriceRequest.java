@@ -0,0 +1,22 @@
+package com.example.ecommercebackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductRepriceRequest {
+    // Selector: exactly one of these
+    private Long categoryId;
+    private List<Long> productIds;
+    private Boolean allProducts;
+
+    // Rule: price and priceChangePercent are exclusive, discount may be combined with either
+    private Double price;
+    private Double priceChangePercent;
+    private Double discount;
+}
@@ -0,0 +1,14 @@
+package com.example.ecommercebackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductRepriceResponse {
+    private Integer productsUpdated;
+    private Integer cartItemsUpdated;
+    private Integer cartsUpdated;
+}
@@ -16,4 +16,9 @@ public class ProductResponse {
     private Long totalElements;
     private Integer totalPages;
     private Boolean lastPage;
+    private String nextCursor;
+
+    public ProductResponse(List<ProductDTO> content, Integer pageNumber, Integer pageSize, Long totalElements, Integer totalPages, Boolean lastPage) {
+        this(content, pageNumber, pageSize, totalElements, totalPages, lastPage, null);
+    }
 }
@@ -0,0 +1,18 @@
+package com.example.ecommercebackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductStatsDTO {
+    private Long productId;
+    // Detail page fetches
+    private Long views;
+    // Appearances on listing, category, price range and filter pages
+    private Long listImpressions;
+    // Appearances on search result pages
+    private Long searchImpressions;
+}
@@ -0,0 +1,14 @@
+package com.example.ecommercebackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RecommendationDTO {
+    private ProductDTO product;
+    // Orders that contained both this product and the one recommendations were asked for
+    private Long ordersTogether;
+}
@@ -0,0 +1,14 @@
+package com.example.ecommercebackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TopSellerDTO {
+    private ProductDTO product;
+    // Units sold in the requested window
+    private Long unitsSold;
+}
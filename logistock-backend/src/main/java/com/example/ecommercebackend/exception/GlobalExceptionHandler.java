@@ -23,6 +23,8 @@ public class GlobalExceptionHandler {
             return new ResponseEntity<>(apiExceptionResponse, HttpStatus.CONFLICT);
         if (message.contains("authentication is required"))
             return new ResponseEntity<>(apiExceptionResponse, HttpStatus.UNAUTHORIZED);
+        if (message.contains("is invalid"))
+            return new ResponseEntity<>(apiExceptionResponse, HttpStatus.BAD_REQUEST);
 
         return new ResponseEntity<>(apiExceptionResponse, HttpStatus.INTERNAL_SERVER_ERROR);
     }
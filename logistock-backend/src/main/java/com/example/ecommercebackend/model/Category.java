@@ -5,7 +5,7 @@ import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 
 @Entity
-@Table(name = "category")
+@Table(name = "category", indexes = @Index(name = "idx_category_name_id", columnList = "categoryName, categoryId"))
 public class Category {
 
     @Id
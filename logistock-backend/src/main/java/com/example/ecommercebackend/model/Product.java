@@ -3,7 +3,9 @@ package com.example.ecommercebackend.model;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -12,7 +14,18 @@ import java.util.List;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Table(name = "products")
+// One index per supported sort key (see CatalogSortKeys), overall and within a category, ending in the id tie-breaker
+@Table(name = "products", indexes = {
+        @Index(name = "idx_products_name_id", columnList = "productName, productId"),
+        @Index(name = "idx_products_price_id", columnList = "price, productId"),
+        @Index(name = "idx_products_discount_id", columnList = "discount, productId"),
+        @Index(name = "idx_products_special_price_id", columnList = "specialPrice, productId"),
+        @Index(name = "idx_products_category_id", columnList = "category_id, productId"),
+        @Index(name = "idx_products_category_name_id", columnList = "category_id, productName, productId"),
+        @Index(name = "idx_products_category_price_id", columnList = "category_id, price, productId"),
+        @Index(name = "idx_products_category_discount_id", columnList = "category_id, discount, productId"),
+        @Index(name = "idx_products_category_special_price_id", columnList = "category_id, specialPrice, productId")
+})
 public class Product {
 
     @Id
@@ -36,10 +49,12 @@ public class Product {
     )
     private User user;
 
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @OneToMany(
             mappedBy = "product",
             cascade = {CascadeType.PERSIST, CascadeType.MERGE},
-            fetch = FetchType.EAGER
+            fetch = FetchType.LAZY
     )
     private List<CartItem> cartItems = new ArrayList<>();
 
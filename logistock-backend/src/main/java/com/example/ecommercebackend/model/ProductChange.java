@@ -0,0 +1,28 @@
+package com.example.ecommercebackend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Entity
+@Table(name = "product_changes", indexes = @Index(name = "idx_product_changes_product_id", columnList = "productId"))
+public class ProductChange {
+
+    // Doubles as the catalog version a change was published under
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long changeId;
+
+    private Long productId;
+
+    @Enumerated(EnumType.STRING)
+    private ProductChangeType changeType;
+
+    private LocalDateTime changedAt;
+}
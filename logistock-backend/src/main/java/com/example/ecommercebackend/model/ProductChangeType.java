@@ -0,0 +1,6 @@
+package com.example.ecommercebackend.model;
+
+public enum ProductChangeType {
+    UPSERT,
+    DELETE
+}
@@ -0,0 +1,26 @@
+package com.example.ecommercebackend.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Written only by the batched MERGE in ProductStatsServiceImpl; the entity is for reads
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Entity
+@Table(name = "product_stats")
+public class ProductStats {
+
+    @Id
+    private Long productId;
+
+    private Long views;
+
+    private Long listImpressions;
+
+    private Long searchImpressions;
+}
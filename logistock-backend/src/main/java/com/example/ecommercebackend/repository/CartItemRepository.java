@@ -6,6 +6,8 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+
 @Repository
 public interface CartItemRepository extends JpaRepository<CartItem, Long> {
     @Query("SELECT ci FROM CartItem ci WHERE ci.cart.id = ?1 AND ci.product.id = ?2")
@@ -14,4 +16,13 @@ public interface CartItemRepository extends JpaRepository<CartItem, Long> {
     @Modifying
     @Query("DELETE FROM CartItem ci WHERE ci.cart.id = ?1 AND ci.product.id = ?2")
     void deleteCartItemByProductIdAndCartId(Long cartId, Long productId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE CartItem ci SET ci.productPrice = (SELECT p.specialPrice FROM Product p WHERE p.productId = ci.product.productId), ci.discount = (SELECT p.discount FROM Product p WHERE p.productId = ci.product.productId) " +
+            "WHERE ci.product.productId IN ?1 AND ci.productPrice <> (SELECT p.specialPrice FROM Product p WHERE p.productId = ci.product.productId)")
+    int repriceStaleCartItemsForProducts(Collection<Long> productIds);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM CartItem ci WHERE ci.product.productId IN ?1")
+    int deleteByProductIds(Collection<Long> productIds);
 }
@@ -2,9 +2,11 @@ package com.example.ecommercebackend.repository;
 
 import com.example.ecommercebackend.model.Cart;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -15,6 +17,16 @@ public interface CartRepository extends JpaRepository<Cart, Long> {
     @Query("SELECT c FROM Cart c WHERE c.user.email = ?1 AND c.id = ?2")
     Cart findCartByEmailAndCartId(String emailId, Long cartId);
 
-    @Query("SELECT c FROM Cart c JOIN FETCH c.cartItems ci JOIN FETCH ci.product p WHERE p.id = ?1")
-    List<Cart> findCartsByProductId(Long productId);
+    // Takes the lines of the given products out of the totals; CartItemRepository.deleteByProductIds removes the lines
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Cart c SET c.totalPrice = c.totalPrice - (SELECT SUM(ci.productPrice * ci.quantity) FROM CartItem ci WHERE ci.cart = c AND ci.product.productId IN ?1) " +
+            "WHERE EXISTS (SELECT ci.cartItemId FROM CartItem ci WHERE ci.cart = c AND ci.product.productId IN ?1)")
+    int subtractProductsFromTotals(Collection<Long> productIds);
+
+    // Shifts each total by the price difference of the given products' lines still holding an outdated price. Must run
+    // before CartItemRepository.repriceStaleCartItemsForProducts, which is what makes those lines current.
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Cart c SET c.totalPrice = c.totalPrice + (SELECT SUM((p.specialPrice - ci.productPrice) * ci.quantity) FROM CartItem ci JOIN ci.product p WHERE ci.cart = c AND p.productId IN ?1 AND ci.productPrice <> p.specialPrice) " +
+            "WHERE EXISTS (SELECT ci.cartItemId FROM CartItem ci JOIN ci.product p WHERE ci.cart = c AND p.productId IN ?1 AND ci.productPrice <> p.specialPrice)")
+    int repriceTotalsOfStaleCartsForProducts(Collection<Long> productIds);
 }
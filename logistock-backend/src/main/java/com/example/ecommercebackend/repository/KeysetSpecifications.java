@@ -0,0 +1,93 @@
+package com.example.ecommercebackend.repository;
+
+import com.example.ecommercebackend.util.KeysetCursor;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Seek-method pagination. Rows are ordered by (sortBy, id) with nulls treated as the smallest value, and a page
+ * starts strictly after the cursor instead of skipping an OFFSET. The ordering is applied by the specification
+ * itself ({@code Sort} cannot express null precedence for criteria queries), so callers must not pass a Sort.
+ */
+public final class KeysetSpecifications {
+
+    private KeysetSpecifications() {
+    }
+
+    public static <T> Specification<T> seek(String sortBy, String idAttribute, boolean ascending, KeysetCursor after) {
+        return seekWithin(null, null, sortBy, idAttribute, ascending, after);
+    }
+
+    /**
+     * Like {@link #seek}, restricted to rows whose {@code groupPath} (dot-separated) equals {@code group}. The group
+     * also leads the ordering; it is constant, so the order does not change, but H2 only matches an ORDER BY against
+     * an index from its first column, so this is what lets it read a (group, key, id) index in order.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static <T> Specification<T> seekWithin(String groupPath, Object group, String sortBy, String idAttribute, boolean ascending, KeysetCursor after) {
+        return (root, query, cb) -> {
+            Path<Long> id = root.get(idAttribute);
+            Path<Comparable> key = root.get(sortBy);
+            Path<?> groupColumn = groupPath == null ? null : path(root, groupPath);
+            boolean byId = sortBy.equals(idAttribute);
+
+            if (query != null && !Long.class.equals(query.getResultType()) && !long.class.equals(query.getResultType())) {
+                // Explicit null precedence instead of a CASE on the key, so the (key, id) index can supply the order
+                HibernateCriteriaBuilder hcb = (HibernateCriteriaBuilder) cb;
+                List<Order> orders = new ArrayList<>();
+                if (groupColumn != null) {
+                    orders.add(ascending ? cb.asc(groupColumn) : cb.desc(groupColumn));
+                }
+                if (!byId) {
+                    orders.add(ascending ? hcb.asc(key, true) : hcb.desc(key, false));
+                }
+                orders.add(ascending ? cb.asc(id) : cb.desc(id));
+                query.orderBy(orders);
+            }
+
+            Predicate inGroup = groupColumn == null ? null : cb.equal(groupColumn, group);
+            Predicate afterCursor = after == null ? null : afterCursor(cb, key, id, byId, ascending, after);
+            if (inGroup == null || afterCursor == null) {
+                return inGroup != null ? inGroup : afterCursor;
+            }
+            return cb.and(inGroup, afterCursor);
+        };
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Predicate afterCursor(CriteriaBuilder cb, Path<Comparable> key, Path<Long> id, boolean byId, boolean ascending, KeysetCursor after) {
+        Predicate afterId = ascending ? cb.greaterThan(id, after.id()) : cb.lessThan(id, after.id());
+        if (byId) {
+            return afterId;
+        }
+        if (after.value() == null) {
+            Predicate sameNull = cb.and(cb.isNull(key), afterId);
+            return ascending ? cb.or(sameNull, cb.isNotNull(key)) : sameNull;
+        }
+
+        // key >= v AND (key > v OR id > last) rather than key > v OR (key = v AND id > last): the same rows, but the
+        // leading range lets the index seek to the cursor instead of filtering from the start
+        Comparable value = (Comparable) DefaultConversionService.getSharedInstance().convert(after.value(), key.getJavaType());
+        Predicate from = ascending ? cb.greaterThanOrEqualTo(key, value) : cb.lessThanOrEqualTo(key, value);
+        Predicate beyond = ascending ? cb.greaterThan(key, value) : cb.lessThan(key, value);
+        Predicate afterKey = cb.and(from, cb.or(beyond, afterId));
+        return ascending ? afterKey : cb.or(afterKey, cb.isNull(key));
+    }
+
+    private static Path<?> path(Root<?> root, String dottedPath) {
+        Path<?> path = root;
+        for (String attribute : dottedPath.split("\\.")) {
+            path = path.get(attribute);
+        }
+        return path;
+    }
+}
@@ -1,12 +1,22 @@
 package com.example.ecommercebackend.repository;
 
 
+import com.example.ecommercebackend.catalog.OrderLine;
+import com.example.ecommercebackend.catalog.ProductSales;
 import com.example.ecommercebackend.model.OrderItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 
 @Repository
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
 
-}
\ No newline at end of file
+    @Query("SELECT new com.example.ecommercebackend.catalog.ProductSales(oi.product.productId, SUM(oi.quantity)) FROM OrderItem oi GROUP BY oi.product.productId")
+    List<ProductSales> sumUnitsSoldByProduct();
+
+    @Query("SELECT DISTINCT new com.example.ecommercebackend.catalog.OrderLine(oi.order.orderId, oi.product.productId) FROM OrderItem oi ORDER BY oi.order.orderId")
+    List<OrderLine> findAllOrderLines();
+}
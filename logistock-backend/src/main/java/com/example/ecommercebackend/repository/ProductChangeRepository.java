@@ -0,0 +1,37 @@
+package com.example.ecommercebackend.repository;
+
+import com.example.ecommercebackend.model.ProductChange;
+import com.example.ecommercebackend.model.ProductChangeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ProductChangeRepository extends JpaRepository<ProductChange, Long> {
+
+    @Query("SELECT c FROM ProductChange c WHERE c.changeId > ?1 AND c.changeId <= ?2 ORDER BY c.changeId")
+    List<ProductChange> findChangesBetween(Long since, Long upTo, Pageable pageable);
+
+    @Query("SELECT COALESCE(MAX(c.changeId), 0) FROM ProductChange c")
+    long findLatestChangeId();
+
+    @Query("SELECT COALESCE(MIN(c.changeId), 0) FROM ProductChange c")
+    long findOldestChangeId();
+
+    // Only a product's latest change matters to a client catching up from any earlier version
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM ProductChange c WHERE EXISTS (SELECT n.changeId FROM ProductChange n WHERE n.productId = c.productId AND n.changeId > c.changeId)")
+    int deleteSupersededChanges();
+
+    @Query("SELECT COALESCE(MAX(c.changeId), 0) FROM ProductChange c WHERE c.changeType = ?1 AND c.changedAt < ?2")
+    long findLatestChangeIdBefore(ProductChangeType changeType, LocalDateTime cutoff);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM ProductChange c WHERE c.changeType = ?1 AND c.changeId <= ?2")
+    int deleteChangesUpTo(ProductChangeType changeType, Long changeId);
+}
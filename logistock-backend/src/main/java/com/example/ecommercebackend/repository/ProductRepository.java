@@ -1,15 +1,31 @@
 package com.example.ecommercebackend.repository;
 
+import com.example.ecommercebackend.catalog.CatalogProduct;
+import com.example.ecommercebackend.dto.ProductDTO;
+import com.example.ecommercebackend.dto.ProductDetailDTO;
 import com.example.ecommercebackend.model.Product;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
     Optional<Product> findByProductName(String productName);
 
     //    List<Product> findByCategory(Long categoryId);
@@ -20,4 +36,55 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     Page<Product> findByProductNameContainingIgnoreCase(String name, Pageable pageable);
 
     Page<Product> findByProductNameLikeIgnoreCase(String name, Pageable pageable);
+
+    // Full catalog load for the in-memory read model
+    @Query("SELECT new com.example.ecommercebackend.catalog.CatalogProduct(p.productId, p.productName, p.productImage, p.description, p.quantity, p.price, p.discount, p.specialPrice, c.categoryId) FROM Product p LEFT JOIN p.category c")
+    List<CatalogProduct> findAllCatalogProducts();
+
+    @Query("SELECT new com.example.ecommercebackend.dto.ProductDetailDTO(p.productId, p.productName, p.productImage, p.description, p.quantity, p.price, p.discount, p.specialPrice, c.categoryId, c.categoryName, u.userName) FROM Product p LEFT JOIN p.category c LEFT JOIN p.user u WHERE p.productId = ?1")
+    Optional<ProductDetailDTO> findProductDetailById(Long productId);
+
+    @Query("SELECT new com.example.ecommercebackend.dto.ProductDTO(p.productId, p.productName, p.productImage, p.description, p.quantity, p.price, p.discount, p.specialPrice) FROM Product p WHERE p.productId IN ?1")
+    List<ProductDTO> findProductDTOsByProductIdIn(Collection<Long> productIds);
+
+    @Query("SELECT new com.example.ecommercebackend.catalog.CatalogProduct(p.productId, p.productName, p.productImage, p.description, p.quantity, p.price, p.discount, p.specialPrice, c.categoryId) FROM Product p LEFT JOIN p.category c WHERE c.categoryId = ?1")
+    List<CatalogProduct> findCatalogProductsByCategoryId(Long categoryId);
+
+    @Query("SELECT new com.example.ecommercebackend.catalog.CatalogProduct(p.productId, p.productName, p.productImage, p.description, p.quantity, p.price, p.discount, p.specialPrice, c.categoryId) FROM Product p LEFT JOIN p.category c WHERE p.productId IN ?1")
+    List<CatalogProduct> findCatalogProductsByProductIdIn(Collection<Long> productIds);
+
+    // New price = price * priceFactor + priceOffset and likewise for the discount, so one statement covers absolute
+    // prices (factor 0), percentage rules (offset 0) and untouched columns (factor 1, offset 0). The special price
+    // repeats both expressions because SET clauses only see the old column values.
+    String REPRICE = "UPDATE Product p SET p.price = p.price * :priceFactor + :priceOffset, " +
+            "p.discount = COALESCE(p.discount, 0) * :discountFactor + :discountOffset, " +
+            "p.specialPrice = (p.price * :priceFactor + :priceOffset) - ((COALESCE(p.discount, 0) * :discountFactor + :discountOffset) * 0.01) * (p.price * :priceFactor + :priceOffset)";
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(REPRICE + " WHERE p.category.categoryId = :categoryId")
+    int repriceByCategoryId(@Param("categoryId") Long categoryId, @Param("priceFactor") double priceFactor, @Param("priceOffset") double priceOffset, @Param("discountFactor") double discountFactor, @Param("discountOffset") double discountOffset);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(REPRICE + " WHERE p.productId IN :productIds")
+    int repriceByProductIds(@Param("productIds") Collection<Long> productIds, @Param("priceFactor") double priceFactor, @Param("priceOffset") double priceOffset, @Param("discountFactor") double discountFactor, @Param("discountOffset") double discountOffset);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(REPRICE)
+    int repriceAll(@Param("priceFactor") double priceFactor, @Param("priceOffset") double priceOffset, @Param("discountFactor") double discountFactor, @Param("discountOffset") double discountOffset);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Product p WHERE p.productId IN ?1")
+    int deleteByProductIds(Collection<Long> productIds);
+
+    @Query("SELECT p.productName FROM Product p WHERE p.productName IN ?1")
+    Set<String> findExistingProductNames(Collection<String> productNames);
+
+    @Query("SELECT p.productId FROM Product p WHERE p.productId IN ?1")
+    List<Long> findExistingProductIds(Collection<Long> productIds);
+
+    // Forward-only export cursor: rows arrive 500 at a time and, being DTOs rather than entities, are never added to
+    // the persistence context. Must be consumed inside a transaction and closed.
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT new com.example.ecommercebackend.dto.ProductDTO(p.productId, p.productName, p.productImage, p.description, p.quantity, p.price, p.discount, p.specialPrice) FROM Product p ORDER BY p.productId")
+    Stream<ProductDTO> streamProductDTOs();
 }
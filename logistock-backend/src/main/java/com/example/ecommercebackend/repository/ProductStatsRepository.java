@@ -0,0 +1,18 @@
+package com.example.ecommercebackend.repository;
+
+import com.example.ecommercebackend.model.ProductStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+
+@Repository
+public interface ProductStatsRepository extends JpaRepository<ProductStats, Long> {
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM ProductStats s WHERE s.productId IN :productIds")
+    int deleteByProductIds(@Param("productIds") Collection<Long> productIds);
+}
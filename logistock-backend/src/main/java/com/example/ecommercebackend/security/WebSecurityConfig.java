@@ -3,6 +3,7 @@ package com.example.ecommercebackend.security;
 import com.example.ecommercebackend.security.jwt.AuthEntryPointJwt;
 import com.example.ecommercebackend.security.jwt.AuthTokenFilter;
 import com.example.ecommercebackend.security.services.UserDetailsServiceImpl;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -72,6 +73,8 @@ public class WebSecurityConfig {
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth ->
                                 auth
+                                        // Streaming responses were authorized on the original request
+                                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                                         .requestMatchers("/h2-console/**").permitAll()
 //                                .requestMatchers("/api/h2-console/**").permitAll()
 //                                .requestMatchers("/api/auth/**").permitAll()
@@ -0,0 +1,7 @@
+package com.example.ecommercebackend.service;
+
+public interface CartRepricingService {
+    void productRepriced(Long productId);
+
+    int repricePendingCarts();
+}
@@ -8,6 +8,8 @@ import java.util.List;
 public interface CategoryService {
     CategoryResponse fetchCategories(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder);
 
+    CategoryResponse fetchCategoriesAfter(Integer pageSize, String sortBy, String sortOrder, String after);
+
     CategoryDTO createCategory(CategoryDTO categoryDTO);
 
     CategoryDTO updateCategory(Long id, CategoryDTO categoryDTO);
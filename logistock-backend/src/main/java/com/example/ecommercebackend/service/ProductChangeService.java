@@ -0,0 +1,15 @@
+package com.example.ecommercebackend.service;
+
+import com.example.ecommercebackend.dto.ProductChangesResponse;
+
+import java.util.Collection;
+
+public interface ProductChangeService {
+    void recordUpserts(Collection<Long> productIds);
+
+    void recordDeletes(Collection<Long> productIds);
+
+    ProductChangesResponse fetchChanges(Long since, Integer limit);
+
+    int compact();
+}
@@ -0,0 +1,13 @@
+package com.example.ecommercebackend.service;
+
+import com.example.ecommercebackend.dto.ProductImportResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface ProductImportService {
+
+    enum Format { CSV, NDJSON }
+
+    ProductImportResponse importProducts(Long categoryId, InputStream input, Format format) throws IOException;
+}
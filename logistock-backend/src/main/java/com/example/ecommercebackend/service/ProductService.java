@@ -1,22 +1,63 @@
 package com.example.ecommercebackend.service;
 
+import com.example.ecommercebackend.dto.CacheStatsDTO;
 import com.example.ecommercebackend.dto.ProductDTO;
+import com.example.ecommercebackend.dto.ProductDetailDTO;
+import com.example.ecommercebackend.dto.ProductDeleteResponse;
+import com.example.ecommercebackend.dto.ProductFacetResponse;
+import com.example.ecommercebackend.dto.ProductRepriceRequest;
+import com.example.ecommercebackend.dto.ProductRepriceResponse;
 import com.example.ecommercebackend.dto.ProductResponse;
+import com.example.ecommercebackend.dto.RecommendationDTO;
+import com.example.ecommercebackend.dto.SuggestionDTO;
+import com.example.ecommercebackend.dto.TopSellerDTO;
 import jakarta.validation.Valid;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
 public interface ProductService {
-    ProductResponse fetchProducts(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder);
+    ProductResponse fetchProducts(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder, Boolean withTotals);
+
+    ProductResponse fetchProductsByIds(List<Long> productIds);
+
+    ProductDetailDTO fetchProduct(Long productId);
+
+    CacheStatsDTO productCacheStats();
+
+    CacheStatsDTO searchCacheStats();
+
+    ProductResponse fetchProductsAfter(Integer pageSize, String sortBy, String sortOrder, String after);
+
+    ProductResponse fetchProductsInPriceRange(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder, Double minPrice, Double maxPrice, String after, Boolean withTotals);
 
     ProductDTO createProduct(@Valid ProductDTO productDTO, Long categoryId);
 
     ProductDTO updateProduct(Long id, ProductDTO productDTO);
 
+    ProductRepriceResponse repriceProducts(ProductRepriceRequest request);
+
     void deleteProduct(Long id);
 
-    ProductResponse fetchProductsByCategory(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder, Long categoryId);
+    ProductDeleteResponse deleteProducts(List<Long> productIds);
 
-    ProductResponse searchProduct(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder, String keyword);
+    ProductResponse fetchProductsByCategory(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder, Long categoryId, Boolean withTotals);
+
+    ProductResponse fetchProductsByCategoryAfter(Integer pageSize, String sortBy, String sortOrder, Long categoryId, String after);
+
+    ProductResponse searchProduct(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder, String keyword, Boolean withTotals, Boolean fuzzy);
+
+    ProductFacetResponse filterProducts(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder, List<Long> categoryIds, List<String> priceBands, List<String> discountBands, Boolean inStock);
 
     ProductDTO updateProductImage(Long productId, MultipartFile productImage);
+
+    List<SuggestionDTO> suggest(String prefix, Integer limit);
+
+    List<RecommendationDTO> fetchRecommendations(Long productId, Integer limit);
+
+    List<TopSellerDTO> fetchTopSellers(Long categoryId, String window, Integer limit);
+
+    void exportProducts(OutputStream outputStream) throws IOException;
 }
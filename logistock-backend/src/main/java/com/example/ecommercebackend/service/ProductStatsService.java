@@ -0,0 +1,19 @@
+package com.example.ecommercebackend.service;
+
+import com.example.ecommercebackend.dto.ProductStatsDTO;
+
+import java.util.Collection;
+
+public interface ProductStatsService {
+    void recordView(Long productId);
+
+    void recordListImpressions(Collection<Long> productIds);
+
+    void recordSearchImpressions(Collection<Long> productIds);
+
+    ProductStatsDTO fetchStats(Long productId);
+
+    int flush();
+
+    void removeStats(Collection<Long> productIds);
+}
@@ -0,0 +1,93 @@
+package com.example.ecommercebackend.service.impl;
+
+import com.example.ecommercebackend.repository.CartItemRepository;
+import com.example.ecommercebackend.repository.CartRepository;
+import com.example.ecommercebackend.service.CartRepricingService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Moves cart repricing off the product update path. Repriced product ids are queued once their transaction has
+ * committed; repeated edits of the same product collapse into one entry. A scheduled worker drains the queue in
+ * batches and brings every cart line of those products, and the totals of their carts, up to the current special
+ * price with two set-based statements per batch.
+ */
+@Service
+public class CartRepricingServiceImpl implements CartRepricingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CartRepricingServiceImpl.class);
+
+    static final int BATCH_SIZE = 500;
+
+    private final CartRepository cartRepository;
+    private final CartItemRepository cartItemRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Set<Long> pendingProductIds = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public CartRepricingServiceImpl(CartRepository cartRepository, CartItemRepository cartItemRepository, PlatformTransactionManager transactionManager) {
+        this.cartRepository = cartRepository;
+        this.cartItemRepository = cartItemRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void productRepriced(Long productId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    pendingProductIds.add(productId);
+                }
+            });
+        } else {
+            pendingProductIds.add(productId);
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${cart.repricing.interval-ms:500}")
+    public int repricePendingCarts() {
+        int repricedLines = 0;
+        List<Long> batch;
+        while (!(batch = takeBatch()).isEmpty()) {
+            List<Long> productIds = batch;
+            try {
+                repricedLines += transactionTemplate.execute(status -> {
+                    // Totals first: they are shifted by the difference between the old line prices and the new ones
+                    cartRepository.repriceTotalsOfStaleCartsForProducts(productIds);
+                    return cartItemRepository.repriceStaleCartItemsForProducts(productIds);
+                });
+            } catch (RuntimeException e) {
+                // Nothing was committed; retry on the next run
+                pendingProductIds.addAll(productIds);
+                logger.error("Cart repricing failed for {} products, retrying later", productIds.size(), e);
+                break;
+            }
+        }
+        return repricedLines;
+    }
+
+    private List<Long> takeBatch() {
+        List<Long> batch = new ArrayList<>(Math.min(BATCH_SIZE, pendingProductIds.size()));
+        Iterator<Long> iterator = pendingProductIds.iterator();
+        while (batch.size() < BATCH_SIZE && iterator.hasNext()) {
+            batch.add(iterator.next());
+            iterator.remove();
+        }
+        return batch;
+    }
+}
@@ -1,16 +1,21 @@
 package com.example.ecommercebackend.service.impl;
 
+import com.example.ecommercebackend.catalog.CatalogReadModel;
 import com.example.ecommercebackend.dto.CategoryDTO;
 import com.example.ecommercebackend.dto.CategoryResponse;
+import com.example.ecommercebackend.exception.APIException;
 import com.example.ecommercebackend.model.Category;
 import com.example.ecommercebackend.repository.CategoryRepository;
+import com.example.ecommercebackend.repository.KeysetSpecifications;
 import com.example.ecommercebackend.service.CategoryService;
+import com.example.ecommercebackend.util.KeysetCursor;
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -19,18 +24,24 @@ import java.util.Optional;
 @Service
 public class CategoryServiceImpl implements CategoryService {
 
+    private static final List<String> SORT_KEYS = List.of("categoryId", "categoryName");
+
     private final CategoryRepository categoryRepository;
     private final ModelMapper modelMapper;
+    private final CatalogReadModel catalogReadModel;
 
     @Autowired
-    public CategoryServiceImpl(CategoryRepository categoryRepository, ModelMapper modelMapper) {
+    public CategoryServiceImpl(CategoryRepository categoryRepository, ModelMapper modelMapper, CatalogReadModel catalogReadModel) {
         this.categoryRepository = categoryRepository;
         this.modelMapper = modelMapper;
+        this.catalogReadModel = catalogReadModel;
     }
 
     @Override
     public CategoryResponse fetchCategories(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder) {
-        Sort sortByAndOrder = sortOrder.equalsIgnoreCase("asc") ? Sort.by(sortBy).ascending() : Sort.by(sortBy).descending();
+        validateSortBy(sortBy);
+        Sort sort = "categoryId".equals(sortBy) ? Sort.by(sortBy) : Sort.by(sortBy, "categoryId");
+        Sort sortByAndOrder = sortOrder.equalsIgnoreCase("asc") ? sort.ascending() : sort.descending();
         Pageable pageable = PageRequest.of(pageNumber, pageSize, sortByAndOrder);
         Page<Category> categoryPage = categoryRepository.findAll(pageable);
         Page<CategoryDTO> categoryDTOPage = categoryPage.map(category -> modelMapper.map(category, CategoryDTO.class));
@@ -40,10 +51,42 @@ public class CategoryServiceImpl implements CategoryService {
                 categoryDTOPage.getSize(),
                 categoryDTOPage.getTotalElements(),
                 categoryDTOPage.getTotalPages(),
-                categoryDTOPage.isLast()
+                categoryDTOPage.isLast(),
+                nextCursor(categoryDTOPage.getContent(), categoryDTOPage.isLast(), sortBy)
         );
     }
 
+    @Override
+    public CategoryResponse fetchCategoriesAfter(Integer pageSize, String sortBy, String sortOrder, String after) {
+        validateSortBy(sortBy);
+        if (pageSize < 1)
+            throw new APIException("Page size is invalid, it must be at least 1");
+
+        KeysetCursor cursor = after == null ? null : KeysetCursor.decode(after, sortBy);
+        Specification<Category> specification = KeysetSpecifications.seek(sortBy, "categoryId", sortOrder.equalsIgnoreCase("asc"), cursor);
+        List<Category> categories = categoryRepository.findBy(specification, query -> query.limit(pageSize + 1).all());
+
+        boolean lastPage = categories.size() <= pageSize;
+        List<CategoryDTO> content = categories.stream()
+                .limit(pageSize)
+                .map(category -> modelMapper.map(category, CategoryDTO.class))
+                .toList();
+        return new CategoryResponse(content, null, pageSize, null, null, lastPage, nextCursor(content, lastPage, sortBy));
+    }
+
+    // Both keys are backed by an index that ends in the id tie-breaker
+    private static void validateSortBy(String sortBy) {
+        if (!SORT_KEYS.contains(sortBy))
+            throw new APIException("Sort key '" + sortBy + "' is invalid, it must be one of " + SORT_KEYS);
+    }
+
+    private static String nextCursor(List<CategoryDTO> content, boolean lastPage, String sortBy) {
+        if (lastPage || content.isEmpty()) {
+            return null;
+        }
+        return KeysetCursor.of(content.get(content.size() - 1), sortBy, "categoryId").encode();
+    }
+
 
     @Override
     public CategoryDTO createCategory(CategoryDTO categoryDTO) {
@@ -53,6 +96,7 @@ public class CategoryServiceImpl implements CategoryService {
         }
         Category category = modelMapper.map(categoryDTO, Category.class);
         Category savedCategory = categoryRepository.save(category);
+        catalogReadModel.categorySaved(savedCategory);
         return modelMapper.map(savedCategory, CategoryDTO.class);
     }
 
@@ -62,6 +106,7 @@ public class CategoryServiceImpl implements CategoryService {
                 .map(existingCategory -> {
                     existingCategory.setCategoryName(categoryDTO.getCategoryName());
                     Category updatedCategory = categoryRepository.save(existingCategory);
+                    catalogReadModel.categorySaved(updatedCategory);
                     return modelMapper.map(updatedCategory, CategoryDTO.class);
                 })
                 .orElseThrow(() -> new RuntimeException("Category not found with id: " + id));
@@ -73,6 +118,7 @@ public class CategoryServiceImpl implements CategoryService {
             throw new RuntimeException("Category not found with id: " + id);
         }
         categoryRepository.deleteById(id);
+        catalogReadModel.categoryRemoved(id);
     }
 
     @Override
@@ -1,5 +1,6 @@
 package com.example.ecommercebackend.service.impl;
 
+import com.example.ecommercebackend.catalog.CatalogReadModel;
 import com.example.ecommercebackend.dto.OrderDTO;
 import com.example.ecommercebackend.dto.OrderItemDTO;
 import com.example.ecommercebackend.exception.APIException;
@@ -8,6 +9,7 @@ import com.example.ecommercebackend.model.*;
 import com.example.ecommercebackend.repository.*;
 import com.example.ecommercebackend.service.CartService;
 import com.example.ecommercebackend.service.OrderService;
+import com.example.ecommercebackend.service.ProductChangeService;
 import com.example.ecommercebackend.util.AuthUtil;
 import jakarta.transaction.Transactional;
 import org.modelmapper.ModelMapper;
@@ -16,7 +18,9 @@ import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -51,6 +55,12 @@ public class OrderServiceImpl implements OrderService {
     @Autowired
     private AuthUtil authUtil;
 
+    @Autowired
+    private CatalogReadModel catalogReadModel;
+
+    @Autowired
+    private ProductChangeService productChangeService;
+
     @Override
     @Transactional
     public OrderDTO placeOrder(Long addressId, String paymentMethod, String pgName, String pgPaymentId, String pgStatus, String pgResponseMessage) {
@@ -102,8 +112,10 @@ public class OrderServiceImpl implements OrderService {
 
         orderItems = orderItemRepository.saveAll(orderItems);
 
+        Map<Long, Integer> quantitiesByProduct = new HashMap<>();
         cart.getCartItems().forEach(item -> {
             int quantity = item.getQuantity();
+            quantitiesByProduct.merge(item.getProduct().getProductId(), quantity, Integer::sum);
             Product product = item.getProduct();
 
             // Reduce stock quantity
@@ -111,10 +123,13 @@ public class OrderServiceImpl implements OrderService {
 
             // Save product back to the database
             productRepository.save(product);
+            catalogReadModel.productSaved(product);
 
             // Remove items from cart
             cartService.deleteProductFromCart(cart.getCartId(), item.getProduct().getProductId());
         });
+        productChangeService.recordUpserts(quantitiesByProduct.keySet());
+        catalogReadModel.orderPlaced(savedOrder.getOrderId(), quantitiesByProduct);
 
         OrderDTO orderDTO = modelMapper.map(savedOrder, OrderDTO.class);
         orderItems.forEach(item -> orderDTO.getOrderItems().add(modelMapper.map(item, OrderItemDTO.class)));
@@ -0,0 +1,256 @@
+package com.example.ecommercebackend.service.impl;
+
+import com.example.ecommercebackend.dto.ProductChangesResponse;
+import com.example.ecommercebackend.dto.ProductDTO;
+import com.example.ecommercebackend.exception.APIException;
+import com.example.ecommercebackend.model.ProductChange;
+import com.example.ecommercebackend.model.ProductChangeType;
+import com.example.ecommercebackend.repository.ProductChangeRepository;
+import com.example.ecommercebackend.repository.ProductRepository;
+import com.example.ecommercebackend.service.ProductChangeService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Append-only log of product changes backing delta sync. Writers record ids inside their own transaction, so a
+ * change is visible in the log exactly when it is visible in the products table. The log is seeded with one entry
+ * per existing product, which lets a client with nothing sync from version 0. Compaction keeps only the latest entry
+ * per product and drops delete markers past their retention; clients older than the newest dropped marker are told
+ * to start over.
+ * <p>
+ * Versions are handed out on insert but become visible on commit, so two writers can commit out of version order.
+ * A reader therefore never moves past the first version still held by another open transaction; otherwise it would
+ * hand out a later version and the earlier change, once committed, would be behind every client for good.
+ */
+@Service
+public class ProductChangeServiceImpl implements ProductChangeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductChangeServiceImpl.class);
+
+    static final int MAX_LIMIT = 1000;
+    private static final int ID_CHUNK_SIZE = 1000;
+    private static final String INSERT_SQL = "INSERT INTO product_changes (product_id, change_type, changed_at) VALUES (?, ?, ?)";
+    private static final String BASELINE_SQL = "INSERT INTO product_changes (product_id, change_type, changed_at) SELECT product_id, ?, ? FROM products ORDER BY product_id";
+
+    private final ProductChangeRepository productChangeRepository;
+    private final ProductRepository productRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration deleteRetention;
+    // Newest version whose delete marker may have been compacted away; -1 until first derived from the log
+    private final AtomicLong horizon = new AtomicLong(-1);
+    // First version written by each open transaction, which also binds its own entry under pendingVersionKey
+    private final NavigableSet<Long> pendingVersions = new ConcurrentSkipListSet<>();
+    private final Object pendingVersionKey = new Object();
+    // Held while versions are handed out and while readers look for the safe one, so neither sees the other halfway
+    private final ReentrantLock versionLock = new ReentrantLock();
+
+    @Autowired
+    public ProductChangeServiceImpl(ProductChangeRepository productChangeRepository, ProductRepository productRepository, JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager, @Value("${product.changes.delete-retention-days:30}") long deleteRetentionDays) {
+        this.productChangeRepository = productChangeRepository;
+        this.productRepository = productRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.deleteRetention = Duration.ofDays(deleteRetentionDays);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedBaseline() {
+        // Runs once at startup, so simply keep other writers out until the baseline is committed
+        versionLock.lock();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (productChangeRepository.count() == 0) {
+                    int seeded = jdbcTemplate.update(BASELINE_SQL, ProductChangeType.UPSERT.name(), Timestamp.valueOf(LocalDateTime.now()));
+                    logger.info("Seeded product change log with {} products", seeded);
+                }
+            });
+        } finally {
+            versionLock.unlock();
+        }
+    }
+
+    @Override
+    public void recordUpserts(Collection<Long> productIds) {
+        record(productIds, ProductChangeType.UPSERT);
+    }
+
+    @Override
+    public void recordDeletes(Collection<Long> productIds) {
+        record(productIds, ProductChangeType.DELETE);
+    }
+
+    private void record(Collection<Long> productIds, ProductChangeType changeType) {
+        if (productIds.isEmpty())
+            return;
+        if (!TransactionSynchronizationManager.isActualTransactionActive())
+            throw new IllegalStateException("Product changes must be recorded inside the writing transaction");
+        // Versions only grow, so a transaction that already holds one covers everything it writes later
+        if (TransactionSynchronizationManager.hasResource(pendingVersionKey)) {
+            insert(productIds, changeType);
+            return;
+        }
+        long firstVersion;
+        versionLock.lock();
+        try {
+            firstVersion = insert(productIds, changeType);
+            pendingVersions.add(firstVersion);
+        } finally {
+            versionLock.unlock();
+        }
+        TransactionSynchronizationManager.bindResource(pendingVersionKey, firstVersion);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(pendingVersionKey);
+                pendingVersions.remove(firstVersion);
+            }
+        });
+    }
+
+    // Returns the first version handed out
+    private long insert(Collection<Long> productIds, ProductChangeType changeType) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Long> ids = List.copyOf(productIds);
+        long firstVersion = -1;
+        for (int from = 0; from < ids.size(); from += ID_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + ID_CHUNK_SIZE));
+            GeneratedKeyHolder keyHolder = new GeneratedKeyHolder();
+            jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT_SQL, new String[]{"change_id"}), new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    ps.setLong(1, chunk.get(i));
+                    ps.setString(2, changeType.name());
+                    ps.setTimestamp(3, now);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return chunk.size();
+                }
+            }, keyHolder);
+            if (firstVersion < 0) {
+                firstVersion = ((Number) keyHolder.getKeyList().get(0).values().iterator().next()).longValue();
+            }
+        }
+        return firstVersion;
+    }
+
+    // Newest version below every change another open transaction may still commit
+    private long safeVersion() {
+        Long ownVersion = (Long) TransactionSynchronizationManager.getResource(pendingVersionKey);
+        versionLock.lock();
+        try {
+            long latest = productChangeRepository.findLatestChangeId();
+            for (long pending : pendingVersions) {
+                if (ownVersion == null || pending != ownVersion) {
+                    return Math.min(latest, pending - 1);
+                }
+            }
+            return latest;
+        } finally {
+            versionLock.unlock();
+        }
+    }
+
+    @Override
+    public ProductChangesResponse fetchChanges(Long since, Integer limit) {
+        if (since == null || since < 0)
+            throw new APIException("Change version is invalid, it must not be negative");
+        if (limit == null || limit < 1 || limit > MAX_LIMIT)
+            throw new APIException("Change limit is invalid, it must be between 1 and " + MAX_LIMIT);
+
+        return transactionTemplate.execute(status -> {
+            long latest = productChangeRepository.findLatestChangeId();
+            // Ahead of the log means the log was reset; behind the horizon means deletes were compacted away.
+            // A client starting from 0 has nothing to delete, so it can always replay the log.
+            if (since > latest || (since > 0 && since < horizon())) {
+                return new ProductChangesResponse(since, 0L, true, false, List.of(), List.of());
+            }
+
+            List<ProductChange> changes = productChangeRepository.findChangesBetween(since, safeVersion(), PageRequest.of(0, limit + 1));
+            boolean hasMore = changes.size() > limit;
+            if (hasMore) {
+                changes = changes.subList(0, limit);
+            }
+            long version = changes.isEmpty() ? since : changes.get(changes.size() - 1).getChangeId();
+
+            // Later entries win; iteration is in version order
+            Map<Long, ProductChangeType> latestByProduct = new LinkedHashMap<>();
+            for (ProductChange change : changes) {
+                latestByProduct.remove(change.getProductId());
+                latestByProduct.put(change.getProductId(), change.getChangeType());
+            }
+            List<Long> upsertedIds = new ArrayList<>();
+            List<Long> deleted = new ArrayList<>();
+            latestByProduct.forEach((productId, changeType) -> (changeType == ProductChangeType.DELETE ? deleted : upsertedIds).add(productId));
+
+            Map<Long, ProductDTO> products = new LinkedHashMap<>();
+            upsertedIds.forEach(productId -> products.put(productId, null));
+            for (int from = 0; from < upsertedIds.size(); from += ID_CHUNK_SIZE) {
+                List<Long> chunk = upsertedIds.subList(from, Math.min(upsertedIds.size(), from + ID_CHUNK_SIZE));
+                productRepository.findProductDTOsByProductIdIn(chunk).forEach(product -> products.put(product.getProductId(), product));
+            }
+            // A product missing here was deleted by a change past this page
+            List<ProductDTO> upserted = products.values().stream().filter(product -> product != null).toList();
+            return new ProductChangesResponse(since, version, false, hasMore, upserted, deleted);
+        });
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${product.changes.compaction-interval-ms:3600000}", initialDelayString = "${product.changes.compaction-interval-ms:3600000}")
+    public int compact() {
+        int removed = transactionTemplate.execute(status -> {
+            int superseded = productChangeRepository.deleteSupersededChanges();
+            long expired = productChangeRepository.findLatestChangeIdBefore(ProductChangeType.DELETE, LocalDateTime.now().minus(deleteRetention));
+            if (expired == 0) {
+                return superseded;
+            }
+            // Raised before the markers disappear, so no reader can skip a delete it has not seen
+            horizon();
+            horizon.accumulateAndGet(expired, Math::max);
+            return superseded + productChangeRepository.deleteChangesUpTo(ProductChangeType.DELETE, expired);
+        });
+        logger.info("Compacted product change log, removed {} entries", removed);
+        return removed;
+    }
+
+    // Without a record of earlier compactions, assume anything before the oldest surviving entry may be gone
+    private long horizon() {
+        long current = horizon.get();
+        if (current < 0) {
+            horizon.compareAndSet(-1, Math.max(0, productChangeRepository.findOldestChangeId() - 1));
+            current = horizon.get();
+        }
+        return current;
+    }
+}
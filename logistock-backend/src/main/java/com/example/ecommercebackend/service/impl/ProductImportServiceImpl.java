@@ -0,0 +1,311 @@
+package com.example.ecommercebackend.service.impl;
+
+import com.example.ecommercebackend.catalog.CatalogProduct;
+import com.example.ecommercebackend.catalog.CatalogReadModel;
+import com.example.ecommercebackend.dto.ProductDTO;
+import com.example.ecommercebackend.dto.ProductImportError;
+import com.example.ecommercebackend.dto.ProductImportResponse;
+import com.example.ecommercebackend.exception.APIException;
+import com.example.ecommercebackend.exception.custom.ResourceNotFoundException;
+import com.example.ecommercebackend.repository.CategoryRepository;
+import com.example.ecommercebackend.repository.ProductRepository;
+import com.example.ecommercebackend.service.ProductChangeService;
+import com.example.ecommercebackend.service.ProductImportService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Streams CSV or NDJSON rows into the products table. Rows are validated and written in chunks: each chunk costs one
+ * name lookup and one JDBC batch insert (returning the generated ids) in its own transaction, so a bad row only
+ * rejects itself and a failed chunk never rolls back the chunks committed before it.
+ */
+@Service
+public class ProductImportServiceImpl implements ProductImportService {
+
+    static final int CHUNK_SIZE = 1000;
+    static final int MAX_REPORTED_ERRORS = 1000;
+    private static final int MAX_COLUMN_LENGTH = 255;
+    private static final String DEFAULT_IMAGE = "default.png";
+    private static final Set<String> CSV_COLUMNS = Set.of("productName", "description", "quantity", "price", "discount", "productImage");
+    private static final String INSERT_SQL = "INSERT INTO products (product_name, product_image, description, quantity, price, discount, special_price, category_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final ObjectReader ROW_READER = new ObjectMapper().readerFor(ProductDTO.class);
+
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CatalogReadModel catalogReadModel;
+    private final ProductChangeService productChangeService;
+
+    @Autowired
+    public ProductImportServiceImpl(ProductRepository productRepository, CategoryRepository categoryRepository, JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager, CatalogReadModel catalogReadModel, ProductChangeService productChangeService) {
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.catalogReadModel = catalogReadModel;
+        this.productChangeService = productChangeService;
+    }
+
+    @Override
+    public ProductImportResponse importProducts(Long categoryId, InputStream input, Format format) throws IOException {
+        if (!categoryRepository.existsById(categoryId))
+            throw new ResourceNotFoundException(String.format("Category with ID: %d not found", categoryId));
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        Report report = new Report();
+        int lineNumber = 0;
+        String[] header = null;
+        if (format == Format.CSV) {
+            String headerLine = reader.readLine();
+            if (headerLine == null)
+                return report.toResponse();
+            header = parseHeader(headerLine);
+            lineNumber++;
+        }
+
+        List<ImportRow> chunk = new ArrayList<>(CHUNK_SIZE);
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank())
+                continue;
+            report.rowsRead++;
+            try {
+                ProductDTO product = format == Format.CSV ? parseCsvRow(line, header) : ROW_READER.readValue(line);
+                if (product == null)
+                    throw new IllegalArgumentException("expected a JSON object but got null");
+                chunk.add(new ImportRow(lineNumber, product));
+            } catch (JsonProcessingException e) {
+                report.reject(lineNumber, null, "Row is invalid: " + e.getOriginalMessage());
+            } catch (IllegalArgumentException e) {
+                report.reject(lineNumber, null, "Row is invalid: " + e.getMessage());
+            }
+            if (chunk.size() == CHUNK_SIZE) {
+                importChunk(categoryId, chunk, report);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty())
+            importChunk(categoryId, chunk, report);
+        return report.toResponse();
+    }
+
+    private void importChunk(Long categoryId, List<ImportRow> chunk, Report report) {
+        Map<String, ImportRow> rowsByName = new LinkedHashMap<>();
+        for (ImportRow row : chunk) {
+            String error = validate(row.product());
+            if (error != null) {
+                report.reject(row, error);
+            } else if (rowsByName.putIfAbsent(row.product().getProductName(), row) != null) {
+                report.reject(row, "Product with name '" + row.product().getProductName() + "' appears more than once in the import");
+            }
+        }
+        if (rowsByName.isEmpty())
+            return;
+
+        List<ImportRow> duplicates = new ArrayList<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (String existing : productRepository.findExistingProductNames(rowsByName.keySet())) {
+                    duplicates.add(rowsByName.remove(existing));
+                }
+                if (rowsByName.isEmpty())
+                    return;
+                List<ProductDTO> products = rowsByName.values().stream().map(ImportRow::product).toList();
+                KeyHolder keyHolder = new GeneratedKeyHolder();
+                jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT_SQL, new String[]{"product_id"}), new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        ProductDTO product = products.get(i);
+                        ps.setString(1, product.getProductName());
+                        ps.setString(2, product.getProductImage());
+                        if (product.getDescription() != null) {
+                            ps.setString(3, product.getDescription());
+                        } else {
+                            ps.setNull(3, Types.VARCHAR);
+                        }
+                        ps.setInt(4, product.getQuantity());
+                        ps.setDouble(5, product.getPrice());
+                        ps.setDouble(6, product.getDiscount());
+                        ps.setDouble(7, product.getSpecialPrice());
+                        ps.setLong(8, categoryId);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return products.size();
+                    }
+                }, keyHolder);
+
+                List<Map<String, Object>> keys = keyHolder.getKeyList();
+                List<CatalogProduct> imported = new ArrayList<>(products.size());
+                for (int i = 0; i < products.size(); i++) {
+                    ProductDTO product = products.get(i);
+                    Long productId = ((Number) keys.get(i).values().iterator().next()).longValue();
+                    imported.add(new CatalogProduct(productId, product.getProductName(), product.getProductImage(), product.getDescription(),
+                            product.getQuantity(), product.getPrice(), product.getDiscount(), product.getSpecialPrice(), categoryId));
+                }
+                productChangeService.recordUpserts(imported.stream().map(CatalogProduct::productId).toList());
+                catalogReadModel.catalogProductsSaved(imported);
+            });
+        } catch (DataAccessException e) {
+            // The rollback discards the duplicate check as well, so every row that reached the transaction fails
+            String message = "Row could not be written: " + e.getMostSpecificCause().getMessage();
+            rowsByName.values().forEach(row -> report.reject(row, message));
+            duplicates.forEach(row -> report.reject(row, message));
+            return;
+        }
+        for (ImportRow row : duplicates) {
+            report.reject(row, "Product with name '" + row.product().getProductName() + "' already exists");
+        }
+        report.imported += rowsByName.size();
+    }
+
+    // Returns the first problem with the row, or null after normalising it for insertion
+    private static String validate(ProductDTO product) {
+        String name = product.getProductName() == null ? "" : product.getProductName().strip();
+        if (name.isEmpty())
+            return "productName is required";
+        if (name.length() > MAX_COLUMN_LENGTH)
+            return "productName must be at most " + MAX_COLUMN_LENGTH + " characters";
+        if (product.getDescription() != null && product.getDescription().length() > MAX_COLUMN_LENGTH)
+            return "description must be at most " + MAX_COLUMN_LENGTH + " characters";
+        if (product.getQuantity() == null || product.getQuantity() < 0)
+            return "quantity is required and must not be negative";
+        if (product.getPrice() == null || !Double.isFinite(product.getPrice()) || product.getPrice() < 0)
+            return "price is required and must not be negative";
+        double discount = product.getDiscount() == null ? 0.0 : product.getDiscount();
+        if (!(discount >= 0 && discount <= 100))
+            return "discount must be between 0 and 100";
+
+        product.setProductId(null);
+        product.setProductName(name);
+        if (product.getProductImage() == null || product.getProductImage().isBlank())
+            product.setProductImage(DEFAULT_IMAGE);
+        product.setDiscount(discount);
+        product.setSpecialPrice(product.getPrice() - ((discount * 0.01) * product.getPrice()));
+        return null;
+    }
+
+    private static String[] parseHeader(String line) {
+        List<String> columns = splitCsv(line);
+        for (String column : columns) {
+            if (!CSV_COLUMNS.contains(column))
+                throw new APIException("CSV header column '" + column + "' is invalid, it must be one of " + CSV_COLUMNS);
+        }
+        if (!columns.contains("productName"))
+            throw new APIException("CSV header is invalid, it must contain a productName column");
+        return columns.toArray(String[]::new);
+    }
+
+    private static ProductDTO parseCsvRow(String line, String[] header) {
+        List<String> fields = splitCsv(line);
+        if (fields.size() != header.length)
+            throw new IllegalArgumentException("expected " + header.length + " columns but found " + fields.size());
+        ProductDTO product = new ProductDTO();
+        for (int i = 0; i < header.length; i++) {
+            String value = fields.get(i);
+            if (value.isEmpty())
+                continue;
+            switch (header[i]) {
+                case "productName" -> product.setProductName(value);
+                case "description" -> product.setDescription(value);
+                case "productImage" -> product.setProductImage(value);
+                case "quantity" -> product.setQuantity(parseNumber(header[i], value, Integer::valueOf));
+                case "price" -> product.setPrice(parseNumber(header[i], value, Double::valueOf));
+                case "discount" -> product.setDiscount(parseNumber(header[i], value, Double::valueOf));
+                default -> throw new IllegalStateException("Unhandled CSV column " + header[i]);
+            }
+        }
+        return product;
+    }
+
+    private static <T> T parseNumber(String column, String value, Function<String, T> parser) {
+        try {
+            return parser.apply(value.strip());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(column + " '" + value + "' is not a number");
+        }
+    }
+
+    // RFC 4180 fields on a single line: commas inside double quotes, "" as an escaped quote
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c != '\r') {
+                field.append(c);
+            }
+        }
+        if (quoted)
+            throw new IllegalArgumentException("unterminated quoted field");
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private record ImportRow(int line, ProductDTO product) {
+    }
+
+    private static final class Report {
+        private int rowsRead;
+        private int imported;
+        private int rejected;
+        private final List<ProductImportError> errors = new ArrayList<>();
+
+        void reject(ImportRow row, String message) {
+            reject(row.line(), row.product().getProductName(), message);
+        }
+
+        void reject(int line, String productName, String message) {
+            rejected++;
+            if (errors.size() < MAX_REPORTED_ERRORS)
+                errors.add(new ProductImportError(line, productName, message));
+        }
+
+        ProductImportResponse toResponse() {
+            return new ProductImportResponse(rowsRead, imported, rejected, errors);
+        }
+    }
+}
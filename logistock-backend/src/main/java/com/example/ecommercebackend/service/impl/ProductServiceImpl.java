@@ -1,76 +1,183 @@
 package com.example.ecommercebackend.service.impl;
 
-import com.example.ecommercebackend.dto.CartDTO;
+import com.example.ecommercebackend.catalog.CatalogProduct;
+import com.example.ecommercebackend.catalog.CatalogReadModel;
+import com.example.ecommercebackend.catalog.CatalogSearch;
+import com.example.ecommercebackend.catalog.CatalogSnapshot;
+import com.example.ecommercebackend.catalog.CatalogSortKeys;
+import com.example.ecommercebackend.catalog.CoPurchaseIndex;
+import com.example.ecommercebackend.catalog.FacetIndex;
+import com.example.ecommercebackend.catalog.ProductDetailCache;
+import com.example.ecommercebackend.catalog.SearchResultCache;
+import com.example.ecommercebackend.catalog.TopSellerIndex;
+import com.example.ecommercebackend.config.AppConstants;
+import com.example.ecommercebackend.dto.CacheStatsDTO;
 import com.example.ecommercebackend.dto.ProductDTO;
+import com.example.ecommercebackend.dto.ProductDetailDTO;
+import com.example.ecommercebackend.dto.ProductDeleteResponse;
+import com.example.ecommercebackend.dto.ProductFacetResponse;
+import com.example.ecommercebackend.dto.ProductRepriceRequest;
+import com.example.ecommercebackend.dto.ProductRepriceResponse;
 import com.example.ecommercebackend.dto.ProductResponse;
+import com.example.ecommercebackend.dto.RecommendationDTO;
+import com.example.ecommercebackend.dto.SuggestionDTO;
+import com.example.ecommercebackend.dto.TopSellerDTO;
+import com.example.ecommercebackend.exception.APIException;
 import com.example.ecommercebackend.exception.custom.ResourceNotFoundException;
-import com.example.ecommercebackend.model.Cart;
 import com.example.ecommercebackend.model.Category;
 import com.example.ecommercebackend.model.Product;
+import com.example.ecommercebackend.repository.CartItemRepository;
 import com.example.ecommercebackend.repository.CartRepository;
 import com.example.ecommercebackend.repository.CategoryRepository;
 import com.example.ecommercebackend.repository.ProductRepository;
-import com.example.ecommercebackend.service.CartService;
+import com.example.ecommercebackend.repository.WishlistRepository;
+import com.example.ecommercebackend.service.CartRepricingService;
 import com.example.ecommercebackend.service.FileService;
+import com.example.ecommercebackend.service.ProductChangeService;
 import com.example.ecommercebackend.service.ProductService;
+import com.example.ecommercebackend.service.ProductStatsService;
+import com.example.ecommercebackend.util.KeysetCursor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import lombok.val;
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class ProductServiceImpl implements ProductService {
 
+    // Upper bound for id lists bound into one IN clause
+    private static final int ID_CHUNK_SIZE = 1000;
+    private static final int MULTI_GET_MAX_IDS = 5000;
+    private static final List<String> TOP_SELLER_WINDOWS = List.of("all", "24h");
+    private static final ObjectWriter EXPORT_WRITER = new ObjectMapper().writerFor(ProductDTO.class);
+
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
     private final ModelMapper modelMapper;
     private final FileService fileService;
     private final CartRepository cartRepository;
-    private final CartService cartService;
+    private final CartItemRepository cartItemRepository;
+    private final WishlistRepository wishlistRepository;
+    private final CartRepricingService cartRepricingService;
+    private final CatalogReadModel catalogReadModel;
+    private final CatalogSearch catalogSearch;
+    private final ProductDetailCache productDetailCache;
+    private final SearchResultCache searchResultCache;
+    private final ProductChangeService productChangeService;
+    private final ProductStatsService productStatsService;
     @Value("${product.image.upload.path}")
     String imageUploadPath;
 
     @Autowired
-    public ProductServiceImpl(ProductRepository productRepository, CategoryRepository categoryRepository, ModelMapper modelMapper, FileService fileService, CartRepository cartRepository, CartService cartService) {
+    public ProductServiceImpl(ProductRepository productRepository, CategoryRepository categoryRepository, ModelMapper modelMapper, FileService fileService, CartRepository cartRepository, CartItemRepository cartItemRepository, WishlistRepository wishlistRepository, CartRepricingService cartRepricingService, CatalogReadModel catalogReadModel, CatalogSearch catalogSearch, ProductDetailCache productDetailCache, SearchResultCache searchResultCache, ProductChangeService productChangeService, ProductStatsService productStatsService) {
         this.productRepository = productRepository;
         this.categoryRepository = categoryRepository;
         this.modelMapper = modelMapper;
         this.fileService = fileService;
         this.cartRepository = cartRepository;
-        this.cartService = cartService;
-    }
-
-    @Override
-    public ProductResponse fetchProducts(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder) {
-        Sort sortByAndOrder = sortOrder.equalsIgnoreCase("asc") ? Sort.by(sortBy).ascending() : Sort.by(sortBy).descending();
-        Pageable pageable = PageRequest.of(pageNumber, pageSize, sortByAndOrder);
-        Page<Product> productPage = productRepository.findAll(pageable);
-        Page<ProductDTO> productDTOPage = productPage.map(product -> modelMapper.map(product, ProductDTO.class));
-        return new ProductResponse(
-                productDTOPage.getContent(),
-                productDTOPage.getNumber(),
-                productDTOPage.getSize(),
-                productDTOPage.getTotalElements(),
-                productDTOPage.getTotalPages(),
-                productDTOPage.isLast()
-        );
+        this.cartItemRepository = cartItemRepository;
+        this.wishlistRepository = wishlistRepository;
+        this.cartRepricingService = cartRepricingService;
+        this.catalogReadModel = catalogReadModel;
+        this.catalogSearch = catalogSearch;
+        this.productDetailCache = productDetailCache;
+        this.searchResultCache = searchResultCache;
+        this.productChangeService = productChangeService;
+        this.productStatsService = productStatsService;
+    }
+
+    @Override
+    public ProductResponse fetchProducts(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder, Boolean withTotals) {
+        validateSortBy(sortBy);
+        ProductResponse response = catalogReadModel.snapshot().page(sortBy, sortOrder.equalsIgnoreCase("asc"), pageNumber, pageSize);
+        return listed(withNextCursor(withTotals ? response : withoutTotals(response), sortBy));
+    }
+
+    @Override
+    public ProductResponse fetchProductsInPriceRange(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder, Double minPrice, Double maxPrice, String after, Boolean withTotals) {
+        if (after != null)
+            throw new APIException("Cursor is invalid together with a price range, page with pageNumber instead");
+        if (minPrice != null && maxPrice != null && minPrice > maxPrice)
+            throw new APIException("Price range is invalid, minPrice must not exceed maxPrice");
+        if (!catalogReadModel.supports(sortBy))
+            throw new APIException("Sort key '" + sortBy + "' is invalid for price range listings");
+
+        ProductResponse response = catalogSearch.priceRange(minPrice, maxPrice, sortBy, sortOrder.equalsIgnoreCase("asc"), pageNumber, pageSize);
+        return listed(withTotals ? response : withoutTotals(response));
+    }
+
+    @Override
+    public ProductResponse fetchProductsByIds(List<Long> productIds) {
+        if (productIds == null || productIds.isEmpty())
+            throw new APIException("Product id list is invalid, provide at least one id");
+        List<Long> distinctIds = productIds.stream().distinct().toList();
+        if (distinctIds.size() > MULTI_GET_MAX_IDS)
+            throw new APIException("Product id list is invalid, at most " + MULTI_GET_MAX_IDS + " ids are allowed per request");
+
+        CatalogSnapshot snapshot = catalogReadModel.snapshot();
+        Map<Long, ProductDTO> found = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long productId : distinctIds) {
+            snapshot.find(productId).ifPresentOrElse(product -> found.put(productId, product.toDTO()), () -> missing.add(productId));
+        }
+        // Unknown ids, or rows committed since the snapshot was last patched
+        for (int from = 0; from < missing.size(); from += ID_CHUNK_SIZE) {
+            List<Long> chunk = missing.subList(from, Math.min(missing.size(), from + ID_CHUNK_SIZE));
+            productRepository.findProductDTOsByProductIdIn(chunk).forEach(product -> found.put(product.getProductId(), product));
+        }
+
+        List<ProductDTO> content = distinctIds.stream().map(found::get).filter(Objects::nonNull).toList();
+        return new ProductResponse(content, 0, content.size(), (long) content.size(), 1, true);
+    }
+
+    @Override
+    public ProductDetailDTO fetchProduct(Long productId) {
+        ProductDetailDTO detail = productDetailCache.get(productId, id -> productRepository.findProductDetailById(id).orElse(null));
+        if (detail == null)
+            throw new ResourceNotFoundException("Product", "productId", productId);
+        productStatsService.recordView(productId);
+        return detail;
+    }
+
+    @Override
+    public CacheStatsDTO productCacheStats() {
+        return productDetailCache.stats();
+    }
+
+    @Override
+    public CacheStatsDTO searchCacheStats() {
+        return searchResultCache.stats();
+    }
+
+    @Override
+    public ProductResponse fetchProductsAfter(Integer pageSize, String sortBy, String sortOrder, String after) {
+        return fetchKeysetPage(null, pageSize, sortBy, sortOrder, after);
     }
 
     @Override
+    @Transactional
     public ProductDTO createProduct(ProductDTO productDTO, Long categoryId) {
         val category = categoryRepository.findById(categoryId).orElseThrow(() -> new ResourceNotFoundException(String.format("Category with ID: %d not found", categoryId)));
         Optional<Product> existing = productRepository.findByProductName(productDTO.getProductName());
@@ -85,6 +192,8 @@ public class ProductServiceImpl implements ProductService {
         );
         product.setSpecialPrice(specialPrice);
         Product savedProduct = productRepository.save(product);
+        productChangeService.recordUpserts(List.of(savedProduct.getProductId()));
+        catalogReadModel.productSaved(savedProduct);
         return modelMapper.map(savedProduct, ProductDTO.class);
     }
 
@@ -100,10 +209,14 @@ public class ProductServiceImpl implements ProductService {
     }*/
 
     @Override
+    @Transactional
     public ProductDTO updateProduct(Long id, ProductDTO productDTO) {
         var product = productRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
 
+        Double previousSpecialPrice = product.getSpecialPrice();
+        Double previousDiscount = product.getDiscount();
+
         Optional.ofNullable(productDTO.getProductName())
                 .filter(name -> !name.isBlank())
                 .ifPresent(product::setProductName);
@@ -132,75 +245,247 @@ public class ProductServiceImpl implements ProductService {
         }
 
         var saved = productRepository.save(product);
+        productChangeService.recordUpserts(List.of(id));
+        catalogReadModel.productSaved(saved);
+        if (!Objects.equals(previousSpecialPrice, saved.getSpecialPrice()) || !Objects.equals(previousDiscount, saved.getDiscount())) {
+            cartRepricingService.productRepriced(id);
+        }
 
-        List<Cart> carts = cartRepository.findCartsByProductId(id);
-
-        List<CartDTO> cartDTOs = carts.stream().map(cart -> {
-            CartDTO cartDTO = modelMapper.map(cart, CartDTO.class);
-
-            List<ProductDTO> products = cart.getCartItems().stream()
-                    .map(p -> modelMapper.map(p.getProduct(), ProductDTO.class)).collect(Collectors.toList());
-
-            cartDTO.setProducts(products);
-
-            return cartDTO;
+        return modelMapper.map(saved, ProductDTO.class);
+    }
 
-        }).toList();
+    @Override
+    @Transactional
+    public ProductRepriceResponse repriceProducts(ProductRepriceRequest request) {
+        boolean byCategory = request.getCategoryId() != null;
+        boolean byIds = request.getProductIds() != null && !request.getProductIds().isEmpty();
+        boolean all = Boolean.TRUE.equals(request.getAllProducts());
+        if ((byCategory ? 1 : 0) + (byIds ? 1 : 0) + (all ? 1 : 0) != 1)
+            throw new APIException("Reprice selector is invalid, provide exactly one of categoryId, productIds or allProducts");
+        if (request.getPrice() != null && request.getPriceChangePercent() != null)
+            throw new APIException("Reprice rule is invalid, price and priceChangePercent cannot be combined");
+        if (request.getPrice() == null && request.getPriceChangePercent() == null && request.getDiscount() == null)
+            throw new APIException("Reprice rule is invalid, provide price, priceChangePercent or discount");
+        if (request.getPrice() != null && request.getPrice() < 0)
+            throw new APIException("Reprice price is invalid, it must not be negative");
+        if (request.getPriceChangePercent() != null && request.getPriceChangePercent() <= -100)
+            throw new APIException("Reprice priceChangePercent is invalid, it must be greater than -100");
+        if (request.getDiscount() != null && (request.getDiscount() < 0 || request.getDiscount() > 100))
+            throw new APIException("Reprice discount is invalid, it must be between 0 and 100");
+        if (byCategory && !categoryRepository.existsById(request.getCategoryId()))
+            throw new ResourceNotFoundException(String.format("Category with ID: %d not found", request.getCategoryId()));
+
+        double priceFactor = request.getPrice() != null ? 0 : 1 + (request.getPriceChangePercent() != null ? request.getPriceChangePercent() * 0.01 : 0);
+        double priceOffset = request.getPrice() != null ? request.getPrice() : 0;
+        double discountFactor = request.getDiscount() != null ? 0 : 1;
+        double discountOffset = request.getDiscount() != null ? request.getDiscount() : 0;
+
+        int productsUpdated;
+        List<CatalogProduct> repriced;
+        if (byCategory) {
+            productsUpdated = productRepository.repriceByCategoryId(request.getCategoryId(), priceFactor, priceOffset, discountFactor, discountOffset);
+            repriced = productRepository.findCatalogProductsByCategoryId(request.getCategoryId());
+        } else if (byIds) {
+            // Chunked like the cart updates below, so no statement binds more than ID_CHUNK_SIZE ids
+            List<Long> distinctIds = request.getProductIds().stream().distinct().toList();
+            productsUpdated = 0;
+            repriced = new ArrayList<>(distinctIds.size());
+            for (int from = 0; from < distinctIds.size(); from += ID_CHUNK_SIZE) {
+                List<Long> chunk = distinctIds.subList(from, Math.min(distinctIds.size(), from + ID_CHUNK_SIZE));
+                productsUpdated += productRepository.repriceByProductIds(chunk, priceFactor, priceOffset, discountFactor, discountOffset);
+                repriced.addAll(productRepository.findCatalogProductsByProductIdIn(chunk));
+            }
+        } else {
+            productsUpdated = productRepository.repriceAll(priceFactor, priceOffset, discountFactor, discountOffset);
+            repriced = productRepository.findAllCatalogProducts();
+        }
 
-        cartDTOs.forEach(cart -> cartService.updateProductInCarts(cart.getCartId(), id));
+        List<Long> repricedIds = repriced.stream().map(CatalogProduct::productId).toList();
+        int cartsUpdated = 0, cartItemsUpdated = 0;
+        for (int from = 0; from < repricedIds.size(); from += ID_CHUNK_SIZE) {
+            List<Long> chunk = repricedIds.subList(from, Math.min(repricedIds.size(), from + ID_CHUNK_SIZE));
+            // Totals first: they are shifted by the difference between the old line prices and the new special prices
+            cartsUpdated += cartRepository.repriceTotalsOfStaleCartsForProducts(chunk);
+            cartItemsUpdated += cartItemRepository.repriceStaleCartItemsForProducts(chunk);
+        }
 
-        return modelMapper.map(saved, ProductDTO.class);
+        productChangeService.recordUpserts(repricedIds);
+        catalogReadModel.catalogProductsSaved(repriced);
+        return new ProductRepriceResponse(productsUpdated, cartItemsUpdated, cartsUpdated);
     }
 
 
     @Override
+    @Transactional
     public void deleteProduct(Long productId) {
         if (!productRepository.existsById(productId)) {
             throw new RuntimeException("Product not found with id: " + productId);
         }
-        // DELETE
-        List<Cart> carts = cartRepository.findCartsByProductId(productId);
-        carts.forEach(cart -> cartService.deleteProductFromCart(cart.getCartId(), productId));
-        productRepository.deleteById(productId);
+        deleteProducts(List.of(productId));
+    }
+
+    @Override
+    @Transactional
+    public ProductDeleteResponse deleteProducts(List<Long> productIds) {
+        if (productIds == null || productIds.isEmpty())
+            throw new APIException("Product id list is invalid, provide at least one id");
+        List<Long> distinctIds = productIds.stream().distinct().toList();
+
+        int productsDeleted = 0, cartItemsRemoved = 0, cartsUpdated = 0, wishlistItemsRemoved = 0;
+        for (int from = 0; from < distinctIds.size(); from += ID_CHUNK_SIZE) {
+            List<Long> chunk = distinctIds.subList(from, Math.min(distinctIds.size(), from + ID_CHUNK_SIZE));
+            productChangeService.recordDeletes(productRepository.findExistingProductIds(chunk));
+            // Totals before lines: the subtraction reads the lines that are about to go
+            cartsUpdated += cartRepository.subtractProductsFromTotals(chunk);
+            cartItemsRemoved += cartItemRepository.deleteByProductIds(chunk);
+            wishlistItemsRemoved += wishlistRepository.deleteByProductIds(chunk);
+            productStatsService.removeStats(chunk);
+            productsDeleted += productRepository.deleteByProductIds(chunk);
+        }
+        catalogReadModel.productsRemoved(distinctIds);
+        return new ProductDeleteResponse(productsDeleted, cartItemsRemoved, cartsUpdated, wishlistItemsRemoved);
     }
 
 
     @Override
-    public ProductResponse fetchProductsByCategory(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder, Long categoryId) {
+    public ProductResponse fetchProductsByCategory(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder, Long categoryId, Boolean withTotals) {
+        validateSortBy(sortBy);
         Optional<Category> categoryOptional = categoryRepository.findById(categoryId);
         if (categoryOptional.isEmpty())
             throw new ResourceNotFoundException("Category does not exist!");
 
-        Sort sortByAndOrder = sortOrder.equalsIgnoreCase("asc") ? Sort.by(sortBy).ascending() : Sort.by(sortBy).descending();
-        Pageable pageable = PageRequest.of(pageNumber, pageSize, sortByAndOrder);
-        Page<Product> productsByCategoryId = productRepository.findByCategory_CategoryId(categoryId, pageable);
-        Page<ProductDTO> productDTOPageList = productsByCategoryId.map(product -> modelMapper.map(product, ProductDTO.class));
-        return new ProductResponse(
-                productDTOPageList.getContent(),
-                productDTOPageList.getNumber(),
-                productDTOPageList.getSize(),
-                productDTOPageList.getTotalElements(),
-                productDTOPageList.getTotalPages(),
-                productDTOPageList.isLast());
-    }
-
-    @Override
-    public ProductResponse searchProduct(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder, String keyword) {
-        Sort sortByAndOrder = sortOrder.equalsIgnoreCase("asc") ? Sort.by(sortBy).ascending() : Sort.by(sortBy).descending();
-        Pageable pageable = PageRequest.of(pageNumber, pageSize, sortByAndOrder);
-        Page<Product> searchedProducts = productRepository.findByProductNameContainingIgnoreCase(keyword, pageable);
-        Page<ProductDTO> productDTOList = searchedProducts.map(products -> modelMapper.map(products, ProductDTO.class));
-        return new ProductResponse(
-                productDTOList.getContent(),
-                productDTOList.getNumber(),
-                productDTOList.getSize(),
-                productDTOList.getTotalElements(),
-                productDTOList.getTotalPages(),
-                productDTOList.isLast()
-        );
+        ProductResponse response = catalogReadModel.snapshot().pageByCategory(categoryId, sortBy, sortOrder.equalsIgnoreCase("asc"), pageNumber, pageSize);
+        return listed(withNextCursor(withTotals ? response : withoutTotals(response), sortBy));
     }
 
     @Override
+    public ProductResponse fetchProductsByCategoryAfter(Integer pageSize, String sortBy, String sortOrder, Long categoryId, String after) {
+        if (!categoryRepository.existsById(categoryId))
+            throw new ResourceNotFoundException("Category does not exist!");
+
+        return fetchKeysetPage(categoryId, pageSize, sortBy, sortOrder, after);
+    }
+
+    // Seek-method page over the snapshot, like the offset listings: the cursor is binary searched in the sorted list
+    private ProductResponse fetchKeysetPage(Long categoryId, Integer pageSize, String sortBy, String sortOrder, String after) {
+        validateSortBy(sortBy);
+        if (pageSize < 1)
+            throw new APIException("Page size is invalid, it must be at least 1");
+
+        KeysetCursor cursor = after == null ? null : KeysetCursor.decode(after, sortBy);
+        String value = cursor == null ? null : cursor.value();
+        Long productId = cursor == null ? null : cursor.id();
+        boolean ascending = sortOrder.equalsIgnoreCase("asc");
+        CatalogSnapshot snapshot = catalogReadModel.snapshot();
+        ProductResponse response;
+        try {
+            response = categoryId == null
+                    ? snapshot.pageAfter(sortBy, ascending, value, productId, pageSize)
+                    : snapshot.pageByCategoryAfter(categoryId, sortBy, ascending, value, productId, pageSize);
+        } catch (IllegalArgumentException e) {
+            // A cursor value that does not parse as the sort key's type
+            throw new APIException("Cursor is invalid for sortBy '" + sortBy + "'");
+        }
+        return listed(withNextCursor(response, sortBy));
+    }
+
+    private static ProductResponse withoutTotals(ProductResponse response) {
+        response.setTotalElements(null);
+        response.setTotalPages(null);
+        return response;
+    }
+
+    // Every product on a returned page counts as one impression
+    private ProductResponse listed(ProductResponse response) {
+        productStatsService.recordListImpressions(productIds(response.getContent()));
+        return response;
+    }
+
+    private ProductResponse searched(ProductResponse response) {
+        productStatsService.recordSearchImpressions(productIds(response.getContent()));
+        return response;
+    }
+
+    private static List<Long> productIds(List<ProductDTO> products) {
+        return products.stream().map(ProductDTO::getProductId).toList();
+    }
+
+    private static ProductResponse withNextCursor(ProductResponse response, String sortBy) {
+        List<ProductDTO> content = response.getContent();
+        if (!response.getLastPage() && !content.isEmpty()) {
+            response.setNextCursor(KeysetCursor.of(content.get(content.size() - 1), sortBy, "productId").encode());
+        }
+        return response;
+    }
+
+    @Override
+    public ProductResponse searchProduct(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder, String keyword, Boolean withTotals, Boolean fuzzy) {
+        if (fuzzy) {
+            boolean byRelevance = AppConstants.RELEVANCE_SORT_BY.equals(sortBy);
+            if (!byRelevance && !catalogReadModel.supports(sortBy)) {
+                throw new APIException("Sort key '" + sortBy + "' is invalid for fuzzy search");
+            }
+            ProductResponse response = CatalogSnapshot.page(catalogSearch.fuzzy(keyword, sortBy), byRelevance || sortOrder.equalsIgnoreCase("asc"), pageNumber, pageSize);
+            return searched(withTotals ? response : withoutTotals(response));
+        }
+        if (AppConstants.RELEVANCE_SORT_BY.equals(sortBy)) {
+            // Ranking always lists the best match first, sortOrder does not apply
+            ProductResponse response = catalogSearch.ranked(keyword, pageNumber, pageSize);
+            return searched(withTotals ? response : withoutTotals(response));
+        }
+        validateSortBy(sortBy);
+        SearchResultCache.Key key = new SearchResultCache.Key(keyword, pageNumber, pageSize, sortBy, sortOrder.equalsIgnoreCase("asc"), withTotals);
+        return searched(searchResultCache.get(key, this::searchByKeyword));
+    }
+
+    private ProductResponse searchByKeyword(SearchResultCache.Key key) {
+        ProductResponse response = CatalogSnapshot.page(catalogSearch.containing(key.keyword(), key.sortBy()), key.ascending(), key.pageNumber(), key.pageSize());
+        return key.withTotals() ? response : withoutTotals(response);
+    }
+
+    @Override
+    public ProductFacetResponse filterProducts(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder, List<Long> categoryIds, List<String> priceBands, List<String> discountBands, Boolean inStock) {
+        if (!catalogReadModel.supports(sortBy))
+            throw new APIException("Sort key '" + sortBy + "' is invalid for filtered listings");
+        validateBands("Price band", priceBands, FacetIndex.PRICE_BANDS);
+        validateBands("Discount band", discountBands, FacetIndex.DISCOUNT_BANDS);
+
+        Map<String, Set<String>> selections = new HashMap<>();
+        if (categoryIds != null) {
+            selections.put(FacetIndex.CATEGORY, categoryIds.stream().map(String::valueOf).collect(Collectors.toSet()));
+        }
+        if (priceBands != null) {
+            selections.put(FacetIndex.PRICE_BAND, Set.copyOf(priceBands));
+        }
+        if (discountBands != null) {
+            selections.put(FacetIndex.DISCOUNT_BAND, Set.copyOf(discountBands));
+        }
+        if (inStock != null) {
+            selections.put(FacetIndex.IN_STOCK, Set.of(inStock.toString()));
+        }
+        FacetIndex.FacetPage page = catalogSearch.filter(selections, sortBy, sortOrder.equalsIgnoreCase("asc"), pageNumber, pageSize);
+        productStatsService.recordListImpressions(productIds(page.products().getContent()));
+        return new ProductFacetResponse(page.products(), page.facets());
+    }
+
+    // Only indexed columns may be sorted by in the database, so other keys are rejected on every path
+    private static void validateSortBy(String sortBy) {
+        if (!CatalogSortKeys.supports(sortBy))
+            throw new APIException("Sort key '" + sortBy + "' is invalid, it must be one of " + CatalogSortKeys.keys());
+    }
+
+    private static void validateBands(String label, List<String> bands, List<String> known) {
+        if (bands == null) {
+            return;
+        }
+        for (String band : bands) {
+            if (!known.contains(band))
+                throw new APIException(label + " '" + band + "' is invalid, it must be one of " + known);
+        }
+    }
+
+    @Override
+    @Transactional
     public ProductDTO updateProductImage(Long productId, MultipartFile productImage) {
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new ResourceNotFoundException(String.format("Product not found with id: ", productId)));
@@ -227,6 +512,8 @@ public class ProductServiceImpl implements ProductService {
             product.setProductImage(fileName);
 
             Product updatedProduct = productRepository.save(product);
+            productChangeService.recordUpserts(List.of(productId));
+            catalogReadModel.productSaved(updatedProduct);
             return modelMapper.map(updatedProduct, ProductDTO.class);
 
         } catch (Exception e) {
@@ -251,4 +538,46 @@ public class ProductServiceImpl implements ProductService {
         }
     }*/
 
+    @Override
+    public List<SuggestionDTO> suggest(String prefix, Integer limit) {
+        if (limit < 1)
+            throw new APIException("Suggestion limit is invalid, it must be at least 1");
+
+        return catalogSearch.suggest(prefix, limit);
+    }
+
+    @Override
+    public List<RecommendationDTO> fetchRecommendations(Long productId, Integer limit) {
+        if (limit < 1 || limit > CoPurchaseIndex.TOP_K)
+            throw new APIException("Recommendation limit is invalid, it must be between 1 and " + CoPurchaseIndex.TOP_K);
+        if (catalogReadModel.snapshot().find(productId).isEmpty())
+            throw new ResourceNotFoundException("Product", "productId", productId);
+
+        return catalogSearch.recommendations(productId, limit);
+    }
+
+    @Override
+    public List<TopSellerDTO> fetchTopSellers(Long categoryId, String window, Integer limit) {
+        if (!TOP_SELLER_WINDOWS.contains(window))
+            throw new APIException("Top seller window " + window + " is invalid, it must be one of " + TOP_SELLER_WINDOWS);
+        if (limit < 1 || limit > TopSellerIndex.TOP_N)
+            throw new APIException("Top seller limit is invalid, it must be between 1 and " + TopSellerIndex.TOP_N);
+        if (categoryId != null && !categoryRepository.existsById(categoryId))
+            throw new ResourceNotFoundException("Category does not exist!");
+
+        return catalogSearch.topSellers(categoryId, "24h".equals(window), limit);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportProducts(OutputStream outputStream) throws IOException {
+        try (Stream<ProductDTO> products = productRepository.streamProductDTOs()) {
+            Iterator<ProductDTO> iterator = products.iterator();
+            while (iterator.hasNext()) {
+                outputStream.write(EXPORT_WRITER.writeValueAsBytes(iterator.next()));
+                outputStream.write('\n');
+            }
+        }
+        outputStream.flush();
+    }
 }
@@ -0,0 +1,165 @@
+package com.example.ecommercebackend.service.impl;
+
+import com.example.ecommercebackend.dto.ProductStatsDTO;
+import com.example.ecommercebackend.exception.custom.ResourceNotFoundException;
+import com.example.ecommercebackend.model.ProductStats;
+import com.example.ecommercebackend.repository.ProductRepository;
+import com.example.ecommercebackend.repository.ProductStatsRepository;
+import com.example.ecommercebackend.service.ProductStatsService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-product view and impression counters. Requests only bump in-memory {@link LongAdder}s, which spread contended
+ * increments over per-thread cells; a scheduled flush moves the accumulated deltas into product_stats with one batched
+ * MERGE and puts them back if the write fails. Reads add the unflushed counts to the persisted totals, so they may
+ * briefly miss a delta that is being flushed, but never count one twice. Deleting a product drops its counters and
+ * its row; counts that still arrive for it afterwards are dropped by the next flush instead of merged.
+ */
+@Service
+public class ProductStatsServiceImpl implements ProductStatsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductStatsServiceImpl.class);
+
+    private static final int BATCH_SIZE = 1000;
+    private static final String MERGE_SQL = """
+            MERGE INTO product_stats t
+            USING (SELECT product_id, CAST(? AS BIGINT) views, CAST(? AS BIGINT) list_impressions, CAST(? AS BIGINT) search_impressions FROM products WHERE product_id = ?) s
+            ON t.product_id = s.product_id
+            WHEN MATCHED THEN UPDATE SET views = t.views + s.views, list_impressions = t.list_impressions + s.list_impressions, search_impressions = t.search_impressions + s.search_impressions
+            WHEN NOT MATCHED THEN INSERT (product_id, views, list_impressions, search_impressions) VALUES (s.product_id, s.views, s.list_impressions, s.search_impressions)
+            """;
+
+    private final ProductStatsRepository productStatsRepository;
+    private final ProductRepository productRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<Long, Counters> counters = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ProductStatsServiceImpl(ProductStatsRepository productStatsRepository, ProductRepository productRepository, JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.productStatsRepository = productStatsRepository;
+        this.productRepository = productRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void recordView(Long productId) {
+        counters(productId).views.increment();
+    }
+
+    @Override
+    public void recordListImpressions(Collection<Long> productIds) {
+        productIds.forEach(productId -> counters(productId).listImpressions.increment());
+    }
+
+    @Override
+    public void recordSearchImpressions(Collection<Long> productIds) {
+        productIds.forEach(productId -> counters(productId).searchImpressions.increment());
+    }
+
+    @Override
+    public ProductStatsDTO fetchStats(Long productId) {
+        if (!productRepository.existsById(productId))
+            throw new ResourceNotFoundException("Product", "productId", productId);
+        ProductStats persisted = productStatsRepository.findById(productId).orElseGet(() -> new ProductStats(productId, 0L, 0L, 0L));
+        Counters pending = counters.get(productId);
+        if (pending == null) {
+            return new ProductStatsDTO(productId, persisted.getViews(), persisted.getListImpressions(), persisted.getSearchImpressions());
+        }
+        return new ProductStatsDTO(productId,
+                persisted.getViews() + pending.views.sum(),
+                persisted.getListImpressions() + pending.listImpressions.sum(),
+                persisted.getSearchImpressions() + pending.searchImpressions.sum());
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${product.stats.flush-interval-ms:10000}")
+    public int flush() {
+        List<long[]> deltas = new ArrayList<>();
+        counters.forEach((productId, counter) -> {
+            long views = counter.views.sumThenReset();
+            long listImpressions = counter.listImpressions.sumThenReset();
+            long searchImpressions = counter.searchImpressions.sumThenReset();
+            if (views != 0 || listImpressions != 0 || searchImpressions != 0) {
+                deltas.add(new long[]{productId, views, listImpressions, searchImpressions});
+            }
+        });
+        if (deltas.isEmpty())
+            return 0;
+
+        int[][] merged;
+        try {
+            merged = transactionTemplate.execute(status -> jdbcTemplate.batchUpdate(MERGE_SQL, deltas, BATCH_SIZE, (ps, delta) -> {
+                ps.setLong(1, delta[1]);
+                ps.setLong(2, delta[2]);
+                ps.setLong(3, delta[3]);
+                ps.setLong(4, delta[0]);
+            }));
+        } catch (DataAccessException e) {
+            logger.warn("Could not flush stats of {} products, retrying on the next flush", deltas.size(), e);
+            for (long[] delta : deltas) {
+                Counters counter = counters(delta[0]);
+                counter.views.add(delta[1]);
+                counter.listImpressions.add(delta[2]);
+                counter.searchImpressions.add(delta[3]);
+            }
+            return 0;
+        }
+
+        // The MERGE only matches existing products, so nothing merged means the product was deleted
+        int mergedCount = 0;
+        int index = 0;
+        for (int[] batch : merged) {
+            for (int rows : batch) {
+                long productId = deltas.get(index++)[0];
+                if (rows == 0) {
+                    counters.remove(productId);
+                } else {
+                    mergedCount++;
+                }
+            }
+        }
+        return mergedCount;
+    }
+
+    @Override
+    public void removeStats(Collection<Long> productIds) {
+        productIds.forEach(counters::remove);
+        productStatsRepository.deleteByProductIds(productIds);
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    // Entries are kept while the product exists, so an increment can only land on a dropped counter once the product
+    // is gone, when losing it is intended
+    private Counters counters(Long productId) {
+        Counters counter = counters.get(productId);
+        return counter != null ? counter : counters.computeIfAbsent(productId, id -> new Counters());
+    }
+
+    private static final class Counters {
+        final LongAdder views = new LongAdder();
+        final LongAdder listImpressions = new LongAdder();
+        final LongAdder searchImpressions = new LongAdder();
+    }
+}
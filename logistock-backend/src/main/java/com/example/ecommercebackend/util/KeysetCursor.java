@@ -0,0 +1,45 @@
+package com.example.ecommercebackend.util;
+
+import com.example.ecommercebackend.exception.APIException;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset pagination token: the sort key of the last row returned plus its id as a tie-breaker.
+ */
+public record KeysetCursor(String sortBy, String value, Long id) {
+
+    private static final char SEPARATOR = '\u0000';
+    private static final String NULL_MARKER = "n";
+    private static final String VALUE_MARKER = "v";
+
+    public static KeysetCursor of(Object lastRow, String sortBy, String idProperty) {
+        BeanWrapper row = PropertyAccessorFactory.forBeanPropertyAccess(lastRow);
+        Object value = row.getPropertyValue(sortBy);
+        return new KeysetCursor(sortBy, value != null ? value.toString() : null, (Long) row.getPropertyValue(idProperty));
+    }
+
+    public String encode() {
+        String raw = sortBy + SEPARATOR + id + SEPARATOR + (value == null ? NULL_MARKER : VALUE_MARKER + value);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetCursor decode(String token, String expectedSortBy) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(String.valueOf(SEPARATOR), 3);
+            if (parts.length == 3 && parts[0].equals(expectedSortBy)) {
+                String value = parts[2].startsWith(VALUE_MARKER) ? parts[2].substring(1) : null;
+                if (value != null || parts[2].equals(NULL_MARKER)) {
+                    return new KeysetCursor(parts[0], value, Long.valueOf(parts[1]));
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            // fall through to the error below
+        }
+        throw new APIException("Cursor is invalid for sortBy '" + expectedSortBy + "'");
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.ecommercebackend.catalog;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Latency benchmark for {@link Bm25Index} over a synthetic catalog. Not picked up by the test run; start it by hand,
+ * e.g. {@code java -Xmx3g -cp target/classes:target/test-classes com.example.ecommercebackend.catalog.Bm25IndexBenchmark 1000000}.
+ * <p>
+ * At 1M products on one vCPU (Intel Xeon, 5 GB RAM, JDK 21, serial GC, -Xmx3g) three runs gave p50 0.26-0.27 ms,
+ * p99 5.8-6.3 ms and max 10-23 ms, with indexing taking about 19 s. The tail is queries pairing two of the most
+ * common terms, found in roughly half the catalog each, whose scores are too close for the block bounds to skip much.
+ */
+public class Bm25IndexBenchmark {
+
+    private static final int VOCABULARY = 50_000;
+    private static final int QUERIES = 20_000;
+
+    public static void main(String[] args) {
+        int productCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Random random = new Random(42);
+
+        List<CatalogProduct> products = new ArrayList<>(productCount);
+        for (long id = 1; id <= productCount; id++) {
+            products.add(new CatalogProduct(id, words(random, 3), "default.png", words(random, 12),
+                    10, 100.0, 0.0, 100.0, 1L));
+        }
+        Bm25Index index = new Bm25Index();
+        long start = System.nanoTime();
+        index.onLoad(products);
+        System.out.printf("Indexed %d products in %d ms%n", productCount, (System.nanoTime() - start) / 1_000_000);
+
+        String[] queries = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            queries[i] = words(random, 2);
+        }
+        for (String query : queries) {
+            index.search(query, 10);
+        }
+
+        long[] latencies = new long[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            long queryStart = System.nanoTime();
+            index.search(queries[i], 10);
+            latencies[i] = System.nanoTime() - queryStart;
+        }
+        Arrays.sort(latencies);
+        System.out.printf("p50 %.3f ms, p99 %.3f ms, max %.3f ms%n",
+                latencies[QUERIES / 2] / 1e6, latencies[QUERIES * 99 / 100] / 1e6, latencies[QUERIES - 1] / 1e6);
+    }
+
+    // Zipf-like draw so a few terms are common and most are rare, as in real product text
+    private static String words(Random random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            int rank = (int) Math.pow(VOCABULARY, random.nextDouble());
+            text.append(i == 0 ? "" : " ").append("term").append(rank);
+        }
+        return text.toString();
+    }
+}
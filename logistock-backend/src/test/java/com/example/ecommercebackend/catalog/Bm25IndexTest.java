@@ -0,0 +1,160 @@
+package com.example.ecommercebackend.catalog;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class Bm25IndexTest {
+
+    private Bm25Index bm25Index;
+
+    @BeforeEach
+    void setUp() {
+        bm25Index = new Bm25Index();
+        bm25Index.onLoad(List.of(
+                product(1L, "Wireless Headphones", "Noise cancelling over-ear headphones"),
+                product(2L, "Phone Case", "Slim case for wireless charging"),
+                product(3L, "Washing Machine", "Front loader with quick wash"),
+                product(4L, "Headphone Stand", "Aluminium stand")
+        ));
+    }
+
+    @Test
+    void testSearch_RanksNameAndRepeatedTermsFirst() {
+        Bm25Index.RankedHits ranked = bm25Index.search("wireless headphones", 10);
+
+        assertEquals(2, ranked.totalMatches());
+        assertFalse(ranked.estimated());
+        assertEquals(List.of(1L, 2L), ids(ranked));
+        assertTrue(ranked.hits().get(0).score() > ranked.hits().get(1).score());
+    }
+
+    @Test
+    void testSearch_LimitKeepsBestHits() {
+        Bm25Index.RankedHits ranked = bm25Index.search("wireless headphones stand wash", 2);
+
+        assertEquals(4, ranked.totalMatches());
+        assertEquals(2, ranked.hits().size());
+        assertEquals(1L, ranked.hits().get(0).productId());
+    }
+
+    @Test
+    void testSearch_PrunedCommonTermEstimatedAndRefinesCandidates() {
+        List<CatalogProduct> products = new ArrayList<>();
+        for (long id = 1; id <= 40; id++) {
+            products.add(product(id, id <= 3 ? "Usb Hub" : "Charger", id % 2 == 0 ? "Braided cable" : "Cable"));
+        }
+        products.add(product(41L, "Usb Stick", null));
+        bm25Index.onLoad(products);
+
+        Bm25Index.RankedHits ranked = bm25Index.search("usb cable", 2);
+
+        assertTrue(ranked.estimated());
+        assertTrue(Math.abs(41 - ranked.totalMatches()) <= 1, "estimated " + ranked.totalMatches());
+        assertEquals(List.of(41L, 1L), ids(ranked));
+    }
+
+    @Test
+    void testSearch_MatchesExhaustiveRanking() {
+        Random random = new Random(5);
+        List<CatalogProduct> products = new ArrayList<>();
+        for (long id = 1; id <= 2000; id++) {
+            products.add(product(id, words(random, 3), words(random, 8)));
+        }
+        bm25Index.onLoad(products);
+
+        for (int q = 0; q < 200; q++) {
+            String query = words(random, 1 + random.nextInt(3));
+            List<Bm25Index.Hit> all = bm25Index.search(query, products.size()).hits();
+            int limit = 1 + random.nextInt(20);
+            assertEquals(all.subList(0, Math.min(limit, all.size())), bm25Index.search(query, limit).hits(), query);
+        }
+    }
+
+    @Test
+    void testSearch_MatchesExhaustiveRankingAfterChanges() {
+        Random random = new Random(7);
+        List<CatalogProduct> products = new ArrayList<>();
+        for (long id = 1; id <= 2000; id++) {
+            products.add(product(id, words(random, 3), words(random, 8)));
+        }
+        bm25Index.onLoad(products);
+        for (CatalogProduct product : products) {
+            if (product.productId() % 3 == 0) {
+                bm25Index.onRemoved(product);
+            } else if (product.productId() % 3 == 1) {
+                bm25Index.onSaved(product, product(product.productId(), words(random, 3), words(random, 8)));
+            }
+        }
+        for (long id = 2001; id <= 2300; id++) {
+            bm25Index.onSaved(null, product(id, words(random, 3), words(random, 8)));
+        }
+
+        for (int q = 0; q < 200; q++) {
+            String query = words(random, 1 + random.nextInt(3));
+            List<Bm25Index.Hit> all = bm25Index.search(query, products.size()).hits();
+            int limit = 1 + random.nextInt(20);
+            assertEquals(all.subList(0, Math.min(limit, all.size())), bm25Index.search(query, limit).hits(), query);
+        }
+    }
+
+    @Test
+    void testRemovedOrdinalsAreReused() {
+        for (long id = 10; id < 20; id++) {
+            bm25Index.onSaved(null, product(id, "Cable " + id, null));
+        }
+        for (long id = 10; id < 20; id++) {
+            bm25Index.onRemoved(product(id, "Cable " + id, null));
+            bm25Index.onSaved(null, product(id + 100, "Cable " + id, null));
+        }
+
+        assertEquals(10, bm25Index.search("cable", 20).totalMatches());
+        assertEquals(List.of(119L), ids(bm25Index.search("19", 5)));
+        assertEquals(14, bm25Index.ordinalCapacity());
+    }
+
+    @Test
+    void testSearch_NoMatchingTerms() {
+        assertEquals(0, bm25Index.search("laptop", 10).totalMatches());
+        assertEquals(0, bm25Index.search("  --  ", 10).totalMatches());
+    }
+
+    @Test
+    void testOnSaved_ReindexesChangedText() {
+        bm25Index.onSaved(product(4L, "Headphone Stand", "Aluminium stand"), product(4L, "Laptop Stand", "Aluminium stand"));
+        bm25Index.onSaved(null, product(5L, "Gaming Laptop", null));
+
+        assertEquals(List.of(4L, 5L), ids(bm25Index.search("laptop", 10)).stream().sorted().toList());
+        assertEquals(0, bm25Index.search("headphone", 10).totalMatches());
+    }
+
+    @Test
+    void testOnRemoved() {
+        bm25Index.onRemoved(product(2L, "Phone Case", "Slim case for wireless charging"));
+
+        assertEquals(List.of(1L), ids(bm25Index.search("wireless", 10)));
+        assertEquals(0, bm25Index.search("case", 10).totalMatches());
+    }
+
+    // Few common and many rare terms, as in product text
+    private static String words(Random random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            text.append(i == 0 ? "" : " ").append("term").append((int) Math.pow(300, random.nextDouble()));
+        }
+        return text.toString();
+    }
+
+    private static List<Long> ids(Bm25Index.RankedHits ranked) {
+        return ranked.hits().stream().map(Bm25Index.Hit::productId).toList();
+    }
+
+    private static CatalogProduct product(Long id, String name, String description) {
+        return new CatalogProduct(id, name, "default.png", description, 10, 100.0, 0.0, 100.0, 1L);
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.ecommercebackend.catalog;
+
+import com.example.ecommercebackend.model.Category;
+import com.example.ecommercebackend.model.Product;
+import com.example.ecommercebackend.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CatalogReadModelTest {
+
+    private CatalogReadModel catalogReadModel;
+
+    @BeforeEach
+    void setUp() {
+        ProductRepository productRepository = mock(ProductRepository.class);
+        when(productRepository.findAllCatalogProducts()).thenReturn(List.of(
+                new CatalogProduct(1L, "Phone", "default.png", null, 10, 100.0, 0.0, 100.0, 1L)));
+        catalogReadModel = new CatalogReadModel(productRepository, List.of());
+        catalogReadModel.load();
+    }
+
+    @Test
+    void testEtag_StableWithoutWrites() {
+        assertEquals(catalogReadModel.etag(), catalogReadModel.etag());
+        assertTrue(catalogReadModel.etag().startsWith("W/\""));
+    }
+
+    @Test
+    void testEtag_ChangesOnEveryCatalogWrite() {
+        String initial = catalogReadModel.etag();
+
+        Product product = new Product();
+        product.setProductId(1L);
+        product.setProductName("Phone");
+        product.setQuantity(9);
+        catalogReadModel.productSaved(product);
+        String afterProductWrite = catalogReadModel.etag();
+
+        catalogReadModel.categorySaved(new Category(1L, "Phones"));
+        String afterCategoryWrite = catalogReadModel.etag();
+
+        catalogReadModel.productRemoved(1L);
+
+        assertNotEquals(initial, afterProductWrite);
+        assertNotEquals(afterProductWrite, afterCategoryWrite);
+        assertNotEquals(afterCategoryWrite, catalogReadModel.etag());
+        assertTrue(catalogReadModel.snapshot().find(1L).isEmpty());
+    }
+
+    @Test
+    void testCachesAreNotifiedAfterIndexes() {
+        List<String> calls = new ArrayList<>();
+        CatalogListener index = mock(CatalogListener.class);
+        doAnswer(invocation -> calls.add("index")).when(index).onChanged(anyList());
+        CatalogReadModel readModel = new CatalogReadModel(mock(ProductRepository.class), List.of(new RecordingCache(calls), index));
+        readModel.load();
+        calls.clear();
+
+        readModel.catalogProductsSaved(List.of(product(1L, 90.0)));
+
+        assertEquals(List.of("index", "cache"), calls);
+    }
+
+    @Test
+    void testCatalogProductsSaved_PublishesOneSnapshotAndOneBatch() {
+        List<List<CatalogListener.Change>> batches = new ArrayList<>();
+        CatalogListener listener = mock(CatalogListener.class);
+        doAnswer(invocation -> batches.add(invocation.getArgument(0))).when(listener).onChanged(anyList());
+        ProductRepository productRepository = mock(ProductRepository.class);
+        when(productRepository.findAllCatalogProducts()).thenReturn(List.of(product(1L, 100.0)));
+        CatalogReadModel readModel = new CatalogReadModel(productRepository, List.of(listener));
+        readModel.load();
+
+        readModel.catalogProductsSaved(List.of(product(1L, 90.0), product(2L, 50.0), product(1L, 80.0)));
+
+        assertEquals(List.of(List.of(
+                new CatalogListener.Change(product(1L, 100.0), product(1L, 90.0)),
+                new CatalogListener.Change(null, product(2L, 50.0)),
+                new CatalogListener.Change(product(1L, 90.0), product(1L, 80.0)))), batches);
+        assertEquals(List.of(2L, 1L), readModel.snapshot().sorted("price").stream().map(CatalogProduct::productId).toList());
+        verify(listener, never()).onSaved(any(), any());
+    }
+
+    @Test
+    void testEtag_OrderPlacedChangesTag() {
+        String initial = catalogReadModel.etag();
+        catalogReadModel.orderPlaced(1L, Map.of(1L, 1));
+        assertNotEquals(initial, catalogReadModel.etag());
+    }
+
+    private static CatalogProduct product(Long productId, Double price) {
+        return new CatalogProduct(productId, "Product " + productId, "default.png", null, 10, price, 0.0, price, 1L);
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    private record RecordingCache(List<String> calls) implements CatalogListener {
+
+        @Override
+        public void onLoad(Collection<CatalogProduct> products) {
+        }
+
+        @Override
+        public void onSaved(CatalogProduct previous, CatalogProduct current) {
+            calls.add("cache");
+        }
+
+        @Override
+        public void onRemoved(CatalogProduct previous) {
+        }
+    }
+}
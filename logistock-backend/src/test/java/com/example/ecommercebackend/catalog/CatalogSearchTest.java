@@ -0,0 +1,75 @@
+package com.example.ecommercebackend.catalog;
+
+import com.example.ecommercebackend.dto.ProductDTO;
+import com.example.ecommercebackend.dto.ProductResponse;
+import com.example.ecommercebackend.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CatalogSearchTest {
+
+    private final Bm25Index bm25Index = new Bm25Index();
+    private CatalogSearch catalogSearch;
+
+    @BeforeEach
+    void setUp() {
+        List<CatalogProduct> products = new ArrayList<>();
+        for (long id = 1; id <= 40; id++) {
+            products.add(product(id, id <= 3 ? "Usb Hub" : "Charger", id % 2 == 0 ? "Braided cable" : "Cable"));
+        }
+        products.add(product(41L, "Usb Stick", null));
+        products.add(product(42L, "Lamp", "Desk lamp"));
+        ProductRepository productRepository = mock(ProductRepository.class);
+        when(productRepository.findAllCatalogProducts()).thenReturn(products);
+        CatalogReadModel catalogReadModel = new CatalogReadModel(productRepository, List.of(bm25Index));
+        catalogReadModel.load();
+        catalogSearch = new CatalogSearch(catalogReadModel, mock(TrigramIndex.class), bm25Index, mock(FuzzyIndex.class),
+                mock(SuggestionIndex.class), mock(FacetIndex.class), mock(PriceIndex.class), mock(CoPurchaseIndex.class),
+                mock(TopSellerIndex.class));
+    }
+
+    @Test
+    void testRanked_PrunedQueryPagesToItsEnd() {
+        assertTrue(bm25Index.search("usb cable", 2).estimated());
+        List<Long> expected = bm25Index.search("usb cable", 100).hits().stream().map(Bm25Index.Hit::productId).toList();
+
+        List<Long> visited = new ArrayList<>();
+        ProductResponse page;
+        int pageNumber = 0;
+        do {
+            page = catalogSearch.ranked("usb cable", pageNumber++, 2);
+            page.getContent().forEach(product -> visited.add(product.getProductId()));
+            if (!page.getLastPage()) {
+                assertEquals(2, page.getContent().size());
+            }
+        } while (!page.getLastPage());
+
+        assertEquals(41, expected.size());
+        assertEquals(expected, visited);
+        assertTrue(catalogSearch.ranked("usb cable", pageNumber, 2).getContent().isEmpty());
+    }
+
+    @Test
+    void testRanked_TotalsOnlyWhenExact() {
+        ProductResponse pruned = catalogSearch.ranked("usb cable", 0, 2);
+        assertNull(pruned.getTotalElements());
+        assertNull(pruned.getTotalPages());
+        assertFalse(pruned.getLastPage());
+
+        ProductResponse exact = catalogSearch.ranked("lamp", 0, 2);
+        assertEquals(1L, exact.getTotalElements());
+        assertEquals(1, exact.getTotalPages());
+        assertTrue(exact.getLastPage());
+        assertEquals(List.of(42L), exact.getContent().stream().map(ProductDTO::getProductId).toList());
+    }
+
+    private static CatalogProduct product(Long productId, String name, String description) {
+        return new CatalogProduct(productId, name, "default.png", description, 1, 10.0, 0.0, 10.0, 1L);
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.ecommercebackend.catalog;
+
+import com.example.ecommercebackend.dto.ProductDTO;
+import com.example.ecommercebackend.dto.ProductResponse;
+import com.example.ecommercebackend.util.KeysetCursor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogSnapshotTest {
+
+    private CatalogSnapshot snapshot;
+
+    @BeforeEach
+    void setUp() {
+        snapshot = CatalogSnapshot.of(List.of(
+                product(1L, "Smartphone", 15000.0, 1L),
+                product(2L, "T-Shirt", 500.0, 2L),
+                product(3L, "Tablet", 10000.0, 1L),
+                product(4L, "Hoodie", 800.0, 2L),
+                product(5L, "Camera", 35000.0, 1L)
+        ));
+    }
+
+    @Test
+    void testPage_SortedAscendingAndDescending() {
+        ProductResponse ascending = snapshot.page("price", true, 0, 2);
+        assertEquals(List.of("T-Shirt", "Hoodie"), names(ascending));
+        assertEquals(5L, ascending.getTotalElements());
+        assertEquals(3, ascending.getTotalPages());
+        assertFalse(ascending.getLastPage());
+
+        ProductResponse descending = snapshot.page("price", false, 2, 2);
+        assertEquals(List.of("T-Shirt"), names(descending));
+        assertTrue(descending.getLastPage());
+    }
+
+    @Test
+    void testPageByCategory() {
+        ProductResponse response = snapshot.pageByCategory(1L, "productName", true, 0, 10);
+
+        assertEquals(List.of("Camera", "Smartphone", "Tablet"), names(response));
+        assertEquals(0, snapshot.pageByCategory(99L, "productName", true, 0, 10).getContent().size());
+    }
+
+    @Test
+    void testWithProduct_ReplacesAndMovesCategory() {
+        CatalogSnapshot patched = snapshot.withProduct(product(3L, "Tablet", 100.0, 2L));
+
+        assertEquals(List.of("Tablet", "T-Shirt", "Hoodie"), names(patched.page("price", true, 0, 3)));
+        assertEquals(List.of("Camera", "Smartphone"), names(patched.pageByCategory(1L, "productName", true, 0, 10)));
+        assertEquals(List.of("Hoodie", "T-Shirt", "Tablet"), names(patched.pageByCategory(2L, "productName", true, 0, 10)));
+        // The original snapshot is untouched
+        assertEquals(10000.0, snapshot.find(3L).orElseThrow().price());
+    }
+
+    @Test
+    void testWithoutProduct() {
+        CatalogSnapshot patched = snapshot.withoutProduct(5L);
+
+        assertEquals(4, patched.size());
+        assertTrue(patched.find(5L).isEmpty());
+        assertEquals(List.of("Smartphone", "Tablet"), names(patched.pageByCategory(1L, "productId", true, 0, 10)));
+        assertSame(patched, patched.withoutProduct(42L));
+    }
+
+    @Test
+    void testWithChanges_MatchesRebuiltSnapshot() {
+        List<CatalogProduct> saved = List.of(
+                product(6L, "Drone", 20000.0, 3L),
+                product(2L, "T-Shirt", 450.0, 1L),
+                product(7L, "Backpack", 800.0, 2L),
+                product(6L, "Drone", 18000.0, 3L));
+        CatalogSnapshot patched = snapshot.withChanges(saved, List.of(4L, 7L, 42L));
+
+        CatalogSnapshot rebuilt = CatalogSnapshot.of(List.of(
+                product(1L, "Smartphone", 15000.0, 1L),
+                product(2L, "T-Shirt", 450.0, 1L),
+                product(3L, "Tablet", 10000.0, 1L),
+                product(5L, "Camera", 35000.0, 1L),
+                product(6L, "Drone", 18000.0, 3L)));
+        for (String sortBy : CatalogSortKeys.keys()) {
+            assertEquals(rebuilt.sorted(sortBy), patched.sorted(sortBy), sortBy);
+            for (long categoryId = 1; categoryId <= 3; categoryId++) {
+                assertEquals(names(rebuilt.pageByCategory(categoryId, sortBy, true, 0, 10)),
+                        names(patched.pageByCategory(categoryId, sortBy, true, 0, 10)), sortBy + " in " + categoryId);
+            }
+        }
+        assertEquals(5, patched.size());
+        assertSame(snapshot, snapshot.withChanges(List.of(), List.of(42L)));
+    }
+
+    @Test
+    void testPageAfter_VisitsEveryProductOnceInOrder() {
+        CatalogSnapshot withNulls = snapshot.withProduct(new CatalogProduct(6L, "Lamp", "default.png", null, 10, 800.0, null, 800.0, 1L));
+        for (boolean ascending : new boolean[]{true, false}) {
+            for (String sortBy : CatalogSortKeys.keys()) {
+                List<Long> expected = ids(withNulls.page(sortBy, ascending, 0, 10));
+                List<Long> inCategory = ids(withNulls.pageByCategory(1L, sortBy, ascending, 0, 10));
+
+                assertEquals(expected, visitAll(cursor -> withNulls.pageAfter(sortBy, ascending, cursor.value(), cursor.id(), 2), sortBy));
+                assertEquals(inCategory, visitAll(cursor -> withNulls.pageByCategoryAfter(1L, sortBy, ascending, cursor.value(), cursor.id(), 2), sortBy));
+            }
+        }
+    }
+
+    @Test
+    void testPageAfter_ResumesAfterRemovedCursorProduct() {
+        ProductResponse first = snapshot.pageAfter("price", true, null, null, 2);
+        CatalogSnapshot patched = snapshot.withoutProduct(4L);
+
+        ProductResponse next = patched.pageAfter("price", true, "800.0", 4L, 2);
+
+        assertEquals(List.of("T-Shirt", "Hoodie"), names(first));
+        assertEquals(List.of("Tablet", "Smartphone"), names(next));
+        assertFalse(next.getLastPage());
+        assertNull(next.getTotalElements());
+        assertThrows(IllegalArgumentException.class, () -> snapshot.pageAfter("price", true, "cheap", 4L, 2));
+    }
+
+    @Test
+    void testPage_InvalidPageSize() {
+        assertThrows(IllegalArgumentException.class, () -> snapshot.page("price", true, 0, 0));
+    }
+
+    // Pages from the start until the last page, resuming each time after the last product returned
+    private static List<Long> visitAll(Function<KeysetCursor, ProductResponse> pageAfter, String sortBy) {
+        List<Long> visited = new ArrayList<>();
+        KeysetCursor cursor = new KeysetCursor(sortBy, null, null);
+        ProductResponse page;
+        do {
+            page = pageAfter.apply(cursor);
+            visited.addAll(ids(page));
+            if (!page.getContent().isEmpty()) {
+                cursor = KeysetCursor.decode(KeysetCursor.of(page.getContent().get(page.getContent().size() - 1), sortBy, "productId").encode(), sortBy);
+            }
+        } while (!page.getLastPage());
+        return visited;
+    }
+
+    private static List<Long> ids(ProductResponse response) {
+        return response.getContent().stream().map(ProductDTO::getProductId).toList();
+    }
+
+    private static List<String> names(ProductResponse response) {
+        return response.getContent().stream().map(ProductDTO::getProductName).toList();
+    }
+
+    private static CatalogProduct product(Long id, String name, Double price, Long categoryId) {
+        return new CatalogProduct(id, name, "default.png", name + " description", 10, price, 0.0, price, categoryId);
+    }
+}
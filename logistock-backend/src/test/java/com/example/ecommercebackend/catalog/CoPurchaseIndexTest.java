@@ -0,0 +1,118 @@
+package com.example.ecommercebackend.catalog;
+
+import com.example.ecommercebackend.repository.OrderItemRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CoPurchaseIndexTest {
+
+    private OrderItemRepository orderItemRepository;
+    private CoPurchaseIndex coPurchaseIndex;
+    private final List<Runnable> rebuilds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        orderItemRepository = mock(OrderItemRepository.class);
+        coPurchaseIndex = new CoPurchaseIndex(orderItemRepository, rebuilds::add);
+    }
+
+    @Test
+    void testRecommendations_RankByOrdersTogether() {
+        coPurchaseIndex.onOrderPlaced(1L, basket(1L, 2L, 3L));
+        coPurchaseIndex.onOrderPlaced(2L, basket(1L, 3L));
+        coPurchaseIndex.onOrderPlaced(3L, basket(1L, 3L, 4L));
+        coPurchaseIndex.onOrderPlaced(4L, basket(2L));
+
+        assertEquals(List.of(new CoPurchaseIndex.Recommendation(3L, 3), new CoPurchaseIndex.Recommendation(2L, 1),
+                new CoPurchaseIndex.Recommendation(4L, 1)), coPurchaseIndex.recommendations(1L, 10));
+        assertEquals(List.of(new CoPurchaseIndex.Recommendation(1L, 3)), coPurchaseIndex.recommendations(3L, 1));
+        assertEquals(List.of(), coPurchaseIndex.recommendations(99L, 10));
+    }
+
+    @Test
+    void testRebuild_MatchesIncrementalUpdates() {
+        Random random = new Random(7);
+        List<OrderLine> lines = new ArrayList<>();
+        for (long orderId = 1; orderId <= 2000; orderId++) {
+            Map<Long, Integer> basket = new LinkedHashMap<>();
+            int items = 1 + random.nextInt(5);
+            for (int i = 0; i < items; i++) {
+                // Skewed so some products collect more partners than fit in the top list
+                basket.put(1 + (long) Math.min(random.nextInt(60), random.nextInt(60)), 1);
+            }
+            coPurchaseIndex.onOrderPlaced(orderId, basket);
+            for (Long productId : basket.keySet()) {
+                lines.add(new OrderLine(orderId, productId));
+            }
+        }
+        when(orderItemRepository.findAllOrderLines()).thenReturn(lines);
+
+        Map<Long, List<CoPurchaseIndex.Recommendation>> incremental = new LinkedHashMap<>();
+        for (long productId = 1; productId <= 60; productId++) {
+            incremental.put(productId, coPurchaseIndex.recommendations(productId, CoPurchaseIndex.TOP_K));
+        }
+        coPurchaseIndex.rebuild();
+
+        incremental.forEach((productId, expected) -> assertEquals(expected, coPurchaseIndex.recommendations(productId, CoPurchaseIndex.TOP_K), "product " + productId));
+        assertEquals(CoPurchaseIndex.TOP_K, coPurchaseIndex.recommendations(1L, CoPurchaseIndex.TOP_K).size());
+    }
+
+    @Test
+    void testRemovedProductLeavesEveryRow() {
+        coPurchaseIndex.onOrderPlaced(1L, basket(1L, 2L, 3L));
+        coPurchaseIndex.onOrderPlaced(2L, basket(1L, 2L));
+
+        coPurchaseIndex.onRemoved(new CatalogProduct(2L, "Phone", null, null, 1, 1.0, 0.0, 1.0, 1L));
+
+        assertEquals(List.of(new CoPurchaseIndex.Recommendation(3L, 1)), coPurchaseIndex.recommendations(1L, 10));
+        assertEquals(List.of(), coPurchaseIndex.recommendations(2L, 10));
+    }
+
+    @Test
+    void testRebuild_ReplaysOrdersItDidNotRead() {
+        when(orderItemRepository.findAllOrderLines()).thenAnswer(invocation -> {
+            // Order 1 committed before the read, order 2 after it; both arrive while the rebuild runs
+            coPurchaseIndex.onOrderPlaced(1L, basket(1L, 2L));
+            coPurchaseIndex.onOrderPlaced(2L, basket(1L, 2L));
+            return List.of(new OrderLine(1L, 1L), new OrderLine(1L, 2L));
+        });
+
+        coPurchaseIndex.rebuild();
+
+        assertEquals(List.of(new CoPurchaseIndex.Recommendation(2L, 2)), coPurchaseIndex.recommendations(1L, 10));
+    }
+
+    @Test
+    void testOnLoad_ServesEmptyMatrixUntilBackgroundRebuildFinishes() {
+        coPurchaseIndex.onOrderPlaced(1L, basket(1L, 2L));
+        when(orderItemRepository.findAllOrderLines()).thenReturn(List.of(
+                new OrderLine(1L, 1L), new OrderLine(1L, 2L), new OrderLine(2L, 1L), new OrderLine(2L, 3L)));
+
+        coPurchaseIndex.onLoad(List.of());
+
+        verifyNoInteractions(orderItemRepository);
+        assertEquals(List.of(), coPurchaseIndex.recommendations(1L, 10));
+        assertEquals(1, rebuilds.size());
+
+        rebuilds.remove(0).run();
+        assertEquals(List.of(new CoPurchaseIndex.Recommendation(2L, 1), new CoPurchaseIndex.Recommendation(3L, 1)),
+                coPurchaseIndex.recommendations(1L, 10));
+    }
+
+    private static Map<Long, Integer> basket(Long... productIds) {
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (Long productId : productIds) {
+            quantities.put(productId, 1);
+        }
+        return quantities;
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.ecommercebackend.catalog;
+
+import com.example.ecommercebackend.dto.ProductDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FacetIndexTest {
+
+    private FacetIndex facetIndex;
+    private List<CatalogProduct> products;
+
+    @BeforeEach
+    void setUp() {
+        products = List.of(
+                product(1L, 1L, 20.0, null, 5),
+                product(2L, 1L, 80.0, 10.0, 0),
+                product(3L, 2L, 40.0, 30.0, 3),
+                product(4L, 2L, 1200.0, 5.0, 1),
+                product(5L, 1L, 45.0, 0.0, 7)
+        );
+        facetIndex = new FacetIndex();
+        facetIndex.onLoad(products);
+    }
+
+    @Test
+    void testFilter_IntersectsFacetsAndPages() {
+        FacetIndex.FacetPage page = facetIndex.filter(Map.of(
+                FacetIndex.CATEGORY, Set.of("1"),
+                FacetIndex.IN_STOCK, Set.of("true")), products, false, 0, 1);
+
+        assertEquals(2L, page.products().getTotalElements());
+        assertEquals(List.of(5L), ids(page));
+        assertFalse(page.products().getLastPage());
+    }
+
+    @Test
+    void testFilter_CountsIgnoreOwnFacetSelection() {
+        FacetIndex.FacetPage page = facetIndex.filter(Map.of(
+                FacetIndex.CATEGORY, Set.of("1"),
+                FacetIndex.PRICE_BAND, Set.of("0-25", "25-50")), products, true, 0, 10);
+
+        assertEquals(List.of(1L, 5L), ids(page));
+        assertEquals(Map.of("1", 2, "2", 1), page.facets().get(FacetIndex.CATEGORY));
+        assertEquals(Map.of("0-25", 1, "25-50", 1, "50-100", 1, "1000+", 0), page.facets().get(FacetIndex.PRICE_BAND));
+        assertEquals(Map.of("none", 2, "0-10", 0, "10-25", 0, "25-50", 0), page.facets().get(FacetIndex.DISCOUNT_BAND));
+    }
+
+    @Test
+    void testBands() {
+        assertEquals("1000+", FacetIndex.priceBand(products.get(3)));
+        assertEquals("0-10", FacetIndex.discountBand(products.get(3)));
+        assertEquals("10-25", FacetIndex.discountBand(products.get(1)));
+        assertEquals("25-50", FacetIndex.discountBand(products.get(2)));
+        assertEquals("none", FacetIndex.discountBand(products.get(0)));
+    }
+
+    @Test
+    void testWrites_MoveProductBetweenFacetValues() {
+        facetIndex.onSaved(products.get(1), product(2L, 2L, 80.0, 10.0, 4));
+        facetIndex.onRemoved(products.get(0));
+
+        FacetIndex.FacetPage page = facetIndex.filter(Map.of(FacetIndex.IN_STOCK, Set.of("true")), products, true, 0, 10);
+
+        assertEquals(List.of(2L, 3L, 4L, 5L), ids(page));
+        assertEquals(Map.of("1", 1, "2", 3), page.facets().get(FacetIndex.CATEGORY));
+        assertEquals(Map.of("true", 4), page.facets().get(FacetIndex.IN_STOCK));
+    }
+
+    @Test
+    void testRemovedOrdinalsAreReused() {
+        CatalogProduct replacement = product(6L, 2L, 30.0, null, 2);
+        facetIndex.onRemoved(products.get(0));
+        facetIndex.onSaved(null, replacement);
+
+        FacetIndex.FacetPage page = facetIndex.filter(Map.of(FacetIndex.PRICE_BAND, Set.of("25-50")),
+                List.of(products.get(0), products.get(2), products.get(4), replacement), true, 0, 10);
+
+        assertEquals(List.of(3L, 5L, 6L), ids(page));
+        assertEquals(Map.of("1", 1, "2", 2), page.facets().get(FacetIndex.CATEGORY));
+        assertEquals(5, facetIndex.ordinalCapacity());
+    }
+
+    private static List<Long> ids(FacetIndex.FacetPage page) {
+        return page.products().getContent().stream().map(ProductDTO::getProductId).toList();
+    }
+
+    private static CatalogProduct product(Long id, Long categoryId, Double price, Double discount, int quantity) {
+        Double specialPrice = discount == null ? price : price - discount * 0.01 * price;
+        return new CatalogProduct(id, "Product " + id, "default.png", null, quantity, price, discount, specialPrice, categoryId);
+    }
+}
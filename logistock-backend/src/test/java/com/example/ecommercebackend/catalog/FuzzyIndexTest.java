@@ -0,0 +1,61 @@
+package com.example.ecommercebackend.catalog;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FuzzyIndexTest {
+
+    private FuzzyIndex fuzzyIndex;
+
+    @BeforeEach
+    void setUp() {
+        fuzzyIndex = new FuzzyIndex();
+        fuzzyIndex.onLoad(List.of(
+                product(1L, "Smartphone"),
+                product(2L, "Wireless Headphones"),
+                product(3L, "Washing Machine"),
+                product(4L, "Phone Case")
+        ));
+    }
+
+    @Test
+    void testMatches_ToleratesTyposByTokenLength() {
+        assertEquals(Map.of(1L, 1), fuzzyIndex.matches("smarthpone"));
+        assertEquals(Map.of(2L, 2), fuzzyIndex.matches("wirless headphnes"));
+        assertEquals(Map.of(4L, 1), fuzzyIndex.matches("phne"));
+        assertEquals(Map.of(4L, 2), fuzzyIndex.matches("phnoe csae"));
+        assertEquals(Map.of(), fuzzyIndex.matches("phn"));
+    }
+
+    @Test
+    void testMatches_EveryTokenMustMatch() {
+        assertEquals(Map.of(3L, 1), fuzzyIndex.matches("washng machine"));
+        assertEquals(Map.of(), fuzzyIndex.matches("washing phone"));
+    }
+
+    @Test
+    void testOnSavedAndOnRemoved_UpdateVocabulary() {
+        fuzzyIndex.onSaved(product(4L, "Phone Case"), product(4L, "Laptop Sleeve"));
+        fuzzyIndex.onRemoved(product(1L, "Smartphone"));
+
+        assertEquals(Map.of(4L, 1), fuzzyIndex.matches("labtop"));
+        assertEquals(Map.of(), fuzzyIndex.matches("phone"));
+        assertEquals(Map.of(), fuzzyIndex.matches("smartphone"));
+    }
+
+    @Test
+    void testDistance_CountsTranspositionAsOneEdit() {
+        assertEquals(1, FuzzyIndex.distance("phoen", "phone", 2));
+        assertEquals(2, FuzzyIndex.distance("kitten", "sitting", 1));
+        assertEquals(0, FuzzyIndex.distance("case", "case", 0));
+    }
+
+    private static CatalogProduct product(Long id, String name) {
+        return new CatalogProduct(id, name, "default.png", null, 10, 100.0, 0.0, 100.0, 1L);
+    }
+}
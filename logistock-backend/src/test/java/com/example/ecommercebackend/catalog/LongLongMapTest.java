@@ -0,0 +1,40 @@
+package com.example.ecommercebackend.catalog;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongLongMapTest {
+
+    @Test
+    void testRandomOperationsMatchHashMap() {
+        LongLongMap map = new LongLongMap();
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(11);
+        for (int i = 0; i < 50_000; i++) {
+            // Few distinct keys so that probe runs collide and removals shift them
+            long key = 1 + random.nextInt(500);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key) != null, map.remove(key));
+            } else {
+                assertEquals((long) expected.merge(key, 1L, Long::sum), map.addTo(key, 1));
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        expected.forEach((key, value) -> assertEquals(value, map.get(key)));
+        Map<Long, Long> visited = new HashMap<>();
+        map.forEach(visited::put);
+        assertEquals(expected, visited);
+        assertEquals(0, map.get(10_000L));
+    }
+
+    @Test
+    void testRejectsNonPositiveKeys() {
+        assertThrows(IllegalArgumentException.class, () -> new LongLongMap().addTo(0, 1));
+    }
+}
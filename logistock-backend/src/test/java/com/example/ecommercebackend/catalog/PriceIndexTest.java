@@ -0,0 +1,77 @@
+package com.example.ecommercebackend.catalog;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PriceIndexTest {
+
+    private PriceIndex priceIndex;
+
+    @BeforeEach
+    void setUp() {
+        priceIndex = new PriceIndex();
+        priceIndex.onLoad(List.of(
+                product(1L, 49.99),
+                product(2L, 10.0),
+                product(3L, 50.0),
+                product(4L, null),
+                product(5L, 10.0),
+                product(6L, 120.0)
+        ));
+    }
+
+    @Test
+    void testRange_InclusiveBoundsInPriceOrder() {
+        assertEquals(List.of(2L, 5L, 1L, 3L), ids(priceIndex.range(10.0, 50.0)));
+        assertEquals(List.of(2L, 5L, 1L), ids(priceIndex.range(null, 49.99)));
+        assertEquals(List.of(6L), ids(priceIndex.range(50.01, null)));
+        assertEquals(List.of(), ids(priceIndex.range(60.0, 100.0)));
+    }
+
+    @Test
+    void testOnSaved_RepricesIncrementally() {
+        priceIndex.onSaved(product(6L, 120.0), product(6L, 20.0));
+        priceIndex.onSaved(product(1L, 49.99), product(1L, null));
+        priceIndex.onSaved(null, product(7L, 10.0));
+
+        assertEquals(List.of(2L, 5L, 7L, 6L, 3L), ids(priceIndex.range(null, null)));
+    }
+
+    @Test
+    void testOnChanged_AppliesBatchInOneMerge() {
+        priceIndex.onChanged(List.of(
+                new CatalogListener.Change(product(6L, 120.0), product(6L, 20.0)),
+                new CatalogListener.Change(null, product(7L, 5.0)),
+                new CatalogListener.Change(product(4L, null), product(4L, 50.0)),
+                new CatalogListener.Change(product(7L, 5.0), product(7L, 60.0)),
+                new CatalogListener.Change(product(2L, 10.0), null),
+                new CatalogListener.Change(product(1L, 49.99), product(1L, 49.99))));
+
+        assertEquals(List.of(5L, 6L, 1L, 3L, 4L, 7L), ids(priceIndex.range(null, null)));
+    }
+
+    @Test
+    void testOnRemoved() {
+        priceIndex.onRemoved(product(5L, 10.0));
+        priceIndex.onRemoved(product(4L, null));
+
+        assertEquals(List.of(2L, 1L, 3L, 6L), ids(priceIndex.range(null, null)));
+    }
+
+    private static List<Long> ids(PriceIndex.Range range) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < range.size(); i++) {
+            ids.add(range.productId(i));
+        }
+        return ids;
+    }
+
+    private static CatalogProduct product(Long id, Double specialPrice) {
+        return new CatalogProduct(id, "Product " + id, "default.png", null, 10, specialPrice, 0.0, specialPrice, 1L);
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.ecommercebackend.catalog;
+
+import com.example.ecommercebackend.dto.ProductEventDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ProductEventBroadcasterTest {
+
+    private final List<Runnable> sends = new ArrayList<>();
+    private final ScheduledExecutorService timer = mock(ScheduledExecutorService.class);
+    private final ProductEventBroadcaster broadcaster = new ProductEventBroadcaster(60_000, 3, 250, 15_000, 30_000, sends::add, timer);
+    private final List<Runnable> watchdogs = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        doAnswer(invocation -> {
+            watchdogs.add(invocation.getArgument(0));
+            return mock(ScheduledFuture.class);
+        }).when(timer).schedule(any(Runnable.class), anyLong(), any());
+    }
+
+    @Test
+    void testBurstsAreCoalescedPerProduct() {
+        RecordingEmitter emitter = subscribe(List.of());
+
+        broadcaster.onSaved(product(1L, 100.0, 5), product(1L, 90.0, 5));
+        broadcaster.onSaved(product(1L, 90.0, 5), product(1L, 80.0, 4));
+        broadcaster.onSaved(product(2L, 10.0, 1), product(2L, 10.0, 0));
+        broadcaster.flush();
+        runSends();
+
+        assertEquals(1, emitter.batches.size());
+        List<ProductEventDTO> batch = emitter.batches.get(0);
+        assertEquals(List.of(1L, 2L), batch.stream().map(ProductEventDTO::getProductId).toList());
+        assertEquals(80.0, batch.get(0).getPrice());
+        assertEquals(4, batch.get(0).getQuantity());
+    }
+
+    @Test
+    void testOnlyWatchedFieldsAndSubscribedProductsAreSent() {
+        RecordingEmitter emitter = subscribe(List.of(2L));
+        CatalogProduct renamed = new CatalogProduct(1L, "Renamed", "p.png", "d", 5, 100.0, 0.0, 100.0, 1L);
+
+        broadcaster.onSaved(product(2L, 100.0, 5), renamed);
+        broadcaster.onSaved(product(1L, 100.0, 5), product(1L, 50.0, 5));
+        broadcaster.onSaved(null, product(3L, 100.0, 5));
+        broadcaster.flush();
+        runSends();
+        assertTrue(emitter.batches.isEmpty());
+
+        broadcaster.onSaved(product(2L, 100.0, 5), product(2L, 100.0, 4));
+        broadcaster.flush();
+        runSends();
+        assertEquals(List.of(2L), emitter.batches.get(0).stream().map(ProductEventDTO::getProductId).toList());
+    }
+
+    @Test
+    void testSlowSubscriberIsCoalescedThenDisconnected() {
+        RecordingEmitter slow = subscribe(List.of());
+
+        broadcaster.onSaved(product(1L, 100.0, 5), product(1L, 90.0, 5));
+        broadcaster.flush();
+        // Nothing is drained while the first write is in flight; repeated changes to a product take one slot
+        for (long productId = 2; productId <= 3; productId++) {
+            broadcaster.onSaved(product(productId, 100.0, 5), product(productId, 90.0, 5));
+            broadcaster.onSaved(product(productId, 90.0, 5), product(productId, 80.0, 5));
+            broadcaster.flush();
+        }
+        assertEquals(1, sends.size());
+        assertEquals(1, broadcaster.subscriberCount());
+
+        broadcaster.onSaved(product(4L, 100.0, 5), product(4L, 90.0, 5));
+        broadcaster.flush();
+        assertEquals(0, broadcaster.subscriberCount());
+        runSends();
+        assertTrue(slow.batches.isEmpty());
+    }
+
+    @Test
+    void testStalledWriteIsInterruptedAndSubscriberDropped() {
+        List<Boolean> interrupted = new ArrayList<>();
+        RecordingEmitter stalled = new RecordingEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) {
+                // The watchdog fires while the write is still blocked
+                watchdogs.forEach(Runnable::run);
+                interrupted.add(Thread.currentThread().isInterrupted());
+            }
+        };
+        broadcaster.register(stalled, List.of());
+
+        broadcaster.onSaved(product(1L, 100.0, 5), product(1L, 90.0, 5));
+        broadcaster.flush();
+        runSends();
+
+        assertEquals(List.of(true), interrupted);
+        assertFalse(Thread.currentThread().isInterrupted());
+        assertEquals(0, broadcaster.subscriberCount());
+        verify(timer).schedule(any(Runnable.class), eq(30_000_000_000L), eq(TimeUnit.NANOSECONDS));
+    }
+
+    @Test
+    void testFinishedWriteIsNotInterrupted() {
+        RecordingEmitter emitter = subscribe(List.of());
+
+        broadcaster.onSaved(product(1L, 100.0, 5), product(1L, 90.0, 5));
+        broadcaster.flush();
+        runSends();
+        watchdogs.forEach(Runnable::run);
+
+        assertFalse(Thread.currentThread().isInterrupted());
+        assertEquals(1, broadcaster.subscriberCount());
+        assertEquals(1, emitter.batches.size());
+    }
+
+    private RecordingEmitter subscribe(List<Long> productIds) {
+        RecordingEmitter emitter = new RecordingEmitter();
+        broadcaster.register(emitter, productIds);
+        return emitter;
+    }
+
+    private void runSends() {
+        while (!sends.isEmpty()) {
+            sends.remove(0).run();
+        }
+    }
+
+    private static CatalogProduct product(Long productId, Double price, Integer quantity) {
+        return new CatalogProduct(productId, "Product " + productId, "p.png", "d", quantity, price, 0.0, price, 1L);
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+        final List<List<ProductEventDTO>> batches = new ArrayList<>();
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void send(SseEventBuilder builder) {
+            Set<DataWithMediaType> parts = builder.build();
+            parts.stream().map(DataWithMediaType::getData).filter(List.class::isInstance)
+                    .forEach(data -> batches.add((List<ProductEventDTO>) data));
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.ecommercebackend.catalog;
+
+import com.example.ecommercebackend.dto.SuggestionDTO;
+import com.example.ecommercebackend.model.Category;
+import com.example.ecommercebackend.repository.CategoryRepository;
+import com.example.ecommercebackend.repository.OrderItemRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SuggestionIndexTest {
+
+    private SuggestionIndex suggestionIndex;
+
+    @BeforeEach
+    void setUp() {
+        CategoryRepository categoryRepository = mock(CategoryRepository.class);
+        OrderItemRepository orderItemRepository = mock(OrderItemRepository.class);
+        when(categoryRepository.findAll()).thenReturn(List.of(new Category(1L, "Phones"), new Category(2L, "Home")));
+        when(orderItemRepository.sumUnitsSoldByProduct()).thenReturn(List.of(
+                new ProductSales(1L, 5L), new ProductSales(2L, 9L)));
+
+        suggestionIndex = new SuggestionIndex(categoryRepository, orderItemRepository);
+        suggestionIndex.onLoad(List.of(
+                product(1L, "Phone Case", 1L),
+                product(2L, "Smartphone", 1L),
+                product(3L, "Photo Frame", 2L)
+        ));
+    }
+
+    @Test
+    void testSuggest_RanksByPopularityAcrossWordStarts() {
+        assertEquals(List.of("Phones", "Phone Case", "Photo Frame"), texts(suggestionIndex.suggest("Ph", 10)));
+        assertEquals(List.of("Phone Case"), texts(suggestionIndex.suggest("case", 10)));
+        assertEquals(List.of("Phones"), texts(suggestionIndex.suggest("ph", 1)));
+        assertEquals(List.of(), suggestionIndex.suggest("laptop", 10));
+        assertEquals(14L, suggestionIndex.suggest("phones", 1).get(0).getPopularity());
+    }
+
+    @Test
+    void testOnOrderPlaced_ReordersSuggestions() {
+        suggestionIndex.onOrderPlaced(1L, Map.of(3L, 20));
+
+        List<SuggestionDTO> suggestions = suggestionIndex.suggest("ph", 2);
+        assertEquals(List.of("Photo Frame", "Phones"), texts(suggestions));
+        assertEquals(20L, suggestionIndex.suggest("home", 1).get(0).getPopularity());
+    }
+
+    @Test
+    void testWrites_RenameRemoveAndCategories() {
+        suggestionIndex.onSaved(product(3L, "Photo Frame", 2L), product(3L, "Picture Frame", 2L));
+        suggestionIndex.onRemoved(product(1L, "Phone Case", 1L));
+        suggestionIndex.onCategorySaved(3L, "Photography");
+        suggestionIndex.onCategoryRemoved(2L);
+
+        assertEquals(List.of("Phones", "Photography"), texts(suggestionIndex.suggest("pho", 10)));
+        assertEquals(List.of("Picture Frame"), texts(suggestionIndex.suggest("fra", 10)));
+        assertEquals(List.of(), suggestionIndex.suggest("case", 10));
+        assertEquals(9L, suggestionIndex.suggest("phones", 1).get(0).getPopularity());
+    }
+
+    @Test
+    void testSuggest_PrefixesBeyondKeyCap() {
+        suggestionIndex.onSaved(null, product(4L, "Stainless steel insulated bottle 750 ml", 2L));
+        suggestionIndex.onSaved(null, product(5L, "Stainless steel insulated bottle 500 ml", 2L));
+
+        assertEquals(List.of("Stainless steel insulated bottle 500 ml", "Stainless steel insulated bottle 750 ml"),
+                texts(suggestionIndex.suggest("stainless steel insul", 10)));
+        assertEquals(List.of("Stainless steel insulated bottle 750 ml"), texts(suggestionIndex.suggest("Stainless steel insulated bottle 7", 10)));
+        assertEquals(List.of("Stainless steel insulated bottle 500 ml"), texts(suggestionIndex.suggest("steel insulated bottle 5", 10)));
+        assertEquals(List.of(), suggestionIndex.suggest("stainless steel insulated flask", 10));
+    }
+
+    @Test
+    void testWrites_SharedPrefixesSplitAndMerge() {
+        suggestionIndex.onSaved(null, product(4L, "Phonograph", 2L));
+        suggestionIndex.onSaved(null, product(5L, "Phon", 2L));
+        assertEquals(List.of("Phon", "Phone Case", "Phones", "Phonograph"), texts(suggestionIndex.suggest("phon", 10)).stream().sorted().toList());
+
+        suggestionIndex.onRemoved(product(5L, "Phon", 2L));
+        suggestionIndex.onRemoved(product(1L, "Phone Case", 1L));
+
+        assertEquals(List.of("Phones", "Phonograph"), texts(suggestionIndex.suggest("phon", 10)).stream().sorted().toList());
+        assertEquals(List.of("Phonograph"), texts(suggestionIndex.suggest("phono", 10)));
+        assertEquals(List.of(), suggestionIndex.suggest("phonx", 10));
+    }
+
+    @Test
+    void testRandomWrites_MatchBruteForce() {
+        Random random = new Random(3);
+        suggestionIndex.onLoad(List.of());
+        Map<Long, String> names = new HashMap<>();
+        for (int step = 0; step < 3000; step++) {
+            long productId = 1 + random.nextInt(60);
+            if (random.nextInt(4) == 0) {
+                suggestionIndex.onRemoved(product(productId, names.getOrDefault(productId, "x"), 1L));
+                names.remove(productId);
+            } else {
+                String name = randomName(random);
+                suggestionIndex.onSaved(null, product(productId, name, 1L));
+                names.put(productId, name);
+            }
+            String source = randomName(random);
+            String prefix = source.substring(0, Math.min(source.length(), 1 + random.nextInt(4))).strip();
+            List<String> expected = new ArrayList<>();
+            names.forEach((id, name) -> {
+                if (SuggestionIndex.keys(name).stream().anyMatch(key -> key.startsWith(prefix))) {
+                    expected.add(name);
+                }
+            });
+            expected.sort(String.CASE_INSENSITIVE_ORDER);
+            assertEquals(expected.subList(0, Math.min(SuggestionIndex.TOP_N, expected.size())),
+                    texts(suggestionIndex.suggest(prefix, SuggestionIndex.TOP_N)).stream()
+                            .filter(text -> !text.equals("Phones") && !text.equals("Home")).toList(), prefix);
+        }
+    }
+
+    private static String randomName(Random random) {
+        StringBuilder name = new StringBuilder();
+        int words = 1 + random.nextInt(3);
+        for (int w = 0; w < words; w++) {
+            name.append(w == 0 ? "" : " ");
+            int length = 1 + random.nextInt(5);
+            for (int i = 0; i < length; i++) {
+                name.append((char) ('a' + random.nextInt(3)));
+            }
+        }
+        return name.toString();
+    }
+
+    private static List<String> texts(List<SuggestionDTO> suggestions) {
+        return suggestions.stream().map(SuggestionDTO::getText).toList();
+    }
+
+    private static CatalogProduct product(Long id, String name, Long categoryId) {
+        return new CatalogProduct(id, name, "default.png", null, 10, 100.0, 0.0, 100.0, categoryId);
+    }
+}
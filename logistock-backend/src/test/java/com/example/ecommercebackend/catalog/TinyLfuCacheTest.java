@@ -0,0 +1,62 @@
+package com.example.ecommercebackend.catalog;
+
+import com.example.ecommercebackend.dto.CacheStatsDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TinyLfuCacheTest {
+
+    @Test
+    void testHotKeysSurviveAOneOffScan() {
+        TinyLfuCache<Integer, String> cache = new TinyLfuCache<>(100, 100, value -> 1);
+        AtomicInteger loads = new AtomicInteger();
+        for (int round = 0; round < 5; round++) {
+            for (int key = 0; key < 50; key++) {
+                cache.get(key, k -> { loads.incrementAndGet(); return "hot" + k; });
+            }
+        }
+        for (int key = 1000; key < 3000; key++) {
+            cache.get(key, k -> "scan" + k);
+        }
+
+        loads.set(0);
+        for (int key = 0; key < 50; key++) {
+            cache.get(key, k -> { loads.incrementAndGet(); return "hot" + k; });
+        }
+        assertTrue(loads.get() <= 2, "hot keys reloaded: " + loads.get());
+    }
+
+    @Test
+    void testWeightStaysWithinBound() {
+        TinyLfuCache<Integer, String> cache = new TinyLfuCache<>(1000, 50, String::length);
+        for (int key = 0; key < 500; key++) {
+            cache.get(key, k -> "x".repeat(1 + k % 40));
+        }
+
+        CacheStatsDTO stats = cache.stats();
+        assertTrue(stats.getWeightedSize() <= 1000);
+        assertTrue(stats.getEvictions() > 0);
+        assertEquals(500L, stats.getMisses());
+        cache.get(0, k -> "x".repeat(2000));
+        assertTrue(cache.stats().getWeightedSize() <= 1000);
+    }
+
+    @Test
+    void testInvalidate_DropsEntryAndSkipsRacingLoad() {
+        TinyLfuCache<Integer, String> cache = new TinyLfuCache<>(100, 100, value -> 1);
+        cache.get(1, k -> "v1");
+        cache.invalidate(1);
+        assertEquals("v2", cache.get(1, k -> "v2"));
+
+        // The loader saw pre-commit data; an invalidation lands before it returns
+        assertEquals("stale", cache.get(2, k -> { cache.invalidate(2); return "stale"; }));
+        assertEquals("fresh", cache.get(2, k -> "fresh"));
+
+        assertNull(cache.get(3, k -> null));
+        assertEquals(2, cache.stats().getEntries());
+        assertEquals("fresh", cache.get(2, k -> "reloaded"));
+    }
+}
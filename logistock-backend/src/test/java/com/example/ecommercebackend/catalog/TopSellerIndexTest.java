@@ -0,0 +1,150 @@
+package com.example.ecommercebackend.catalog;
+
+import com.example.ecommercebackend.repository.OrderItemRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TopSellerIndexTest {
+
+    private OrderItemRepository orderItemRepository;
+    private MutableClock clock;
+    private TopSellerIndex topSellerIndex;
+
+    @BeforeEach
+    void setUp() {
+        orderItemRepository = mock(OrderItemRepository.class);
+        when(orderItemRepository.sumUnitsSoldByProduct()).thenReturn(List.of(
+                new ProductSales(1L, 5L), new ProductSales(2L, 9L), new ProductSales(3L, 2L), new ProductSales(99L, 50L)));
+        clock = new MutableClock(Instant.parse("2026-01-01T10:15:00Z"));
+        topSellerIndex = new TopSellerIndex(orderItemRepository, clock);
+        topSellerIndex.onLoad(List.of(product(1L, 10L), product(2L, 10L), product(3L, 20L), product(4L, 20L)));
+    }
+
+    @Test
+    void testTopSellers_SeededFromOrderHistory() {
+        assertEquals(List.of(new ProductSales(2L, 9L), new ProductSales(1L, 5L), new ProductSales(3L, 2L)),
+                topSellerIndex.topSellers(null, false, 10));
+        assertEquals(List.of(new ProductSales(3L, 2L)), topSellerIndex.topSellers(20L, false, 10));
+        assertEquals(List.of(), topSellerIndex.topSellers(null, true, 10));
+        assertEquals(List.of(), topSellerIndex.topSellers(30L, false, 10));
+    }
+
+    @Test
+    void testOnOrderPlaced_UpdatesOverallCategoryAndWindow() {
+        topSellerIndex.onOrderPlaced(1L, Map.of(4L, 6, 1L, 1));
+
+        assertEquals(List.of(new ProductSales(2L, 9L), new ProductSales(1L, 6L), new ProductSales(4L, 6L)),
+                topSellerIndex.topSellers(null, false, 3));
+        assertEquals(List.of(new ProductSales(4L, 6L), new ProductSales(3L, 2L)), topSellerIndex.topSellers(20L, false, 10));
+        assertEquals(List.of(new ProductSales(4L, 6L), new ProductSales(1L, 1L)), topSellerIndex.topSellers(null, true, 10));
+        assertEquals(List.of(new ProductSales(1L, 1L)), topSellerIndex.topSellers(10L, true, 10));
+    }
+
+    @Test
+    void testWindow_ExpiresHourlyBuckets() {
+        topSellerIndex.onOrderPlaced(1L, Map.of(1L, 3));
+        clock.advance(Duration.ofHours(12));
+        topSellerIndex.onOrderPlaced(2L, Map.of(2L, 2));
+
+        clock.advance(Duration.ofHours(11));
+        topSellerIndex.tick();
+        assertEquals(List.of(new ProductSales(1L, 3L), new ProductSales(2L, 2L)), topSellerIndex.topSellers(null, true, 10));
+
+        clock.advance(Duration.ofHours(1));
+        topSellerIndex.tick();
+        assertEquals(List.of(new ProductSales(2L, 2L)), topSellerIndex.topSellers(null, true, 10));
+        assertEquals(List.of(new ProductSales(2L, 11L), new ProductSales(1L, 8L)), topSellerIndex.topSellers(10L, false, 10));
+
+        clock.advance(Duration.ofDays(3));
+        topSellerIndex.tick();
+        assertEquals(List.of(), topSellerIndex.topSellers(null, true, 10));
+    }
+
+    @Test
+    void testCategoryMoveAndRemoval() {
+        topSellerIndex.onSaved(product(2L, 10L), product(2L, 20L));
+        assertEquals(List.of(new ProductSales(1L, 5L)), topSellerIndex.topSellers(10L, false, 10));
+        assertEquals(List.of(new ProductSales(2L, 9L), new ProductSales(3L, 2L)), topSellerIndex.topSellers(20L, false, 10));
+
+        topSellerIndex.onRemoved(product(2L, 20L));
+        assertEquals(List.of(new ProductSales(1L, 5L), new ProductSales(3L, 2L)), topSellerIndex.topSellers(null, false, 10));
+        assertEquals(List.of(new ProductSales(3L, 2L)), topSellerIndex.topSellers(20L, false, 10));
+    }
+
+    @Test
+    void testBoards_MatchFullRanking() {
+        Random random = new Random(11);
+        List<CatalogProduct> products = new ArrayList<>();
+        for (long productId = 1; productId <= 300; productId++) {
+            products.add(product(productId, 1 + productId % 3));
+        }
+        when(orderItemRepository.sumUnitsSoldByProduct()).thenReturn(List.of());
+        topSellerIndex.onLoad(products);
+
+        Map<Long, Long> units = new HashMap<>();
+        for (long orderId = 1; orderId <= 3000; orderId++) {
+            long productId = 1 + (long) Math.min(random.nextInt(300), random.nextInt(300));
+            int quantity = 1 + random.nextInt(3);
+            units.merge(productId, (long) quantity, Long::sum);
+            topSellerIndex.onOrderPlaced(orderId, Map.of(productId, quantity));
+        }
+
+        for (Long categoryId : new Long[]{null, 1L, 2L, 3L}) {
+            List<ProductSales> expected = units.entrySet().stream()
+                    .filter(entry -> categoryId == null || categoryId == 1 + entry.getKey() % 3)
+                    .map(entry -> new ProductSales(entry.getKey(), entry.getValue()))
+                    .sorted((a, b) -> a.unitsSold().equals(b.unitsSold())
+                            ? a.productId().compareTo(b.productId()) : b.unitsSold().compareTo(a.unitsSold()))
+                    .limit(TopSellerIndex.TOP_N)
+                    .collect(Collectors.toList());
+            assertEquals(expected, topSellerIndex.topSellers(categoryId, false, TopSellerIndex.TOP_N));
+            assertEquals(expected, topSellerIndex.topSellers(categoryId, true, TopSellerIndex.TOP_N));
+        }
+    }
+
+    private static CatalogProduct product(Long productId, Long categoryId) {
+        return new CatalogProduct(productId, "Product " + productId, "p.png", "d", 5, 10.0, 0.0, 10.0, categoryId);
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
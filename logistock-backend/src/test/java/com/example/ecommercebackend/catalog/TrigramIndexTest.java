@@ -0,0 +1,58 @@
+package com.example.ecommercebackend.catalog;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrigramIndexTest {
+
+    private TrigramIndex trigramIndex;
+
+    @BeforeEach
+    void setUp() {
+        trigramIndex = new TrigramIndex();
+        trigramIndex.onLoad(List.of(
+                product(1L, "Smartphone"),
+                product(2L, "Headphones"),
+                product(3L, "Washing Machine"),
+                product(4L, "Phone Case")
+        ));
+    }
+
+    @Test
+    void testCandidates_IntersectsPostingLists() {
+        assertEquals(Set.of(1L, 2L, 4L), trigramIndex.candidates("phone").orElseThrow());
+        assertEquals(Set.of(2L), trigramIndex.candidates("HEADP").orElseThrow());
+        assertEquals(Set.of(), trigramIndex.candidates("laptop").orElseThrow());
+    }
+
+    @Test
+    void testCandidates_ShortKeywordCannotBeNarrowed() {
+        assertTrue(trigramIndex.candidates("ph").isEmpty());
+    }
+
+    @Test
+    void testOnSaved_RenameMovesPostings() {
+        trigramIndex.onSaved(product(4L, "Phone Case"), product(4L, "Laptop Sleeve"));
+        trigramIndex.onSaved(null, product(5L, "Gaming Laptop"));
+
+        assertEquals(Set.of(1L, 2L), trigramIndex.candidates("phone").orElseThrow());
+        assertEquals(Set.of(4L, 5L), trigramIndex.candidates("laptop").orElseThrow());
+    }
+
+    @Test
+    void testOnRemoved() {
+        trigramIndex.onRemoved(product(1L, "Smartphone"));
+
+        assertEquals(Set.of(2L, 4L), trigramIndex.candidates("phone").orElseThrow());
+        assertEquals(Set.of(), trigramIndex.candidates("smart").orElseThrow());
+    }
+
+    private static CatalogProduct product(Long id, String name) {
+        return new CatalogProduct(id, name, "default.png", null, 10, 100.0, 0.0, 100.0, 1L);
+    }
+}
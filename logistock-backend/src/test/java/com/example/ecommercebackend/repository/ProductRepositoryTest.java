@@ -0,0 +1,315 @@
+package com.example.ecommercebackend.repository;
+
+import com.example.ecommercebackend.catalog.CatalogProduct;
+import com.example.ecommercebackend.catalog.CatalogSortKeys;
+import com.example.ecommercebackend.dto.ProductDTO;
+import com.example.ecommercebackend.model.*;
+import com.example.ecommercebackend.util.KeysetCursor;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.example.ecommercebackend.repository.ProductRepositoryTest$RecordingInspector"
+})
+class ProductRepositoryTest {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private WishlistRepository wishlistRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Statistics statistics;
+    private Category category;
+    private List<Product> products;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        category = entityManager.persist(new Category(null, "Electronics"));
+
+        products = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Product product = new Product();
+            product.setProductName("Laptop " + i);
+            product.setDescription("Laptop number " + i);
+            product.setQuantity(10);
+            product.setPrice(1000.0);
+            product.setDiscount(i % 2 == 0 ? null : 10.0 * i);
+            product.setSpecialPrice(900.0);
+            product.setCategory(category);
+            products.add(entityManager.persist(product));
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void testListingStatementCount_IndependentOfSellersAndCartVolume() {
+        long bare = countListingStatements();
+
+        addSeller();
+        addCartLines(20);
+
+        long withSellersAndCarts = countListingStatements();
+
+        assertEquals(bare, withSellersAndCarts);
+        assertEquals(4, withSellersAndCarts);
+    }
+
+    @Test
+    void testStreamProductDTOs_InIdOrderWithoutManagedEntities() {
+        try (Stream<ProductDTO> stream = productRepository.streamProductDTOs()) {
+            List<Long> ids = stream.map(ProductDTO::getProductId).toList();
+
+            assertEquals(products.stream().map(Product::getProductId).sorted().toList(), ids);
+        }
+        assertEquals(0, entityManager.getEntityManager().unwrap(Session.class).getStatistics().getEntityCount());
+    }
+
+    @Test
+    void testFindProductDTOsByProductIdIn_SkipsUnknownIds() {
+        List<Long> ids = List.of(products.get(3).getProductId(), -1L, products.get(1).getProductId());
+
+        List<ProductDTO> found = productRepository.findProductDTOsByProductIdIn(ids);
+
+        assertEquals(2, found.size());
+        assertTrue(found.stream().allMatch(product -> ids.contains(product.getProductId())));
+    }
+
+    @Test
+    void testKeysetPagination_VisitsEveryRowOnceInOrder() {
+        for (boolean ascending : new boolean[]{true, false}) {
+            for (String sortBy : List.of("productId", "productName", "discount")) {
+                List<Product> expected = productRepository.findAll(KeysetSpecifications.seek(sortBy, "productId", ascending, null));
+
+                List<Long> visited = new ArrayList<>();
+                KeysetCursor cursor = null;
+                do {
+                    KeysetCursor after = cursor == null ? null : KeysetCursor.decode(cursor.encode(), sortBy);
+                    Specification<Product> specification = KeysetSpecifications.seek(sortBy, "productId", ascending, after);
+                    List<Product> page = productRepository.findBy(specification, query -> query.limit(2).all());
+                    page.forEach(product -> visited.add(product.getProductId()));
+                    cursor = page.size() < 2 ? null : KeysetCursor.of(page.get(page.size() - 1), sortBy, "productId");
+                } while (cursor != null);
+
+                assertEquals(5, expected.size());
+                assertEquals(expected.stream().map(Product::getProductId).toList(), visited, sortBy + (ascending ? " asc" : " desc"));
+            }
+        }
+    }
+
+    // H2 cannot scan an index backwards, and on the first page of a category it prefers its own single-column foreign
+    // key index; the indexes still serve those cases on databases that cost them properly
+    @Test
+    void testSortedListings_ReadInIndexOrder() {
+        Long categoryId = category.getCategoryId();
+        for (String sortBy : CatalogSortKeys.keys()) {
+            boolean byId = "productId".equals(sortBy);
+            String columns = byId ? "_ID" : "_" + sortBy.replace("product", "").replaceAll("(?<=.)([A-Z])", "_$1").toUpperCase(Locale.ROOT) + "_ID";
+            KeysetCursor after = KeysetCursor.of(products.get(3), sortBy, "productId");
+
+            assertIndexSorted(byId ? "PRIMARY_KEY" : "IDX_PRODUCTS" + columns, () -> productRepository.findBy(
+                    KeysetSpecifications.seek(sortBy, "productId", true, after), query -> query.limit(3).all()));
+            assertIndexSorted("IDX_PRODUCTS_CATEGORY" + columns, () -> productRepository.findBy(
+                    KeysetSpecifications.<Product>seekWithin("category.categoryId", categoryId, sortBy, "productId", true, after),
+                    query -> query.limit(3).all()));
+        }
+    }
+
+    @Test
+    void testReprice_UpdatesProductsThenStaleCartTotalsAndLines() {
+        addCartLines(2);
+        List<Long> repricedIds = List.of(products.get(0).getProductId(), products.get(1).getProductId());
+
+        assertEquals(2, productRepository.repriceByProductIds(repricedIds, 0, 500, 0, 10));
+        assertEquals(2, cartRepository.repriceTotalsOfStaleCartsForProducts(repricedIds));
+        assertEquals(4, cartItemRepository.repriceStaleCartItemsForProducts(repricedIds));
+        assertEquals(0, cartRepository.repriceTotalsOfStaleCartsForProducts(repricedIds));
+
+        Product repriced = entityManager.find(Product.class, repricedIds.get(0));
+        assertEquals(500.0, repriced.getPrice());
+        assertEquals(10.0, repriced.getDiscount());
+        assertEquals(450.0, repriced.getSpecialPrice());
+        assertEquals(900.0, entityManager.find(Product.class, products.get(2).getProductId()).getSpecialPrice());
+        for (Cart cart : cartRepository.findAll()) {
+            // Two lines of one unit each went from 900 to 450
+            assertEquals(-900.0, cart.getTotalPrice());
+            assertEquals(3, cart.getCartItems().stream().filter(line -> line.getProductPrice() == 900.0).count());
+        }
+    }
+
+    @Test
+    void testRepriceForProducts_OnlyTouchesListedProducts() {
+        addCartLines(1);
+        Long first = products.get(0).getProductId();
+        Long second = products.get(1).getProductId();
+        productRepository.repriceByProductIds(List.of(first, second), 0, 100, 0, 0);
+
+        assertEquals(1, cartRepository.repriceTotalsOfStaleCartsForProducts(List.of(first)));
+        assertEquals(1, cartItemRepository.repriceStaleCartItemsForProducts(List.of(first)));
+
+        Cart cart = cartRepository.findAll().get(0);
+        assertEquals(-800.0, cart.getTotalPrice());
+        assertEquals(100.0, cart.getCartItems().stream().filter(line -> line.getProduct().getProductId().equals(first)).findFirst().orElseThrow().getProductPrice());
+        assertEquals(900.0, cart.getCartItems().stream().filter(line -> line.getProduct().getProductId().equals(second)).findFirst().orElseThrow().getProductPrice());
+    }
+
+    @Test
+    void testDeleteByProductIds_RemovesCartLinesWishlistRowsAndProducts() {
+        addCartLines(2);
+        List<Long> deletedIds = List.of(products.get(0).getProductId(), products.get(1).getProductId());
+        for (User user : entityManager.getEntityManager().createQuery("SELECT u FROM User u", User.class).getResultList()) {
+            Wishlist wishlist = new Wishlist();
+            wishlist.setUser(user);
+            wishlist.setProduct(entityManager.find(Product.class, deletedIds.get(0)));
+            entityManager.persist(wishlist);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        assertEquals(2, cartRepository.subtractProductsFromTotals(deletedIds));
+        assertEquals(4, cartItemRepository.deleteByProductIds(deletedIds));
+        assertEquals(2, wishlistRepository.deleteByProductIds(deletedIds));
+        assertEquals(2, productRepository.deleteByProductIds(deletedIds));
+
+        assertEquals(3, productRepository.count());
+        assertEquals(0, wishlistRepository.count());
+        for (Cart cart : cartRepository.findAll()) {
+            // Two lines of 900 each left the cart
+            assertEquals(-1800.0, cart.getTotalPrice());
+            assertEquals(3, cart.getCartItems().size());
+        }
+    }
+
+    @Test
+    void testReprice_PercentageRuleByCategoryKeepsDiscounts() {
+        assertEquals(5, productRepository.repriceByCategoryId(category.getCategoryId(), 1.1, 0, 1, 0));
+
+        for (CatalogProduct product : productRepository.findCatalogProductsByCategoryId(category.getCategoryId())) {
+            assertEquals(1100.0, product.price(), 1e-9);
+            double expectedSpecialPrice = product.discount() == 0 ? 1100.0 : 1100.0 - product.discount() * 0.01 * 1100.0;
+            assertEquals(expectedSpecialPrice, product.specialPrice(), 1e-9);
+        }
+    }
+
+    // Runs the listing, then asks H2 how it would execute the listing SELECT Hibernate sent
+    private void assertIndexSorted(String index, Runnable listing) {
+        RecordingInspector.statements.clear();
+        listing.run();
+        String select = RecordingInspector.statements.stream().filter(sql -> sql.startsWith("select")).findFirst().orElseThrow();
+        String plan = jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + select)) {
+                for (int i = 1; i <= statement.getParameterMetaData().getParameterCount(); i++) {
+                    statement.setObject(i, null);
+                }
+                try (ResultSet result = statement.executeQuery()) {
+                    result.next();
+                    return result.getString(1);
+                }
+            }
+        });
+        assertTrue(plan.contains(index), plan);
+        assertTrue(plan.contains("index sorted"), plan);
+    }
+
+    public static class RecordingInspector implements StatementInspector {
+        static final List<String> statements = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+    }
+
+    // One SELECT per read behind the listings: the snapshot load and patch, the multi-get fallback and the detail
+    // view. They project into DTOs, so neither the seller with its eager roles and cart nor cart items are fetched
+    private long countListingStatements() {
+        entityManager.clear();
+        statistics.clear();
+
+        List<Long> ids = products.stream().map(Product::getProductId).toList();
+        productRepository.findAllCatalogProducts();
+        productRepository.findCatalogProductsByProductIdIn(ids);
+        productRepository.findProductDTOsByProductIdIn(ids);
+        productRepository.findProductDetailById(ids.get(0));
+
+        return statistics.getPrepareStatementCount();
+    }
+
+    // A seller holding a role and a cart, owning every product
+    private void addSeller() {
+        User seller = new User("seller", "seller@example.com", "password");
+        seller.getRoles().add(new Role(AppRole.ROLE_SELLER));
+        seller = entityManager.persist(seller);
+        Cart cart = new Cart();
+        cart.setUser(seller);
+        entityManager.persist(cart);
+        for (Product product : products) {
+            entityManager.find(Product.class, product.getProductId()).setUser(seller);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private void addCartLines(int cartCount) {
+        for (int i = 0; i < cartCount; i++) {
+            User user = entityManager.persist(new User("shopper" + i, "shopper" + i + "@example.com", "password"));
+
+            Cart cart = new Cart();
+            cart.setUser(user);
+            cart = entityManager.persist(cart);
+
+            for (Product product : products) {
+                CartItem cartItem = new CartItem();
+                cartItem.setCart(cart);
+                cartItem.setProduct(entityManager.find(Product.class, product.getProductId()));
+                cartItem.setQuantity(1);
+                cartItem.setDiscount(product.getDiscount());
+                cartItem.setProductPrice(product.getSpecialPrice());
+                entityManager.persist(cartItem);
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
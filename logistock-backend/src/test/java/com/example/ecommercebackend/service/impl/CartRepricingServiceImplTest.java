@@ -0,0 +1,102 @@
+package com.example.ecommercebackend.service.impl;
+
+import com.example.ecommercebackend.repository.CartItemRepository;
+import com.example.ecommercebackend.repository.CartRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+class CartRepricingServiceImplTest {
+
+    @Mock
+    private CartRepository cartRepository;
+
+    @Mock
+    private CartItemRepository cartItemRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CartRepricingServiceImpl cartRepricingService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        cartRepricingService = new CartRepricingServiceImpl(cartRepository, cartItemRepository, transactionManager);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRepricePendingCarts_CoalescesRepeatedProducts() {
+        when(cartItemRepository.repriceStaleCartItemsForProducts(anyCollection())).thenReturn(3);
+
+        cartRepricingService.productRepriced(1L);
+        cartRepricingService.productRepriced(2L);
+        cartRepricingService.productRepriced(1L);
+
+        assertEquals(3, cartRepricingService.repricePendingCarts());
+        ArgumentCaptor<Collection<Long>> productIds = ArgumentCaptor.forClass(Collection.class);
+        verify(cartRepository).repriceTotalsOfStaleCartsForProducts(productIds.capture());
+        assertEquals(Set.of(1L, 2L), new HashSet<>(productIds.getValue()));
+        verify(cartItemRepository).repriceStaleCartItemsForProducts(productIds.getValue());
+
+        assertEquals(0, cartRepricingService.repricePendingCarts());
+        verifyNoMoreInteractions(cartRepository, cartItemRepository);
+    }
+
+    @Test
+    void testRepricePendingCarts_DrainsInBatches() {
+        for (long id = 0; id < CartRepricingServiceImpl.BATCH_SIZE + 1; id++) {
+            cartRepricingService.productRepriced(id);
+        }
+
+        cartRepricingService.repricePendingCarts();
+
+        verify(cartRepository, times(2)).repriceTotalsOfStaleCartsForProducts(anyCollection());
+        verify(cartItemRepository, times(2)).repriceStaleCartItemsForProducts(anyCollection());
+    }
+
+    @Test
+    void testRepricePendingCarts_RetriesAfterFailure() {
+        when(cartRepository.repriceTotalsOfStaleCartsForProducts(anyCollection()))
+                .thenThrow(new IllegalStateException("lock timeout"))
+                .thenReturn(1);
+
+        cartRepricingService.productRepriced(7L);
+        cartRepricingService.repricePendingCarts();
+        cartRepricingService.repricePendingCarts();
+
+        verify(cartRepository, times(2)).repriceTotalsOfStaleCartsForProducts(List.of(7L));
+        verify(cartItemRepository, times(1)).repriceStaleCartItemsForProducts(List.of(7L));
+    }
+
+    @Test
+    void testProductRepriced_WaitsForCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cartRepricingService.productRepriced(1L);
+            assertEquals(0, cartRepricingService.repricePendingCarts());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        cartRepricingService.repricePendingCarts();
+        verify(cartItemRepository).repriceStaleCartItemsForProducts(List.of(1L));
+    }
+}
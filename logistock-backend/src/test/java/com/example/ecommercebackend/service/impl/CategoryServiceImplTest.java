@@ -1,7 +1,9 @@
 package com.example.ecommercebackend.service.impl;
 
+import com.example.ecommercebackend.catalog.CatalogReadModel;
 import com.example.ecommercebackend.dto.CategoryDTO;
 import com.example.ecommercebackend.dto.CategoryResponse;
+import com.example.ecommercebackend.exception.APIException;
 import com.example.ecommercebackend.model.Category;
 import com.example.ecommercebackend.repository.CategoryRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -27,6 +29,9 @@ class CategoryServiceImplTest {
     @Mock
     private ModelMapper modelMapper;
 
+    @Mock
+    private CatalogReadModel catalogReadModel;
+
     @InjectMocks
     private CategoryServiceImpl categoryService;
 
@@ -58,7 +63,7 @@ class CategoryServiceImplTest {
 
     @Test
     void testFetchCategories() {
-        Pageable pageable = PageRequest.of(0, 10, Sort.by("categoryName").ascending());
+        Pageable pageable = PageRequest.of(0, 10, Sort.by("categoryName", "categoryId").ascending());
         Page<Category> categoryPage = new PageImpl<>(Arrays.asList(category1, category2), pageable, 2);
         when(categoryRepository.findAll(pageable)).thenReturn(categoryPage);
         when(modelMapper.map(category1, CategoryDTO.class)).thenReturn(categoryDTO1);
@@ -72,6 +77,13 @@ class CategoryServiceImplTest {
         verify(categoryRepository, times(1)).findAll(pageable);
     }
 
+    @Test
+    void testFetchCategories_RejectsUnsupportedSortKey() {
+        assertThrows(APIException.class, () -> categoryService.fetchCategories(0, 10, "description", "asc"));
+        assertThrows(APIException.class, () -> categoryService.fetchCategoriesAfter(10, "products", "asc", null));
+        verifyNoInteractions(categoryRepository);
+    }
+
     @Test
     void testCreateCategory_Success() {
         when(categoryRepository.findByCategoryName(categoryDTO1.getCategoryName())).thenReturn(Optional.empty());
@@ -84,6 +96,7 @@ class CategoryServiceImplTest {
         assertNotNull(result);
         assertEquals("Electronics", result.getCategoryName());
         verify(categoryRepository, times(1)).save(category1);
+        verify(catalogReadModel, times(1)).categorySaved(category1);
     }
 
     @Test
@@ -122,6 +135,7 @@ class CategoryServiceImplTest {
         categoryService.deleteCategory(1L);
 
         verify(categoryRepository, times(1)).deleteById(1L);
+        verify(catalogReadModel, times(1)).categoryRemoved(1L);
     }
 
     @Test
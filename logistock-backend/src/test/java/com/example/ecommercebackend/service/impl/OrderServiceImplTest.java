@@ -1,11 +1,13 @@
 package com.example.ecommercebackend.service.impl;
 
+import com.example.ecommercebackend.catalog.CatalogReadModel;
 import com.example.ecommercebackend.dto.OrderDTO;
 import com.example.ecommercebackend.dto.OrderItemDTO;
 import com.example.ecommercebackend.exception.APIException;
 import com.example.ecommercebackend.model.*;
 import com.example.ecommercebackend.repository.*;
 import com.example.ecommercebackend.service.CartService;
+import com.example.ecommercebackend.service.ProductChangeService;
 import com.example.ecommercebackend.util.AuthUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -17,6 +19,7 @@ import org.mockito.MockitoAnnotations;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -51,6 +54,12 @@ class OrderServiceImplTest {
     @Mock
     private AuthUtil authUtil;
 
+    @Mock
+    private CatalogReadModel catalogReadModel;
+
+    @Mock
+    private ProductChangeService productChangeService;
+
     private ModelMapper modelMapper = new ModelMapper();
 
     @BeforeEach
@@ -111,6 +120,8 @@ class OrderServiceImplTest {
         // Verificar interacciones con mocks
         verify(cartService, times(1)).deleteProductFromCart(cart.getCartId(), product.getProductId());
         verify(productRepository, times(1)).save(product);
+        verify(catalogReadModel, times(1)).productSaved(product);
+        verify(catalogReadModel, times(1)).orderPlaced(1L, Map.of(1L, 2));
     }
 
     @Test
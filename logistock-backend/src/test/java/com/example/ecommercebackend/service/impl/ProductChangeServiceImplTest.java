@@ -0,0 +1,187 @@
+package com.example.ecommercebackend.service.impl;
+
+import com.example.ecommercebackend.dto.ProductChangesResponse;
+import com.example.ecommercebackend.dto.ProductDTO;
+import com.example.ecommercebackend.exception.APIException;
+import com.example.ecommercebackend.model.Category;
+import com.example.ecommercebackend.model.Product;
+import com.example.ecommercebackend.repository.ProductChangeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import(ProductChangeServiceImpl.class)
+class ProductChangeServiceImplTest {
+
+    @Autowired
+    private ProductChangeServiceImpl productChangeService;
+
+    @Autowired
+    private ProductChangeRepository productChangeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Category category;
+
+    @BeforeEach
+    void setUp() {
+        category = entityManager.persist(new Category(null, "Electronics"));
+    }
+
+    @Test
+    void testFetchChanges_ReturnsLatestStatePerProductInVersionOrder() {
+        Product laptop = persist("Laptop");
+        Product phone = persist("Phone");
+        Product tablet = persist("Tablet");
+        productChangeService.recordUpserts(List.of(laptop.getProductId(), phone.getProductId(), tablet.getProductId()));
+        long version = productChangeRepository.findLatestChangeId();
+
+        productChangeService.recordUpserts(List.of(laptop.getProductId()));
+        entityManager.remove(phone);
+        entityManager.flush();
+        productChangeService.recordDeletes(List.of(phone.getProductId()));
+
+        ProductChangesResponse fromScratch = productChangeService.fetchChanges(0L, 10);
+        assertFalse(fromScratch.getFullResync());
+        assertFalse(fromScratch.getHasMore());
+        assertEquals(List.of(tablet.getProductId(), laptop.getProductId()), fromScratch.getUpserted().stream().map(ProductDTO::getProductId).toList());
+        assertEquals(List.of(phone.getProductId()), fromScratch.getDeleted());
+        assertEquals(productChangeRepository.findLatestChangeId(), fromScratch.getVersion());
+
+        ProductChangesResponse delta = productChangeService.fetchChanges(version, 10);
+        assertEquals(List.of(laptop.getProductId()), delta.getUpserted().stream().map(ProductDTO::getProductId).toList());
+        assertEquals(List.of(phone.getProductId()), delta.getDeleted());
+
+        ProductChangesResponse upToDate = productChangeService.fetchChanges(delta.getVersion(), 10);
+        assertTrue(upToDate.getUpserted().isEmpty());
+        assertTrue(upToDate.getDeleted().isEmpty());
+        assertEquals(delta.getVersion(), upToDate.getVersion());
+    }
+
+    @Test
+    void testFetchChanges_PagesByLimit() {
+        List<Long> productIds = List.of(persist("Laptop").getProductId(), persist("Phone").getProductId(), persist("Tablet").getProductId());
+        productChangeService.recordUpserts(productIds);
+
+        ProductChangesResponse first = productChangeService.fetchChanges(0L, 2);
+        assertTrue(first.getHasMore());
+        assertEquals(productIds.subList(0, 2), first.getUpserted().stream().map(ProductDTO::getProductId).toList());
+
+        ProductChangesResponse second = productChangeService.fetchChanges(first.getVersion(), 2);
+        assertFalse(second.getHasMore());
+        assertEquals(productIds.subList(2, 3), second.getUpserted().stream().map(ProductDTO::getProductId).toList());
+    }
+
+    @Test
+    void testCompact_DropsSupersededEntriesAndExpiredDeletes() {
+        Product laptop = persist("Laptop");
+        Product phone = persist("Phone");
+        productChangeService.recordUpserts(List.of(laptop.getProductId(), phone.getProductId()));
+        productChangeService.recordUpserts(List.of(laptop.getProductId()));
+        entityManager.remove(phone);
+        entityManager.flush();
+        productChangeService.recordDeletes(List.of(phone.getProductId()));
+        long beforeDelete = productChangeRepository.findLatestChangeId() - 1;
+        jdbcTemplate.update("UPDATE product_changes SET changed_at = ?", Timestamp.valueOf(LocalDateTime.now().minusDays(31)));
+
+        assertEquals(3, productChangeService.compact());
+
+        assertEquals(1, productChangeRepository.count());
+        assertTrue(productChangeService.fetchChanges(beforeDelete, 10).getFullResync());
+        ProductChangesResponse fromScratch = productChangeService.fetchChanges(0L, 10);
+        assertFalse(fromScratch.getFullResync());
+        assertEquals(List.of(laptop.getProductId()), fromScratch.getUpserted().stream().map(ProductDTO::getProductId).toList());
+        assertTrue(fromScratch.getDeleted().isEmpty());
+    }
+
+    @Test
+    void testFetchChanges_VersionAheadOfLogRequiresResync() {
+        productChangeService.recordUpserts(List.of(persist("Laptop").getProductId()));
+
+        assertTrue(productChangeService.fetchChanges(productChangeRepository.findLatestChangeId() + 1, 10).getFullResync());
+    }
+
+    @Test
+    void testFetchChanges_StopsBeforeVersionsOfOpenTransactions() throws Exception {
+        // Commits on its own rather than joining the test transaction
+        TransactionTemplate writer = new TransactionTemplate(transactionManager);
+        writer.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        CountDownLatch recorded = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            long before = productChangeService.fetchChanges(0L, ProductChangeServiceImpl.MAX_LIMIT).getVersion();
+            Future<?> slow = executor.submit(() -> writer.executeWithoutResult(status -> {
+                productChangeService.recordUpserts(List.of(900_001L));
+                recorded.countDown();
+                await(release);
+            }));
+            assertTrue(recorded.await(5, TimeUnit.SECONDS));
+            // Written after the slow transaction but committed first
+            writer.executeWithoutResult(status -> productChangeService.recordUpserts(List.of(900_002L)));
+
+            assertEquals(before, productChangeService.fetchChanges(before, 10).getVersion());
+
+            release.countDown();
+            slow.get(5, TimeUnit.SECONDS);
+            assertEquals(productChangeRepository.findLatestChangeId(), productChangeService.fetchChanges(before, 10).getVersion());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+            writer.executeWithoutResult(status -> jdbcTemplate.update("DELETE FROM product_changes WHERE product_id IN (900001, 900002)"));
+        }
+    }
+
+    @Test
+    void testFetchChanges_InvalidArguments() {
+        assertThrows(APIException.class, () -> productChangeService.fetchChanges(-1L, 10));
+        assertThrows(APIException.class, () -> productChangeService.fetchChanges(0L, 0));
+        assertThrows(APIException.class, () -> productChangeService.fetchChanges(0L, ProductChangeServiceImpl.MAX_LIMIT + 1));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Product persist(String name) {
+        Product product = new Product();
+        product.setProductName(name);
+        product.setProductImage("default.png");
+        product.setQuantity(1);
+        product.setPrice(100.0);
+        product.setDiscount(0.0);
+        product.setSpecialPrice(100.0);
+        product.setCategory(category);
+        return entityManager.persistAndFlush(product);
+    }
+}
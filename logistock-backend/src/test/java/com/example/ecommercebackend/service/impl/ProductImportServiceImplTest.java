@@ -0,0 +1,169 @@
+package com.example.ecommercebackend.service.impl;
+
+import com.example.ecommercebackend.catalog.CatalogProduct;
+import com.example.ecommercebackend.catalog.CatalogReadModel;
+import com.example.ecommercebackend.dto.ProductImportError;
+import com.example.ecommercebackend.dto.ProductImportResponse;
+import com.example.ecommercebackend.exception.APIException;
+import com.example.ecommercebackend.exception.custom.ResourceNotFoundException;
+import com.example.ecommercebackend.model.Category;
+import com.example.ecommercebackend.model.Product;
+import com.example.ecommercebackend.repository.ProductChangeRepository;
+import com.example.ecommercebackend.repository.ProductRepository;
+import com.example.ecommercebackend.service.ProductImportService.Format;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest
+@Import({ProductImportServiceImpl.class, ProductChangeServiceImpl.class})
+class ProductImportServiceImplTest {
+
+    @Autowired
+    private ProductImportServiceImpl productImportService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductChangeRepository productChangeRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @MockitoBean
+    private CatalogReadModel catalogReadModel;
+
+    private Category category;
+
+    @BeforeEach
+    void setUp() {
+        category = entityManager.persist(new Category(null, "Electronics"));
+        Product existing = new Product();
+        existing.setProductName("Laptop");
+        existing.setProductImage("default.png");
+        existing.setQuantity(1);
+        existing.setPrice(1000.0);
+        existing.setDiscount(0.0);
+        existing.setSpecialPrice(1000.0);
+        existing.setCategory(category);
+        entityManager.persist(existing);
+        entityManager.flush();
+    }
+
+    @Test
+    void testImportCsv_InsertsValidRowsAndReportsInvalidOnes() throws IOException {
+        String csv = """
+                productName,description,quantity,price,discount
+                Phone,"Slim, light",5,500,10
+                Tablet,,3,300,
+                Watch,Smart,many,100,0
+                Camera,Mirrorless,2,-1,0
+                Phone,Again,1,10,0
+                Laptop,Already there,1,10,0
+                """;
+
+        ProductImportResponse response = productImportService.importProducts(category.getCategoryId(), stream(csv), Format.CSV);
+
+        assertEquals(6, response.getRowsRead());
+        assertEquals(2, response.getImported());
+        assertEquals(4, response.getRejected());
+        assertEquals(List.of(4, 5, 6, 7), response.getErrors().stream().map(ProductImportError::getLine).sorted().toList());
+        assertTrue(response.getErrors().stream().anyMatch(e -> e.getLine() == 4 && e.getMessage().contains("quantity 'many' is not a number")));
+        assertTrue(response.getErrors().stream().anyMatch(e -> e.getLine() == 7 && e.getMessage().contains("already exists")));
+
+        entityManager.clear();
+        Product phone = productRepository.findByProductName("Phone").orElseThrow();
+        assertEquals("Slim, light", phone.getDescription());
+        assertEquals(450.0, phone.getSpecialPrice());
+        assertEquals("default.png", phone.getProductImage());
+        assertEquals(category.getCategoryId(), phone.getCategory().getCategoryId());
+        Product tablet = productRepository.findByProductName("Tablet").orElseThrow();
+        assertNull(tablet.getDescription());
+        assertEquals(0.0, tablet.getDiscount());
+        assertEquals(300.0, tablet.getSpecialPrice());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testImportNdjson_AcceptsExportFormatAndNotifiesReadModel() throws IOException {
+        String ndjson = """
+                {"productId":99,"productName":"Phone","productImage":"phone.png","description":"Slim","quantity":5,"price":200.0,"discount":25.0,"specialPrice":1.0}
+                {"productName":"Broken"
+                """;
+
+        ProductImportResponse response = productImportService.importProducts(category.getCategoryId(), stream(ndjson), Format.NDJSON);
+
+        assertEquals(1, response.getImported());
+        assertEquals(1, response.getRejected());
+        ArgumentCaptor<List<CatalogProduct>> imported = ArgumentCaptor.forClass(List.class);
+        verify(catalogReadModel).catalogProductsSaved(imported.capture());
+        CatalogProduct phone = imported.getValue().get(0);
+        assertNotEquals(99L, phone.productId());
+        assertEquals("phone.png", phone.productImage());
+        assertEquals(150.0, phone.specialPrice());
+        assertEquals(category.getCategoryId(), phone.categoryId());
+    }
+
+    @Test
+    void testImportNdjson_NullRowRejected() throws IOException {
+        String ndjson = "null\n{\"productName\":\"Tablet\",\"quantity\":2,\"price\":300.0,\"discount\":0.0}\n";
+
+        ProductImportResponse response = productImportService.importProducts(category.getCategoryId(), stream(ndjson), Format.NDJSON);
+
+        assertEquals(1, response.getImported());
+        assertEquals(1, response.getRejected());
+        assertEquals(1, response.getErrors().get(0).getLine());
+        assertTrue(response.getErrors().get(0).getMessage().startsWith("Row is invalid"));
+    }
+
+    @Test
+    void testImport_WritesOneBatchPerChunk() throws IOException {
+        int rows = ProductImportServiceImpl.CHUNK_SIZE * 20;
+        StringBuilder csv = new StringBuilder("productName,quantity,price,discount\n");
+        for (int i = 0; i < rows; i++) {
+            csv.append("Item ").append(i).append(',').append(i % 50).append(',').append(10 + i % 90).append(",5\n");
+        }
+
+        ProductImportResponse response = productImportService.importProducts(category.getCategoryId(), stream(csv.toString()), Format.CSV);
+
+        assertEquals(rows, response.getImported());
+        assertEquals(0, response.getRejected());
+        assertEquals(rows + 1, productRepository.count());
+        assertEquals(rows, productChangeRepository.count());
+        verify(catalogReadModel, times(20)).catalogProductsSaved(anyList());
+    }
+
+    @Test
+    void testImportCsv_UnknownHeaderColumn() {
+        String csv = "productName,colour\nPhone,red\n";
+
+        APIException exception = assertThrows(APIException.class,
+                () -> productImportService.importProducts(category.getCategoryId(), stream(csv), Format.CSV));
+        assertTrue(exception.getMessage().contains("'colour' is invalid"));
+    }
+
+    @Test
+    void testImport_CategoryNotFound() {
+        assertThrows(ResourceNotFoundException.class,
+                () -> productImportService.importProducts(-1L, stream("{}"), Format.NDJSON));
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
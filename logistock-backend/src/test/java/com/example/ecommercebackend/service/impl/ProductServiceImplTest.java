@@ -1,21 +1,43 @@
 package com.example.ecommercebackend.service.impl;
 
+import com.example.ecommercebackend.catalog.CatalogProduct;
+import com.example.ecommercebackend.catalog.CatalogReadModel;
+import com.example.ecommercebackend.catalog.CatalogSnapshot;
+import com.example.ecommercebackend.catalog.ProductDetailCache;
+import com.example.ecommercebackend.catalog.SearchResultCache;
+import com.example.ecommercebackend.catalog.CatalogSearch;
 import com.example.ecommercebackend.dto.ProductDTO;
+import com.example.ecommercebackend.dto.ProductDetailDTO;
+import com.example.ecommercebackend.dto.ProductDeleteResponse;
+import com.example.ecommercebackend.dto.ProductRepriceRequest;
+import com.example.ecommercebackend.dto.ProductResponse;
+import com.example.ecommercebackend.dto.ProductRepriceResponse;
+import com.example.ecommercebackend.exception.APIException;
 import com.example.ecommercebackend.exception.custom.ResourceNotFoundException;
 import com.example.ecommercebackend.model.Category;
 import com.example.ecommercebackend.model.Product;
+import com.example.ecommercebackend.repository.CartItemRepository;
 import com.example.ecommercebackend.repository.CartRepository;
 import com.example.ecommercebackend.repository.CategoryRepository;
 import com.example.ecommercebackend.repository.ProductRepository;
-import com.example.ecommercebackend.service.CartService;
+import com.example.ecommercebackend.repository.WishlistRepository;
+import com.example.ecommercebackend.service.CartRepricingService;
 import com.example.ecommercebackend.service.FileService;
+import com.example.ecommercebackend.service.ProductChangeService;
+import com.example.ecommercebackend.service.ProductStatsService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
 import org.modelmapper.ModelMapper;
 import org.springframework.mock.web.MockMultipartFile;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -38,15 +60,35 @@ class ProductServiceImplTest {
     private CartRepository cartRepository;
 
     @Mock
-    private CartService cartService;
+    private CartItemRepository cartItemRepository;
+
+    @Mock
+    private WishlistRepository wishlistRepository;
+
+    @Mock
+    private CartRepricingService cartRepricingService;
+
+    @Mock
+    private CatalogReadModel catalogReadModel;
+
+    @Mock
+    private CatalogSearch catalogSearch;
+
+    @Mock
+    private ProductChangeService productChangeService;
+
+    @Mock
+    private ProductStatsService productStatsService;
 
     private ModelMapper modelMapper;
+    private SearchResultCache searchResultCache;
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
 
         // Inicializar ModelMapper
         modelMapper = new ModelMapper();
+        searchResultCache = new SearchResultCache(1 << 20);
 
         // Inyectar manualmente los mocks y el modelMapper
         productService = new ProductServiceImpl(
@@ -55,7 +97,15 @@ class ProductServiceImplTest {
                 modelMapper,
                 fileService,
                 cartRepository,
-                cartService
+                cartItemRepository,
+                wishlistRepository,
+                cartRepricingService,
+                catalogReadModel,
+                catalogSearch,
+                new ProductDetailCache(1 << 20),
+                searchResultCache,
+                productChangeService,
+                productStatsService
         );
 
         // Aquí asignamos imageUploadPath manualmente
@@ -93,6 +143,219 @@ class ProductServiceImplTest {
         assertEquals("Laptop", result.getProductName());
         assertEquals(900.0, result.getSpecialPrice());
         verify(productRepository, times(1)).save(any(Product.class));
+        verify(catalogReadModel, times(1)).productSaved(savedProduct);
+    }
+
+    @Test
+    void testUpdateProduct_QueuesCartRepricingOnlyWhenPriceChanges() {
+        Product product = new Product();
+        product.setProductId(1L);
+        product.setProductName("Laptop");
+        product.setPrice(1000.0);
+        product.setDiscount(10.0);
+        product.setSpecialPrice(900.0);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(productRepository.save(any(Product.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        ProductDTO rename = new ProductDTO();
+        rename.setProductName("Notebook");
+        productService.updateProduct(1L, rename);
+        verifyNoInteractions(cartRepricingService);
+
+        ProductDTO reprice = new ProductDTO();
+        reprice.setPrice(800.0);
+        ProductDTO result = productService.updateProduct(1L, reprice);
+
+        assertEquals(720.0, result.getSpecialPrice());
+        verify(cartRepricingService).productRepriced(1L);
+    }
+
+    @Test
+    void testRepriceProducts_ByCategoryThenCartTotalsThenCartLines() {
+        ProductRepriceRequest request = new ProductRepriceRequest(1L, null, null, null, -20.0, 5.0);
+        List<CatalogProduct> repriced = List.of(
+                new CatalogProduct(4L, "Phone", "default.png", null, 1, 400.0, 5.0, 380.0, 1L),
+                new CatalogProduct(9L, "Tablet", "default.png", null, 1, 800.0, 5.0, 760.0, 1L));
+        when(categoryRepository.existsById(1L)).thenReturn(true);
+        when(productRepository.repriceByCategoryId(1L, 0.8, 0, 0, 5.0)).thenReturn(2);
+        when(productRepository.findCatalogProductsByCategoryId(1L)).thenReturn(repriced);
+        when(cartRepository.repriceTotalsOfStaleCartsForProducts(List.of(4L, 9L))).thenReturn(2);
+        when(cartItemRepository.repriceStaleCartItemsForProducts(List.of(4L, 9L))).thenReturn(4);
+
+        ProductRepriceResponse response = productService.repriceProducts(request);
+
+        assertEquals(new ProductRepriceResponse(2, 4, 2), response);
+        InOrder inOrder = inOrder(productRepository, cartRepository, cartItemRepository, catalogReadModel);
+        inOrder.verify(productRepository).repriceByCategoryId(1L, 0.8, 0, 0, 5.0);
+        inOrder.verify(cartRepository).repriceTotalsOfStaleCartsForProducts(List.of(4L, 9L));
+        inOrder.verify(cartItemRepository).repriceStaleCartItemsForProducts(List.of(4L, 9L));
+        inOrder.verify(catalogReadModel).catalogProductsSaved(repriced);
+    }
+
+    @Test
+    void testRepriceProducts_CartUpdatesChunkedByProductIds() {
+        ProductRepriceRequest request = new ProductRepriceRequest(null, null, true, 10.0, null, null);
+        List<CatalogProduct> repriced = new ArrayList<>();
+        for (long id = 1; id <= 2500; id++) {
+            repriced.add(new CatalogProduct(id, "Product " + id, "default.png", null, 1, 10.0, 0.0, 10.0, 1L));
+        }
+        when(productRepository.repriceAll(0, 10.0, 1, 0)).thenReturn(2500);
+        when(productRepository.findAllCatalogProducts()).thenReturn(repriced);
+        when(cartItemRepository.repriceStaleCartItemsForProducts(anyCollection())).thenReturn(1);
+
+        ProductRepriceResponse response = productService.repriceProducts(request);
+
+        assertEquals(3, response.getCartItemsUpdated());
+        ArgumentCaptor<Collection<Long>> chunks = ArgumentCaptor.forClass(Collection.class);
+        verify(cartItemRepository, times(3)).repriceStaleCartItemsForProducts(chunks.capture());
+        assertEquals(List.of(1000, 1000, 500), chunks.getAllValues().stream().map(Collection::size).toList());
+        verify(cartRepository, times(3)).repriceTotalsOfStaleCartsForProducts(anyCollection());
+    }
+
+    @Test
+    void testRepriceProducts_ByIdsDeduplicatedAndChunked() {
+        List<Long> productIds = new ArrayList<>();
+        for (long id = 1; id <= 2500; id++) {
+            productIds.add(id);
+        }
+        productIds.addAll(productIds.subList(0, 500));
+        ProductRepriceRequest request = new ProductRepriceRequest(null, productIds, null, 10.0, null, null);
+        when(productRepository.repriceByProductIds(anyCollection(), eq(0.0), eq(10.0), eq(1.0), eq(0.0)))
+                .thenAnswer(invocation -> invocation.<Collection<Long>>getArgument(0).size());
+        when(productRepository.findCatalogProductsByProductIdIn(anyCollection())).thenAnswer(invocation -> invocation.<Collection<Long>>getArgument(0).stream()
+                .map(id -> new CatalogProduct(id, "Product " + id, "default.png", null, 1, 10.0, 0.0, 10.0, 1L)).toList());
+
+        ProductRepriceResponse response = productService.repriceProducts(request);
+
+        assertEquals(2500, response.getProductsUpdated());
+        ArgumentCaptor<Collection<Long>> updated = ArgumentCaptor.forClass(Collection.class);
+        verify(productRepository, times(3)).repriceByProductIds(updated.capture(), eq(0.0), eq(10.0), eq(1.0), eq(0.0));
+        assertEquals(List.of(1000, 1000, 500), updated.getAllValues().stream().map(Collection::size).toList());
+        ArgumentCaptor<Collection<Long>> read = ArgumentCaptor.forClass(Collection.class);
+        verify(productRepository, times(3)).findCatalogProductsByProductIdIn(read.capture());
+        assertEquals(updated.getAllValues(), read.getAllValues());
+        verify(productChangeService).recordUpserts(argThat(ids -> ids.size() == 2500));
+    }
+
+    @Test
+    void testFetchProductsByIds_SnapshotFirstInRequestOrder() {
+        CatalogProduct cached = new CatalogProduct(3L, "Phone", "default.png", null, 1, 500.0, 0.0, 500.0, 1L);
+        CatalogProduct other = new CatalogProduct(1L, "Laptop", "default.png", null, 1, 900.0, 0.0, 900.0, 1L);
+        when(catalogReadModel.snapshot()).thenReturn(CatalogSnapshot.of(List.of(cached, other)));
+        ProductDTO committedLater = new ProductDTO(7L, "Tablet", "default.png", null, 1, 300.0, 0.0, 300.0);
+        when(productRepository.findProductDTOsByProductIdIn(List.of(7L, 99L))).thenReturn(List.of(committedLater));
+
+        ProductResponse response = productService.fetchProductsByIds(List.of(7L, 3L, 99L, 1L, 3L));
+
+        assertEquals(List.of(7L, 3L, 1L), response.getContent().stream().map(ProductDTO::getProductId).toList());
+        assertEquals(3L, response.getTotalElements());
+        verify(productRepository, times(1)).findProductDTOsByProductIdIn(anyCollection());
+    }
+
+    @Test
+    void testFetchProductsByCategoryAfter_SeeksInSnapshot() {
+        List<CatalogProduct> products = new ArrayList<>();
+        for (long id = 1; id <= 5; id++) {
+            products.add(new CatalogProduct(id, "Product " + id, "default.png", null, 1, 100.0 * (id % 3), 0.0, 100.0, id == 5 ? 2L : 1L));
+        }
+        when(catalogReadModel.snapshot()).thenReturn(CatalogSnapshot.of(products));
+        when(categoryRepository.existsById(1L)).thenReturn(true);
+
+        ProductResponse first = productService.fetchProductsByCategoryAfter(2, "price", "desc", 1L, null);
+        ProductResponse second = productService.fetchProductsByCategoryAfter(2, "price", "desc", 1L, first.getNextCursor());
+
+        assertEquals(List.of(2L, 4L), first.getContent().stream().map(ProductDTO::getProductId).toList());
+        assertEquals(List.of(1L, 3L), second.getContent().stream().map(ProductDTO::getProductId).toList());
+        assertTrue(second.getLastPage());
+        assertNull(second.getNextCursor());
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void testFetchProduct_LoadsOnceThenServesFromCache() {
+        ProductDetailDTO detail = new ProductDetailDTO(1L, "Laptop", "default.png", null, 1, 900.0, 0.0, 900.0, 2L, "Electronics", "seller");
+        when(productRepository.findProductDetailById(1L)).thenReturn(Optional.of(detail));
+
+        assertEquals(detail, productService.fetchProduct(1L));
+        assertEquals(detail, productService.fetchProduct(1L));
+
+        verify(productRepository, times(1)).findProductDetailById(1L);
+        verify(productStatsService, times(2)).recordView(1L);
+        assertEquals(1L, productService.productCacheStats().getHits());
+        assertEquals(1L, productService.productCacheStats().getMisses());
+    }
+
+    @Test
+    void testSearchProduct_CachedUntilMatchingProductChanges() {
+        CatalogProduct laptop = new CatalogProduct(1L, "Laptop", "default.png", null, 1, 900.0, 0.0, 900.0, 1L);
+        when(catalogSearch.containing("lap", "price")).thenReturn(List.of(laptop));
+
+        productService.searchProduct(0, 10, "price", "asc", "Lap", false, false);
+        productService.searchProduct(0, 10, "price", "ASC", "lap", false, false);
+        verify(catalogSearch, times(1)).containing("lap", "price");
+        verify(productStatsService, times(2)).recordSearchImpressions(List.of(1L));
+
+        searchResultCache.onSaved(null, new CatalogProduct(2L, "Phone", "default.png", null, 1, 500.0, 0.0, 500.0, 1L));
+        productService.searchProduct(0, 10, "price", "asc", "lap", false, false);
+        verify(catalogSearch, times(1)).containing("lap", "price");
+
+        searchResultCache.onSaved(new CatalogProduct(3L, "Laptop stand", "default.png", null, 1, 50.0, 0.0, 50.0, 1L),
+                new CatalogProduct(3L, "Monitor stand", "default.png", null, 1, 50.0, 0.0, 50.0, 1L));
+        productService.searchProduct(0, 10, "price", "asc", "lap", false, false);
+        verify(catalogSearch, times(2)).containing("lap", "price");
+        assertEquals(2L, productService.searchCacheStats().getHits());
+    }
+
+    @Test
+    void testListings_RejectUnsupportedSortKey() {
+        assertThrows(APIException.class, () -> productService.fetchProducts(0, 10, "description", "asc", true));
+        assertThrows(APIException.class, () -> productService.fetchProductsAfter(10, "quantity", "asc", null));
+        assertThrows(APIException.class, () -> productService.searchProduct(0, 10, "productImage", "asc", "lap", true, false));
+        verifyNoInteractions(productRepository, catalogSearch);
+    }
+
+    @Test
+    void testFetchProduct_NotFound() {
+        when(productRepository.findProductDetailById(5L)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> productService.fetchProduct(5L));
+        verifyNoInteractions(productStatsService);
+    }
+
+    @Test
+    void testDeleteProducts_AdjustsTotalsBeforeRemovingLines() {
+        List<Long> ids = List.of(1L, 2L);
+        when(cartRepository.subtractProductsFromTotals(ids)).thenReturn(3);
+        when(cartItemRepository.deleteByProductIds(ids)).thenReturn(4);
+        when(wishlistRepository.deleteByProductIds(ids)).thenReturn(1);
+        when(productRepository.deleteByProductIds(ids)).thenReturn(2);
+
+        ProductDeleteResponse response = productService.deleteProducts(List.of(1L, 2L, 1L));
+
+        assertEquals(new ProductDeleteResponse(2, 4, 3, 1), response);
+        InOrder inOrder = inOrder(cartRepository, cartItemRepository, wishlistRepository, productStatsService, productRepository, catalogReadModel);
+        inOrder.verify(cartRepository).subtractProductsFromTotals(ids);
+        inOrder.verify(cartItemRepository).deleteByProductIds(ids);
+        inOrder.verify(wishlistRepository).deleteByProductIds(ids);
+        inOrder.verify(productStatsService).removeStats(ids);
+        inOrder.verify(productRepository).deleteByProductIds(ids);
+        inOrder.verify(catalogReadModel).productsRemoved(ids);
+    }
+
+    @Test
+    void testDeleteProducts_RejectsEmptyIdList() {
+        assertThrows(APIException.class, () -> productService.deleteProducts(List.of()));
+        verifyNoInteractions(cartRepository, cartItemRepository, wishlistRepository);
+    }
+
+    @Test
+    void testRepriceProducts_RejectsAmbiguousRequests() {
+        assertThrows(APIException.class, () -> productService.repriceProducts(new ProductRepriceRequest(1L, List.of(2L), null, 10.0, null, null)));
+        assertThrows(APIException.class, () -> productService.repriceProducts(new ProductRepriceRequest(null, null, null, 10.0, null, null)));
+        assertThrows(APIException.class, () -> productService.repriceProducts(new ProductRepriceRequest(null, null, true, 10.0, 5.0, null)));
+        assertThrows(APIException.class, () -> productService.repriceProducts(new ProductRepriceRequest(null, null, true, null, null, null)));
+        assertThrows(APIException.class, () -> productService.repriceProducts(new ProductRepriceRequest(null, null, true, null, null, 120.0)));
+        verify(productRepository, never()).repriceAll(anyDouble(), anyDouble(), anyDouble(), anyDouble());
     }
 
     @Test
@@ -122,4 +385,19 @@ class ProductServiceImplTest {
         assertTrue(result.getProductImage().contains("Laptop"));
         verify(productRepository, times(1)).save(any(Product.class));
     }
+
+    @Test
+    void testExportProducts_WritesOneJsonObjectPerLine() throws Exception {
+        when(productRepository.streamProductDTOs()).thenReturn(Stream.of(
+                new ProductDTO(1L, "Laptop", "default.png", "Fast", 5, 1000.0, 10.0, 900.0),
+                new ProductDTO(2L, "Mouse", "default.png", null, 0, 20.0, null, 20.0)));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        productService.exportProducts(outputStream);
+
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{\"productId\":1,\"productName\":\"Laptop\""));
+        assertTrue(lines[1].contains("\"discount\":null"));
+    }
 }
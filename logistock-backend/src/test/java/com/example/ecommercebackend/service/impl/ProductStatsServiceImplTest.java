@@ -0,0 +1,121 @@
+package com.example.ecommercebackend.service.impl;
+
+import com.example.ecommercebackend.dto.ProductStatsDTO;
+import com.example.ecommercebackend.exception.custom.ResourceNotFoundException;
+import com.example.ecommercebackend.model.Category;
+import com.example.ecommercebackend.model.Product;
+import com.example.ecommercebackend.model.ProductStats;
+import com.example.ecommercebackend.repository.ProductStatsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import(ProductStatsServiceImpl.class)
+class ProductStatsServiceImplTest {
+
+    @Autowired
+    private ProductStatsServiceImpl productStatsService;
+
+    @Autowired
+    private ProductStatsRepository productStatsRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Long laptopId;
+    private Long phoneId;
+
+    @BeforeEach
+    void setUp() {
+        // The service outlives each test's rollback, so drop counts left by earlier tests
+        productStatsService.flush();
+        Category category = entityManager.persist(new Category(null, "Electronics"));
+        laptopId = persist("Laptop", category).getProductId();
+        phoneId = persist("Phone", category).getProductId();
+    }
+
+    @Test
+    void testFlush_MergesDeltasIntoPersistedTotals() {
+        IntStream.range(0, 3).parallel().forEach(i -> productStatsService.recordView(laptopId));
+        productStatsService.recordListImpressions(List.of(laptopId, phoneId));
+        assertEquals(2, productStatsService.flush());
+
+        productStatsService.recordView(laptopId);
+        productStatsService.recordSearchImpressions(List.of(laptopId));
+        assertEquals(1, productStatsService.flush());
+        assertEquals(0, productStatsService.flush());
+
+        entityManager.clear();
+        ProductStats laptop = productStatsRepository.findById(laptopId).orElseThrow();
+        assertEquals(4L, laptop.getViews());
+        assertEquals(1L, laptop.getListImpressions());
+        assertEquals(1L, laptop.getSearchImpressions());
+        assertEquals(0L, productStatsRepository.findById(phoneId).orElseThrow().getViews());
+    }
+
+    @Test
+    void testFetchStats_AddsUnflushedCountsToPersistedTotals() {
+        productStatsService.recordView(laptopId);
+        productStatsService.flush();
+        productStatsService.recordView(laptopId);
+        productStatsService.recordSearchImpressions(List.of(laptopId));
+
+        entityManager.clear();
+        assertEquals(new ProductStatsDTO(laptopId, 2L, 0L, 1L), productStatsService.fetchStats(laptopId));
+        assertEquals(new ProductStatsDTO(phoneId, 0L, 0L, 0L), productStatsService.fetchStats(phoneId));
+    }
+
+    @Test
+    void testFetchStats_ProductNotFound() {
+        assertThrows(ResourceNotFoundException.class, () -> productStatsService.fetchStats(-1L));
+    }
+
+    @Test
+    void testRemoveStats_DropsCountersAndRow() {
+        productStatsService.recordView(laptopId);
+        productStatsService.flush();
+        productStatsService.recordView(laptopId);
+        productStatsService.recordView(phoneId);
+
+        productStatsService.removeStats(List.of(laptopId));
+
+        assertTrue(productStatsRepository.findById(laptopId).isEmpty());
+        assertEquals(1, productStatsService.flush());
+        assertTrue(productStatsRepository.findById(laptopId).isEmpty());
+        assertEquals(1L, productStatsRepository.findById(phoneId).orElseThrow().getViews());
+    }
+
+    @Test
+    void testFlush_DropsCountsOfDeletedProducts() {
+        entityManager.remove(entityManager.find(Product.class, phoneId));
+        entityManager.flush();
+        productStatsService.recordView(phoneId);
+        productStatsService.recordListImpressions(List.of(laptopId, phoneId));
+
+        assertEquals(1, productStatsService.flush());
+        assertTrue(productStatsRepository.findById(phoneId).isEmpty());
+        // The dropped counter is not retried
+        assertEquals(0, productStatsService.flush());
+    }
+
+    private Product persist(String name, Category category) {
+        Product product = new Product();
+        product.setProductName(name);
+        product.setProductImage("default.png");
+        product.setQuantity(1);
+        product.setPrice(100.0);
+        product.setDiscount(0.0);
+        product.setSpecialPrice(100.0);
+        product.setCategory(category);
+        return entityManager.persistAndFlush(product);
+    }
+}